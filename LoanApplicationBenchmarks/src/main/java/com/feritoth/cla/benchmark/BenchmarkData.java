@@ -0,0 +1,79 @@
+package com.feritoth.cla.benchmark;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.feritoth.cla.springmvc.dbmodel.Client;
+import com.feritoth.cla.springmvc.dbmodel.IPAddress;
+import com.feritoth.cla.springmvc.dbmodel.Loan;
+import com.feritoth.cla.springmvc.dbmodel.LoanCurrency;
+
+/**
+ * The input data shared by the benchmarks: loan entities built in memory, in the shape in which the DAOs return them -
+ * every loan references its IP address, which references its client. The data is generated from a fixed seed, so that
+ * every run (and every fork of a run) measures the same values.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public final class BenchmarkData {
+
+	private static final long RANDOM_SEED = 42L;
+
+	/* The registered clients and addresses behind the generated loans - each client issues loans from a few addresses */
+	private static final int CLIENT_COUNT = 200;
+	private static final int IP_ADDRESSES_PER_CLIENT = 3;
+
+	/* The well-formed and the malformed inputs of the validators, mixed in the benchmarks as they come from the clients */
+	public static final String[] CLIENT_NAMES = {"Novak Jan", "O'Neill Mary", "Smith-Jones Anna Maria", "dvorak petr", "Svoboda"};
+	public static final String[] EMAIL_ADDRESSES = {"john.doe@gmail.com", "a+b_c-d@mail-server.cz", "first.last-1@sub1.domain.org", "john.doe@gmail", "x@@y.com"};
+	public static final String[] CNPS = {"190071130101", "2850312123456", "19007113010A", ""};
+	public static final String[] IP_ADDRESSES = {"192.168.10.1", "10.0.0.254", "127.0.0.1", "256.1.1.1", "10.0.0"};
+
+	private BenchmarkData() {
+	}
+
+	/**
+	 * Generates loans of all the kinds handled by the application: both currencies, amounts up to the maximum one,
+	 * application times around the clock and extended as well as never extended loans.
+	 *
+	 * @param loanCount the number of loans to generate
+	 *
+	 * @return the loan entities, with their loan IDs in ascending order
+	 */
+	public static List<Loan> generateLoans(int loanCount){
+		Random random = new Random(RANDOM_SEED);
+		List<IPAddress> ipAddresses = new ArrayList<>();
+		for (int clientIndex = 0; clientIndex < CLIENT_COUNT; clientIndex++){
+			Client client = new Client(String.valueOf(1900101000000L + clientIndex), "Novak" + (char) ('a' + clientIndex % 26) + " Jan",
+					                   "client" + clientIndex + "@example.com", "Street " + clientIndex + ", Prague");
+			for (int addressIndex = 0; addressIndex < IP_ADDRESSES_PER_CLIENT; addressIndex++){
+				int ipAddressID = ipAddresses.size() + 1;
+				ipAddresses.add(new IPAddress(ipAddressID, "10." + (ipAddressID >> 16 & 0xFF) + "." + (ipAddressID >> 8 & 0xFF) + "." + (ipAddressID & 0xFF), client, new ArrayList<>()));
+			}
+		}
+		LocalDateTime firstApplicationTime = LocalDateTime.of(2024, 1, 1, 0, 0);
+		List<Loan> loans = new ArrayList<>(loanCount);
+		for (int loanID = 1; loanID <= loanCount; loanID++){
+			LocalDateTime applicationTime = firstApplicationTime.plusMinutes(random.nextInt(60 * 24 * 365));
+			boolean extended = random.nextInt(4) == 0;
+			/* One week for a new loan, one more week for every extension */
+			int extensionCount = extended ? 1 + random.nextInt(3) : 0;
+			LoanCurrency currency = random.nextBoolean() ? LoanCurrency.CZK : LoanCurrency.EUR;
+			long amount = 100L * (1 + random.nextInt(currency == LoanCurrency.CZK ? 300 : 150));
+			long interestRate = amount * 10 / 100;
+			for (int extension = 0; extension < extensionCount; extension++){
+				interestRate = interestRate * 15 / 10;
+			}
+			Loan loan = new Loan(loanID, ipAddresses.get(random.nextInt(ipAddresses.size())), Timestamp.valueOf(applicationTime),
+					             Date.valueOf(applicationTime.toLocalDate().plusWeeks(1 + extensionCount)), amount, currency, extended, interestRate);
+			loans.add(loan);
+		}
+		return loans;
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.feritoth.cla.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.feritoth.cla.springmvc.controller.utility.IOFormatter;
+import com.feritoth.cla.springmvc.dbmodel.Client;
+import com.feritoth.cla.springmvc.dbmodel.Loan;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedClient;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedLoan;
+
+/**
+ * Measures the entity/DTO conversions of IOFormatter: the single conversions done for every registered or extended
+ * loan and client, and the list conversion behind the loan lists of the controllers.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class IOFormatterBenchmark {
+
+	private Loan loan;
+	private SerializedLoan serializedLoan;
+	private Client client;
+	private SerializedClient serializedClient;
+
+	@Setup
+	public void prepareData(){
+		List<Loan> loans = BenchmarkData.generateLoans(100);
+		/* An extended loan, so that the extension count is computed as well */
+		loan = loans.stream().filter(Loan::isExtended).findFirst().orElse(loans.get(0));
+		serializedLoan = IOFormatter.convertSingleLoanEntityToDTO(loan);
+		client = loan.getIpAddress().getClient();
+		serializedClient = IOFormatter.convertSingleClientEntityToDTO(client);
+	}
+
+	@Benchmark
+	public SerializedLoan convertSingleLoanEntityToDTO(){
+		return IOFormatter.convertSingleLoanEntityToDTO(loan);
+	}
+
+	@Benchmark
+	public Loan convertSingleLoanDTOToEntity(){
+		return IOFormatter.convertSingleLoanDTOToEntity(serializedLoan);
+	}
+
+	@Benchmark
+	public List<SerializedLoan> convertEntityToDTOforLoanList(LoanList loanList){
+		return IOFormatter.convertEntityToDTOforLoanList(loanList.loans);
+	}
+
+	@Benchmark
+	public SerializedClient convertSingleClientEntityToDTO(){
+		return IOFormatter.convertSingleClientEntityToDTO(client);
+	}
+
+	@Benchmark
+	public Client convertSerializedClientDTOtoEntity(){
+		return IOFormatter.convertSerializedClientDTOtoEntity(serializedClient);
+	}
+
+	/* The converted loan list - a state of its own, so that only the list conversion is run for each of the list sizes */
+	@State(Scope.Benchmark)
+	public static class LoanList {
+
+		/* A default page of the loan list and a maximum one */
+		@Param({"100", "1000"})
+		private int loanCount;
+
+		private List<Loan> loans;
+
+		@Setup
+		public void prepareLoans(){
+			loans = BenchmarkData.generateLoans(loanCount);
+		}
+
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.feritoth.cla.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.feritoth.cla.springmvc.controller.utility.IOFormatter;
+import com.feritoth.cla.springmvc.service.InputValidator;
+import com.feritoth.cla.springmvc.service.impl.IPAddressSpringService;
+
+/**
+ * Measures the client and IP address validators. Every invocation takes the next input of a small mix of well-formed
+ * and malformed values, so that neither the accepting nor the rejecting path is measured alone.
+ *
+ * Next to the validators themselves, the regular expressions they replaced (see InputValidatorEquivalenceChecker) are
+ * measured as the reference, and validateIPAddress of the IP address service is measured as it is called on the
+ * registration - with its logging, as configured by the log4j.properties of the application.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InputValidatorBenchmark {
+
+	/* The reference expressions - as the services applied them before the hand-written validators */
+	private static final Pattern EMAIL_PATTERN = Pattern.compile("^[_A-Za-z0-9-\\+]+(\\.[_A-Za-z0-9-]+)*@[A-Za-z0-9-]+(\\.[A-Za-z0-9]+)*(\\.[A-Za-z]{2,})$");
+	private static final Pattern IPADDRESS_PATTERN = Pattern.compile("^([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\.([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\.([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\.([01]?\\d\\d?|2[0-4]\\d|25[0-5])$");
+
+	/* The service bean, without its index and cache - validateIPAddress uses none of them */
+	private final IPAddressSpringService ipAddressService = new IPAddressSpringService();
+
+	private int inputIndex;
+
+	/* The next input of the mix - the index overflows only after far more invocations than an iteration makes */
+	private String nextInput(String[] inputs){
+		return inputs[(inputIndex++ & Integer.MAX_VALUE) % inputs.length];
+	}
+
+	@Benchmark
+	public boolean isValidClientName(){
+		return InputValidator.isValidClientName(nextInput(BenchmarkData.CLIENT_NAMES));
+	}
+
+	@Benchmark
+	public boolean isValidEmailAddress(){
+		return InputValidator.isValidEmailAddress(nextInput(BenchmarkData.EMAIL_ADDRESSES));
+	}
+
+	@Benchmark
+	public boolean referenceEmailPattern(){
+		return EMAIL_PATTERN.matcher(nextInput(BenchmarkData.EMAIL_ADDRESSES)).matches();
+	}
+
+	@Benchmark
+	public boolean validateClientCNPcontent(){
+		return IOFormatter.validateClientCNPcontent(nextInput(BenchmarkData.CNPS));
+	}
+
+	@Benchmark
+	public boolean isAssignableIPv4(){
+		return InputValidator.isAssignableIPv4(InputValidator.parseIPv4(nextInput(BenchmarkData.IP_ADDRESSES)));
+	}
+
+	@Benchmark
+	public boolean referenceIPAddressPattern(){
+		return IPADDRESS_PATTERN.matcher(nextInput(BenchmarkData.IP_ADDRESSES)).matches();
+	}
+
+	@Benchmark
+	public boolean validateIPAddress(){
+		return ipAddressService.validateIPAddress(nextInput(BenchmarkData.IP_ADDRESSES));
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.feritoth.cla.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.feritoth.cla.springmvc.configuration.HibernateAwareObjectMapper;
+import com.feritoth.cla.springmvc.controller.utility.IOFormatter;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedLoan;
+
+/**
+ * Measures the JSON serialization of the loan lists returned by LoanRestController, through the same mapper as the
+ * one of the JSON message converter - the shared HibernateAwareObjectMapper. The lists are written into a reused
+ * in-memory stream, which stands in for the response stream of the converter. The hand-written serializers of the
+ * wire DTOs are compared with the reflection-based bean serializers, which a second mapper uses by ignoring the
+ * serializers declared on the DTO classes.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LoanSerializationBenchmark {
+
+	/* A default page of the loan list, a maximum one and full lists of larger databases */
+	@Param({"100", "1000", "10000", "100000"})
+	private int loanCount;
+
+	private ObjectMapper objectMapper;
+	private ObjectMapper beanSerializerMapper;
+	private List<SerializedLoan> serializedLoans;
+	private ByteArrayOutputStream responseStream;
+
+	@Setup
+	public void prepareLoans() throws IOException {
+		objectMapper = HibernateAwareObjectMapper.getSharedInstance();
+		beanSerializerMapper = new HibernateAwareObjectMapper();
+		beanSerializerMapper.setAnnotationIntrospector(new JacksonAnnotationIntrospector() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Object findSerializer(Annotated annotated) {
+				/* The serializers of the properties (e.g. of the application time) are kept */
+				return annotated instanceof AnnotatedClass ? null : super.findSerializer(annotated);
+			}
+		});
+		serializedLoans = IOFormatter.convertEntityToDTOforLoanList(BenchmarkData.generateLoans(loanCount));
+		responseStream = new ByteArrayOutputStream();
+		/* Size the stream ahead, so that its growth is not measured */
+		objectMapper.writeValue(responseStream, serializedLoans);
+		beanSerializerMapper.writeValue(responseStream, serializedLoans);
+	}
+
+	@Benchmark
+	public int writeLoanList() throws IOException {
+		responseStream.reset();
+		objectMapper.writeValue(responseStream, serializedLoans);
+		return responseStream.size();
+	}
+
+	@Benchmark
+	public int writeLoanListThroughBeanSerializers() throws IOException {
+		responseStream.reset();
+		beanSerializerMapper.writeValue(responseStream, serializedLoans);
+		return responseStream.size();
+	}
+
+}
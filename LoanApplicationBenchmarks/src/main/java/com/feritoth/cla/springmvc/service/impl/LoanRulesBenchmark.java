@@ -0,0 +1,116 @@
+package com.feritoth.cla.springmvc.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.feritoth.cla.benchmark.BenchmarkData;
+import com.feritoth.cla.springmvc.dbmodel.Loan;
+import com.feritoth.cla.springmvc.dbmodel.LoanCurrency;
+
+/**
+ * Measures the validation and risk rules applied by LoanSpringService to every registered and extended loan. It lives
+ * in the package of the service, as the rules are package-private methods; the service is created without its DAOs
+ * and caches, which none of the rules uses. Every invocation takes the next loan of a generated sample, so that the
+ * accepted and the rejected values are mixed as on the registration.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LoanRulesBenchmark {
+
+	/* A power of two, so that the next sample index is a mask instead of a division */
+	private static final int SAMPLE_SIZE = 1024;
+
+	private final LoanSpringService loanService = new LoanSpringService();
+
+	/* The rule inputs, taken from the generated loans ahead of the measurement */
+	private final LocalDateTime[] applicationTimes = new LocalDateTime[SAMPLE_SIZE];
+	private final LocalDate[] returnDates = new LocalDate[SAMPLE_SIZE];
+	private final LocalDate[] extendedReturnDates = new LocalDate[SAMPLE_SIZE];
+	private final LocalTime[] applicationDayTimes = new LocalTime[SAMPLE_SIZE];
+	private final LoanCurrency[] currencies = new LoanCurrency[SAMPLE_SIZE];
+	private final Long[] amounts = new Long[SAMPLE_SIZE];
+	private final Long[] interestRates = new Long[SAMPLE_SIZE];
+
+	private int sampleIndex;
+
+	@Setup
+	public void prepareSample(){
+		List<Loan> loans = BenchmarkData.generateLoans(SAMPLE_SIZE);
+		for (int index = 0; index < SAMPLE_SIZE; index++){
+			Loan loan = loans.get(index);
+			applicationTimes[index] = loan.getApplicationTime();
+			returnDates[index] = loan.getPaybackDate();
+			extendedReturnDates[index] = loan.getPaybackDate().plusWeeks(1 + index % 3);
+			applicationDayTimes[index] = loan.getApplicationTime().toLocalTime();
+			currencies[index] = loan.getCurrency();
+			/* Every tenth loan asks for the maximum amount - the one checked by the risk rules */
+			amounts[index] = (index % 10 == 0) ? (loan.getCurrency() == LoanCurrency.CZK ? LoanSpringService.MAXIMUM_CZK_AMOUNT : LoanSpringService.MAXIMUM_EUR_AMOUNT) : loan.getAmount();
+			interestRates[index] = loan.getInterestRate();
+		}
+	}
+
+	private int nextSample(){
+		return sampleIndex++ & (SAMPLE_SIZE - 1);
+	}
+
+	@Benchmark
+	public boolean validateLoanPeriodForRegistration(){
+		int index = nextSample();
+		return loanService.validateLoanPeriodForRegistration(applicationTimes[index], returnDates[index]);
+	}
+
+	@Benchmark
+	public boolean validateLoanPeriodForExtension(){
+		int index = nextSample();
+		return loanService.validateLoanPeriodForExtension(returnDates[index], extendedReturnDates[index]);
+	}
+
+	@Benchmark
+	public boolean validateRegularLoanAmount(){
+		int index = nextSample();
+		return loanService.validateRegularLoanAmount(currencies[index], amounts[index]);
+	}
+
+	@Benchmark
+	public boolean validateRiskLoanAmount(){
+		int index = nextSample();
+		return loanService.validateRiskLoanAmount(currencies[index], amounts[index]);
+	}
+
+	@Benchmark
+	public boolean validateRiskLoanApplicationTime(){
+		return loanService.validateRiskLoanApplicationTime(applicationDayTimes[nextSample()]);
+	}
+
+	@Benchmark
+	public long computeInitialInterestRateForLoan(){
+		return loanService.computeInitialInterestRateForLoan(amounts[nextSample()]);
+	}
+
+	@Benchmark
+	public long computeNewInterestRateForLoan(){
+		return loanService.computeNewInterestRateForLoan(interestRates[nextSample()]);
+	}
+
+}
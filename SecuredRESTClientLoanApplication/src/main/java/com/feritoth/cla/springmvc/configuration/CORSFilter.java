@@ -1,6 +1,9 @@
 package com.feritoth.cla.springmvc.configuration;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
 
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -8,24 +11,115 @@ import javax.servlet.FilterConfig;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.web.context.ContextLoader;
 
+import com.feritoth.cla.springmvc.controller.utility.IOFormatter;
+import com.feritoth.cla.springmvc.monitoring.SqlStatementHeaderAdvice;
+
+/**
+ * This filter answers the cross-origin requests of the browser clients. The Origin of a request is checked against
+ * the allow-list of cors.allowedOrigins (comma-separated), which is loaded once into a hash set; an allowed origin is
+ * echoed back together with the permission to send credentials. A * in the list allows any origin, but only without
+ * credentials: the literal wildcard is answered and the browsers then send no cookies or authorization to the API.
+ * Listed next to *, the origins of the list are still checked first and keep their credentials (a warning is logged).
+ * The preflight requests are answered here, without going through the dispatcher, and their answer is cached by the
+ * browser for cors.maxAgeSeconds. The requests without an Origin are passed on untouched.
+ *
+ * @author Frantisek Slovak
+ *
+ */
 public class CORSFilter implements Filter {
 
+	/* The header values are the same for every answer, hence they are built once */
+	private static final String ALLOWED_METHODS = "POST, GET, PUT, OPTIONS, DELETE";
+	private static final String ALLOWED_HEADERS = "X-Requested-With, Content-Type, Authorization, Origin, Accept, Access-Control-Request-Method, Access-Control-Request-Headers";
+	private static final String EXPOSED_HEADERS = "Location, " + IOFormatter.NEXT_PAGE_CURSOR_HEADER + ", " + SqlStatementHeaderAdvice.SQL_STATEMENTS_HEADER;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CORSFilter.class);
+
+	private final Set<String> allowedOrigins = new HashSet<>();
+	private boolean anyOriginAllowed;
+	private String maxAgeSeconds;
+
+	public void init(FilterConfig filterConfig) {
+		/* The filter is not a bean - the settings are taken from the root context, which is started before the filters */
+		Environment environment = ContextLoader.getCurrentWebApplicationContext().getEnvironment();
+		for (String allowedOrigin : environment.getProperty("cors.allowedOrigins", String[].class, new String[] { "*" })){
+			String origin = allowedOrigin.trim();
+			if (origin.equals("*")){
+				anyOriginAllowed = true;
+			} else if (!origin.isEmpty()){
+				allowedOrigins.add(normalizeOrigin(origin));
+			}
+		}
+		if (anyOriginAllowed && !allowedOrigins.isEmpty()){
+			LOGGER.warn("cors.allowedOrigins mixes * with listed origins - only " + allowedOrigins + " get the credentials, any other origin is allowed without them");
+		}
+		maxAgeSeconds = String.valueOf(environment.getProperty("cors.maxAgeSeconds", Long.class, 3600L));
+	}
+
 	public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
-		System.out.println("Filtering on...........................................................");
+		HttpServletRequest request = (HttpServletRequest) req;
 		HttpServletResponse response = (HttpServletResponse) res;
-        response.setHeader("Access-Control-Allow-Origin", "*");
-        response.setHeader("Access-Control-Allow-Credentials", "true");
-		response.setHeader("Access-Control-Allow-Methods", "POST, GET, PUT, OPTIONS, DELETE");
-		response.setHeader("Access-Control-Max-Age", "3600");
-        response.setHeader("Access-Control-Allow-Headers", "X-Requested-With, Content-Type, Authorization, Origin, Accept, Access-Control-Request-Method, Access-Control-Request-Headers");
+		String origin = request.getHeader("Origin");
+		if (origin == null){
+			chain.doFilter(req, res);
+			return;
+		}
+		/* The listed origins come first, the wildcard only covers the others - an echoed origin makes the answer depend on it, the shared caches must not serve it to another one */
+		String allowedOrigin = (!allowedOrigins.isEmpty() && isListedOrigin(origin)) ? origin : (anyOriginAllowed ? "*" : null);
+		if (!allowedOrigins.isEmpty()){
+			response.addHeader("Vary", "Origin");
+		}
+		if ("OPTIONS".equals(request.getMethod()) && request.getHeader("Access-Control-Request-Method") != null){
+			/* The preflight is answered right here - a refused one gets no CORS headers, which the browser reports as a failure */
+			if (allowedOrigin == null){
+				response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+				return;
+			}
+			setAllowedOriginHeaders(response, allowedOrigin);
+			response.setHeader("Access-Control-Allow-Methods", ALLOWED_METHODS);
+			response.setHeader("Access-Control-Allow-Headers", ALLOWED_HEADERS);
+			response.setHeader("Access-Control-Max-Age", maxAgeSeconds);
+			response.setStatus(HttpServletResponse.SC_OK);
+			return;
+		}
+		if (allowedOrigin != null){
+			setAllowedOriginHeaders(response, allowedOrigin);
+			response.setHeader("Access-Control-Expose-Headers", EXPOSED_HEADERS);
+		}
 		chain.doFilter(req, res);
 	}
 
-	public void init(FilterConfig filterConfig) {}
+	/* The browsers reject the credentials together with the wildcard origin - they are only allowed to the listed origins */
+	private static void setAllowedOriginHeaders(HttpServletResponse response, String allowedOrigin){
+		response.setHeader("Access-Control-Allow-Origin", allowedOrigin);
+		if (!allowedOrigin.equals("*")){
+			response.setHeader("Access-Control-Allow-Credentials", "true");
+		}
+	}
+
+	/* A browser sends the origin in the normalized form already - it is only normalized when the direct lookup misses */
+	private boolean isListedOrigin(String origin){
+		return allowedOrigins.contains(origin) || allowedOrigins.contains(normalizeOrigin(origin));
+	}
+
+	/* The same form for the configured and the received origins - scheme://host[:port] in lower case, without any trailing slash */
+	private static String normalizeOrigin(String origin){
+		String trimmedOrigin = origin.trim();
+		int originEnd = trimmedOrigin.length();
+		while (originEnd > 0 && trimmedOrigin.charAt(originEnd - 1) == '/'){
+			originEnd--;
+		}
+		return trimmedOrigin.substring(0, originEnd).toLowerCase(Locale.ROOT);
+	}
 
 	public void destroy() {}
 
-}
\ No newline at end of file
+}
@@ -1,10 +1,21 @@
 package com.feritoth.cla.springmvc.configuration;
 
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.hibernate4.Hibernate4Module;
+import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.feritoth.cla.springmvc.jsonmodel.LoanCurrency;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedClient;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedIPAddress;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedLoan;
 
 @Configuration
 @EnableWebMvc
@@ -12,8 +23,39 @@ public class HibernateAwareObjectMapper extends ObjectMapper {
 	
 	private static final long serialVersionUID = 1L;
 
+	/* A mapper is thread-safe once configured and caches the serializers it has resolved - hence a single one is shared */
+	private static final HibernateAwareObjectMapper SHARED_INSTANCE = createSharedInstance();
+
 	public HibernateAwareObjectMapper() {
-		registerModule(new Hibernate4Module());
+		registerModule(new Hibernate5Module());
+		/* Needed for the java.time fields of the DTOs (e.g. the loan return date) */
+		registerModule(new JavaTimeModule());
+	}
+
+	/**
+	 * A method for getting the mapper shared by the JSON message converter and the header conversions.
+	 * 
+	 * @return the shared mapper, whose serializers of the wire DTOs are already resolved
+	 */
+	public static HibernateAwareObjectMapper getSharedInstance() {
+		return SHARED_INSTANCE;
+	}
+
+	private static HibernateAwareObjectMapper createSharedInstance() {
+		HibernateAwareObjectMapper mapper = new HibernateAwareObjectMapper();
+		/* A sample loan list shaped like the real data (12-digit CNP, see the seed data) is written once, so that the first requests do not pay for the resolution of the serializers */
+		SerializedClient client = new SerializedClient("190000000000", "Warm Up", "warm.up@gmail.com", "Warm-up street 1, Praha 1");
+		SerializedIPAddress ipAddress = new SerializedIPAddress("192.168.0.1", 0);
+		ipAddress.setOwnerClient(client);
+		SerializedLoan loan = new SerializedLoan(LocalDateTime.now(), LocalDate.now(), 0L, LoanCurrency.values()[0], Boolean.FALSE, 0L, 0);
+		loan.setIpAddress(ipAddress);
+		try {
+			mapper.writeValueAsBytes(Collections.singletonList(loan));
+			mapper.writeValueAsBytes(URI.create("/warm-up"));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("The JSON serialization of the wire model is broken", e);
+		}
+		return mapper;
 	}
 
 }
\ No newline at end of file
@@ -1,34 +1,49 @@
 package com.feritoth.cla.springmvc.configuration;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import javax.sql.DataSource;
 
+import org.flywaydb.core.Flyway;
 import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.orm.hibernate4.HibernateTransactionManager;
 import org.springframework.orm.hibernate4.LocalSessionFactoryBean;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.feritoth.cla.springmvc.monitoring.ConnectionPoolMetrics;
+import com.feritoth.cla.springmvc.monitoring.FlushMetrics;
+import com.feritoth.cla.springmvc.monitoring.SecondLevelCacheMetrics;
+import com.feritoth.cla.springmvc.monitoring.SqlStatementAccounting;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 
 @Configuration
 @EnableWebMvc
 @EnableTransactionManagement
 @ComponentScan({ "com.feritoth.cla.springmvc.configuration" })
-@PropertySource(value = { "classpath:application.properties" })
-public class HibernateConfiguration {
+/* The defaults - the application-{profile}.properties files of the active profiles are loaded ahead of them by ProfilePropertiesInitializer */
+@PropertySource("classpath:application.properties")
+public class HibernateConfiguration implements WebMvcConfigurer {
 	
 	@Autowired
     private Environment environment;
  
     @Bean
+    @DependsOn("flyway")
     public LocalSessionFactoryBean sessionFactory() {
         LocalSessionFactoryBean sessionFactory = new LocalSessionFactoryBean();
         sessionFactory.setDataSource(dataSource());
@@ -39,12 +54,77 @@ public class HibernateConfiguration {
      
     @Bean
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName(environment.getRequiredProperty("jdbc.driverClassName"));
-        dataSource.setUrl(environment.getRequiredProperty("jdbc.url"));
-        dataSource.setUsername(environment.getRequiredProperty("jdbc.username"));
-        dataSource.setPassword(environment.getRequiredProperty("jdbc.password"));
-        return dataSource;
+        /* The real connection is only taken at the first statement, once the read-only flag of the transaction is known to the routing */
+        return new LazyConnectionDataSourceProxy(routingDataSource());
+    }
+    
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource routingDataSource() {
+        /* The writes go to the primary, the read-only transactions to the replicas listed in jdbc.replica.urls - if any */
+        DataSource primaryDataSource = createPooledDataSource("loanApplicationPool", environment.getRequiredProperty("jdbc.url"), 
+                                                             environment.getRequiredProperty("jdbc.username"), environment.getRequiredProperty("jdbc.password"), false);
+        List<DataSource> replicaDataSources = new ArrayList<>();
+        String[] replicaURLs = environment.getProperty("jdbc.replica.urls", String[].class, new String[0]);
+        for (String replicaURL : replicaURLs){
+            if (!replicaURL.trim().isEmpty()){
+                replicaDataSources.add(createPooledDataSource("loanApplicationReplicaPool-" + replicaDataSources.size(), replicaURL.trim(), 
+                                                              environment.getProperty("jdbc.replica.username", environment.getRequiredProperty("jdbc.username")), 
+                                                              environment.getProperty("jdbc.replica.password", environment.getRequiredProperty("jdbc.password")), true));
+            }
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSources, environment.getProperty("jdbc.replica.lagQuery"), 
+                                            environment.getProperty("jdbc.replica.maxLagSeconds", Long.class, 5L), 
+                                            environment.getProperty("jdbc.replica.lagCheckIntervalMillis", Long.class, 1000L));
+    }
+    
+    private DataSource createPooledDataSource(String poolName, String jdbcURL, String username, String password, boolean replica) {
+        HikariConfig poolConfig = new HikariConfig();
+        poolConfig.setPoolName(poolName);
+        poolConfig.setDriverClassName(environment.getRequiredProperty("jdbc.driverClassName"));
+        poolConfig.setJdbcUrl(jdbcURL);
+        poolConfig.setUsername(username);
+        poolConfig.setPassword(password);
+        /* Pool sizing and timeouts - the timeouts are given in milliseconds */
+        poolConfig.setMinimumIdle(environment.getProperty("jdbc.pool.minimumIdle", Integer.class, 5));
+        poolConfig.setMaximumPoolSize(environment.getProperty("jdbc.pool.maximumPoolSize", Integer.class, 20));
+        poolConfig.setConnectionTimeout(environment.getProperty("jdbc.pool.connectionTimeout", Long.class, 3000L));
+        poolConfig.setIdleTimeout(environment.getProperty("jdbc.pool.idleTimeout", Long.class, 600000L));
+        poolConfig.setMaxLifetime(environment.getProperty("jdbc.pool.maxLifetime", Long.class, 1800000L));
+        /* Connection validation - without a test query the JDBC4 Connection.isValid() check is used, which is the cheapest one for MySQL */
+        poolConfig.setValidationTimeout(environment.getProperty("jdbc.pool.validationTimeout", Long.class, 1000L));
+        String connectionTestQuery = environment.getProperty("jdbc.pool.connectionTestQuery");
+        if (connectionTestQuery != null && !connectionTestQuery.trim().isEmpty()){
+            poolConfig.setConnectionTestQuery(connectionTestQuery);
+        }
+        /* Statement caching on the driver side - the prepared statements are then reused across the transactions of a pooled connection */
+        poolConfig.addDataSourceProperty("cachePrepStmts", environment.getProperty("jdbc.pool.cachePrepStmts", "true"));
+        poolConfig.addDataSourceProperty("prepStmtCacheSize", environment.getProperty("jdbc.pool.prepStmtCacheSize", "250"));
+        poolConfig.addDataSourceProperty("prepStmtCacheSqlLimit", environment.getProperty("jdbc.pool.prepStmtCacheSqlLimit", "2048"));
+        poolConfig.addDataSourceProperty("useServerPrepStmts", environment.getProperty("jdbc.pool.useServerPrepStmts", "true"));
+        if (replica){
+            /* Nothing is ever written through the replica pools */
+            poolConfig.setReadOnly(true);
+        } else {
+            poolConfig.setMetricsTrackerFactory(connectionPoolMetrics());
+        }
+        return new HikariDataSource(poolConfig);
+    }
+    
+    @Bean(initMethod = "migrate")
+    public Flyway flyway() {
+        /* Bring the schema up to date before Hibernate starts - a DB created before the migrations existed is baselined at version 1 (the initial schema) */
+        /* flyway.locations is a comma-separated list - Flyway would take a single joined string for one (missing) location */
+        return Flyway.configure()
+                     .dataSource(dataSource())
+                     .locations(environment.getProperty("flyway.locations", String[].class, new String[] { "classpath:db/migration" }))
+                     .baselineOnMigrate(true)
+                     .baselineVersion("1")
+                     .load();
+    }
+    
+    @Bean
+    public ConnectionPoolMetrics connectionPoolMetrics() {
+        return new ConnectionPoolMetrics();
     }
      
     private Properties hibernateProperties() {
@@ -52,6 +132,17 @@ public class HibernateConfiguration {
         properties.put("hibernate.dialect", environment.getRequiredProperty("hibernate.dialect"));
         properties.put("hibernate.show_sql", environment.getRequiredProperty("hibernate.show_sql"));
         properties.put("hibernate.format_sql", environment.getRequiredProperty("hibernate.format_sql"));
+        /* Statistics collection - when enabled, the number of JDBC statements executed by each session gets logged */
+        properties.put("hibernate.generate_statistics", environment.getProperty("hibernate.generate_statistics", "false"));
+        /* Second-level cache for the rarely changing clients and IP addresses - the size-bounded regions are configured in ehcache.xml */
+        properties.put("hibernate.cache.use_second_level_cache", environment.getProperty("hibernate.cache.use_second_level_cache", "true"));
+        properties.put("hibernate.cache.region.factory_class", "jcache");
+        properties.put("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+        properties.put("hibernate.javax.cache.uri", environment.getProperty("hibernate.javax.cache.uri", "ehcache.xml"));
+        /* Time the session flushes - these are skipped altogether by the read-only transactions - and account the SQL work of every request */
+        properties.put("hibernate.session.events.auto", SqlStatementAccounting.Listener.class.getName());
+        properties.put("hibernate.session_factory.statement_inspector", SqlStatementAccounting.Inspector.class.getName());
+        properties.put("hibernate.session_factory.interceptor", SqlStatementAccounting.LoadInterceptor.class.getName());
         return properties;        
     }
      
@@ -63,13 +154,37 @@ public class HibernateConfiguration {
        return txManager;
     }
     
+    @Bean
+    public FlushMetrics flushMetrics() {
+        return FlushMetrics.getInstance();
+    }
+    
+    @Bean
+    @Autowired
+    public SecondLevelCacheMetrics secondLevelCacheMetrics(SessionFactory s) {
+       return new SecondLevelCacheMetrics(s);
+    }
+    
     @Bean
     @Autowired
     public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter() {
         MappingJackson2HttpMessageConverter jsonConverter = new MappingJackson2HttpMessageConverter();        
         //mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false); - to be used as Joker for any other Serialization problem        
-        jsonConverter.setObjectMapper(new HibernateAwareObjectMapper());
+        jsonConverter.setObjectMapper(HibernateAwareObjectMapper.getSharedInstance());
         return jsonConverter;
     }
+    
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        /* @EnableWebMvc registers its own JSON converters - put the shared, pre-warmed mapper in their place, keeping the order of the other converters */
+        int converterIndex = -1;
+        for (int index = converters.size() - 1; index >= 0; index--){
+            if (converters.get(index) instanceof MappingJackson2HttpMessageConverter){
+                converters.remove(index);
+                converterIndex = index;
+            }
+        }
+        converters.add((converterIndex < 0) ? converters.size() : converterIndex, mappingJackson2HttpMessageConverter());
+    }
 
 }
\ No newline at end of file
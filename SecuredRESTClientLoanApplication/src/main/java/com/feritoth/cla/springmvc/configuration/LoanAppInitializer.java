@@ -2,8 +2,12 @@ package com.feritoth.cla.springmvc.configuration;
 
 import javax.servlet.Filter;
 
+import org.springframework.context.ApplicationContextInitializer;
 import org.springframework.web.servlet.support.AbstractAnnotationConfigDispatcherServletInitializer;
 
+import com.feritoth.cla.springmvc.monitoring.RequestMetricsFilter;
+import com.feritoth.cla.springmvc.monitoring.SqlStatementAccountingFilter;
+
 public class LoanAppInitializer extends AbstractAnnotationConfigDispatcherServletInitializer {
 
 	@Override
@@ -21,10 +25,15 @@ public class LoanAppInitializer extends AbstractAnnotationConfigDispatcherServle
         return new String[] { "/" };
     }
     
+    @Override
+    protected ApplicationContextInitializer<?>[] getRootApplicationContextInitializers() {
+        return new ApplicationContextInitializer<?>[] { new ProfilePropertiesInitializer() };
+    }
+    
     @Override
     protected Filter[] getServletFilters() {
-    	Filter [] singleton = { new CORSFilter()};
-    	return singleton;
+    	Filter [] filters = { new CORSFilter(), new RequestMetricsFilter(), new SqlStatementAccountingFilter()};
+    	return filters;
     }
 
 }
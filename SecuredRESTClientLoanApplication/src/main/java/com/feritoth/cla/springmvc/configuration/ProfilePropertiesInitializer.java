@@ -0,0 +1,41 @@
+package com.feritoth.cla.springmvc.configuration;
+
+import java.io.IOException;
+
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.ResourcePropertySource;
+
+/**
+ * This initializer loads the application-{profile}.properties file of every active profile (e.g.
+ * -Dspring.profiles.active=embedded,metrics), before the root context reads its configuration. The files override the
+ * defaults of application.properties, which is loaded after them through the @PropertySource of
+ * HibernateConfiguration, and the files of the later profiles override the ones of the earlier profiles. A profile
+ * without a file of its own is skipped. The system properties keep precedence over all the files.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public class ProfilePropertiesInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+	@Override
+	public void initialize(ConfigurableApplicationContext applicationContext) {
+		ConfigurableEnvironment environment = applicationContext.getEnvironment();
+		String[] activeProfiles = environment.getActiveProfiles();
+		/* Appended from the last profile to the first one - the earlier appended source takes precedence */
+		for (int profileIndex = activeProfiles.length - 1; profileIndex >= 0; profileIndex--){
+			ClassPathResource profileProperties = new ClassPathResource("application-" + activeProfiles[profileIndex].trim() + ".properties");
+			if (!profileProperties.exists()){
+				continue;
+			}
+			try {
+				environment.getPropertySources().addLast(new ResourcePropertySource(profileProperties));
+			} catch (IOException ioe) {
+				throw new IllegalStateException("Failed to read " + profileProperties.getPath(), ioe);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,203 @@
+package com.feritoth.cla.springmvc.configuration;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * This class routes the connections of the read-only transactions to the replicas of the database (in round-robin
+ * order) and everything else to the primary. It must be wrapped into a LazyConnectionDataSourceProxy: the transaction
+ * managers ask for the connection before the read-only flag of the new transaction is bound to the thread, the proxy
+ * defers the real connection until the first statement, when the flag is already known.
+ *
+ * A background check runs the lag query against every replica periodically - it must return the replication lag in
+ * seconds, e.g. a query over the heartbeat table written on the primary by pt-heartbeat. A replica lagging behind more
+ * than the allowed number of seconds, stopped (NULL lag) or unreachable gets no reads until it catches up again; when
+ * no replica is usable, the read-only transactions fall back to the primary. Without a lag query, only the reachability
+ * of the replicas is checked.
+ *
+ * The reads served by a replica also fill the second-level cache of the clients and IP addresses, which can thus keep
+ * a row up to the allowed lag behind the primary until it is evicted or updated through this application. The checks
+ * guarding a write (existence of the client, of the IP address or of the loan, uniqueness of a CNP) are therefore not
+ * read-only and always run on the primary.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+	private static final String PRIMARY_KEY = "primary";
+	private static final String REPLICA_KEY_PREFIX = "replica-";
+
+	/* The time allowed for the reachability check of a replica, in seconds */
+	private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+	private final DataSource primaryDataSource;
+	private final List<Replica> replicas = new ArrayList<>();
+	private final String lagQuery;
+	private final long maximumLagSeconds;
+	private final long lagCheckIntervalMillis;
+
+	/* The position from which the next read-only transaction starts looking for a usable replica */
+	private final AtomicInteger nextReplicaIndex = new AtomicInteger();
+	private ScheduledExecutorService lagCheckExecutor;
+
+	public ReplicaRoutingDataSource(DataSource primaryDataSource, List<DataSource> replicaDataSources, String lagQuery, long maximumLagSeconds, long lagCheckIntervalMillis) {
+		this.primaryDataSource = primaryDataSource;
+		for (int replicaIndex = 0; replicaIndex < replicaDataSources.size(); replicaIndex++){
+			replicas.add(new Replica(REPLICA_KEY_PREFIX + replicaIndex, replicaDataSources.get(replicaIndex)));
+		}
+		this.lagQuery = (lagQuery == null || lagQuery.trim().isEmpty()) ? null : lagQuery;
+		this.maximumLagSeconds = maximumLagSeconds;
+		this.lagCheckIntervalMillis = lagCheckIntervalMillis;
+		Map<Object, Object> targetDataSources = new HashMap<>();
+		targetDataSources.put(PRIMARY_KEY, primaryDataSource);
+		replicas.forEach(replica -> targetDataSources.put(replica.key, replica.dataSource));
+		setTargetDataSources(targetDataSources);
+		setDefaultTargetDataSource(primaryDataSource);
+		/* An unknown key must never silently end up on the primary - all the keys are known upfront */
+		setLenientFallback(false);
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		super.afterPropertiesSet();
+		if (replicas.isEmpty()){
+			return;
+		}
+		/* Check the replicas once before the first request, then keep checking them in the background */
+		checkReplicas();
+		lagCheckExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread lagCheckThread = new Thread(runnable, "replica-lag-check");
+			lagCheckThread.setDaemon(true);
+			return lagCheckThread;
+		});
+		lagCheckExecutor.scheduleWithFixedDelay(this::checkReplicas, lagCheckIntervalMillis, lagCheckIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()){
+			return PRIMARY_KEY;
+		}
+		int replicaCount = replicas.size();
+		int firstIndex = Math.floorMod(nextReplicaIndex.getAndIncrement(), replicaCount);
+		for (int offset = 0; offset < replicaCount; offset++){
+			Replica replica = replicas.get((firstIndex + offset) % replicaCount);
+			if (replica.usable){
+				return replica.key;
+			}
+		}
+		/* None of the replicas is usable at the moment - the primary serves the reads as well */
+		return PRIMARY_KEY;
+	}
+
+	/* Runs on the lag check thread only - any failure just marks the replica as not usable */
+	private void checkReplicas(){
+		for (Replica replica : replicas){
+			boolean usable;
+			String reason;
+			try (Connection connection = replica.dataSource.getConnection()) {
+				if (lagQuery == null){
+					usable = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+					reason = usable ? "reachable" : "connection not valid";
+				} else {
+					Long lagSeconds = readLagSeconds(connection);
+					usable = lagSeconds != null && lagSeconds <= maximumLagSeconds;
+					reason = (lagSeconds == null) ? "replication not running" : "lag of " + lagSeconds + " s";
+				}
+			} catch (SQLException | RuntimeException e) {
+				usable = false;
+				reason = e.getMessage();
+			}
+			/* Log the transitions only, not every check */
+			if (usable != replica.usable){
+				if (usable){
+					LOGGER.info("Replica " + replica.key + " is used for the read-only transactions (" + reason + ")");
+				} else {
+					LOGGER.warn("Replica " + replica.key + " is excluded from the read-only transactions (" + reason + ")");
+				}
+				replica.usable = usable;
+			}
+		}
+	}
+
+	private Long readLagSeconds(Connection connection) throws SQLException {
+		try (Statement lagStatement = connection.createStatement(); ResultSet lagResult = lagStatement.executeQuery(lagQuery)) {
+			if (!lagResult.next()){
+				return null;
+			}
+			long lagSeconds = lagResult.getLong(1);
+			return lagResult.wasNull() ? null : lagSeconds;
+		}
+	}
+
+	/**
+	 * Tells for each replica whether it currently receives the read-only transactions.
+	 *
+	 * @return an insertion-ordered map of the replica keys and their state
+	 */
+	public Map<String, Boolean> getReplicaStates(){
+		Map<String, Boolean> replicaStates = new LinkedHashMap<>();
+		replicas.forEach(replica -> replicaStates.put(replica.key, replica.usable));
+		return Collections.unmodifiableMap(replicaStates);
+	}
+
+	/**
+	 * Stops the lag checks and closes the pools of the primary and of the replicas.
+	 */
+	@Override
+	public void close() {
+		if (lagCheckExecutor != null){
+			lagCheckExecutor.shutdownNow();
+		}
+		closeQuietly(primaryDataSource);
+		replicas.forEach(replica -> closeQuietly(replica.dataSource));
+	}
+
+	private static void closeQuietly(DataSource dataSource){
+		if (dataSource instanceof AutoCloseable){
+			try {
+				((AutoCloseable) dataSource).close();
+			} catch (Exception e) {
+				LOGGER.warn("Failed to close a data source: " + e.getMessage());
+			}
+		}
+	}
+
+	/* A replica together with the outcome of its last check */
+	private static final class Replica {
+
+		private final String key;
+		private final DataSource dataSource;
+		private volatile boolean usable;
+
+		private Replica(String key, DataSource dataSource) {
+			this.key = key;
+			this.dataSource = dataSource;
+		}
+
+	}
+
+}
@@ -15,6 +15,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -24,6 +25,7 @@ import com.feritoth.cla.springmvc.controller.utility.IOFormatter;
 import com.feritoth.cla.springmvc.dbmodel.Client;
 import com.feritoth.cla.springmvc.jsonmodel.SerializedClient;
 import com.feritoth.cla.springmvc.service.ClientService;
+import com.feritoth.cla.springmvc.service.ValidationResult;
 import com.feritoth.cla.springmvc.service.IPAddressService;
 
 @RestController
@@ -46,14 +48,40 @@ public class ClientRestController {
 	private static final String[] ALL_POSSIBLE_ERRORS = {"faultyEmailAddress", "faultyName", "faultyPostalAddress"};	
 		
 	//------------------------Fetch all the registered clients---------------------------------
-	@RequestMapping(value="/client/", method = RequestMethod.GET, produces = {MediaType.APPLICATION_JSON_VALUE})	
-	public ResponseEntity<List<SerializedClient>> listAllClients(){
-		List<Client> allRegisteredClients = clientService.findAllRegisteredClients();		
-		if (allRegisteredClients.isEmpty()){
-			//return ResponseEntity.noContent().build();
+	@RequestMapping(value = "/client/", method = RequestMethod.GET, produces = {MediaType.APPLICATION_JSON_VALUE})
+	public ResponseEntity<?> listAllClients(@RequestParam(value = "limit", required = false) Integer limit, @RequestParam(value = "after", required = false) String after){
+		/* Without any paging parameter, the whole client list is returned as before */
+		if (limit == null && after == null){
+			List<Client> allRegisteredClients = clientService.findAllRegisteredClients();		
+			if (allRegisteredClients.isEmpty()){
+				//return ResponseEntity.noContent().build();
+				return new ResponseEntity<List<SerializedClient>>(HttpStatus.NO_CONTENT);
+			}
+			return new ResponseEntity<List<SerializedClient>>(IOFormatter.convertEntityToDTOforClientList(allRegisteredClients), HttpStatus.OK);
+		}
+		/* Otherwise only one page is returned, sorted by the primary key and starting after the key carried by the cursor */
+		String finalRequestMapping = DEPLOYMENT_URL_ADDRESS + "/client/";
+		int pageSize;
+		String afterCNP;
+		try {
+			pageSize = IOFormatter.resolvePageSize(limit);
+			afterCNP = IOFormatter.decodePageCursor(after);
+		} catch (IllegalArgumentException iae) {
+			LOGGER.error("Invalid paging parameters provided to the application! limit={}, after={}", limit, after);
+			//This response is mapped into an exception format that is returned under the status code OK for avoiding the generation of exception on the client side during processing: 
+			return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new IllegalArgumentException("Invalid paging parameters provided to the application! limit=" + limit + ", after=" + after), HttpStatus.BAD_REQUEST.value(), HttpStatus.BAD_REQUEST), HttpStatus.OK);
+		}
+		/* Ask for one element more than the page size - its presence tells whether a next page exists */
+		List<Client> clientsPage = clientService.findRegisteredClientsPage(afterCNP, pageSize + 1);
+		if (clientsPage.isEmpty()){
 			return new ResponseEntity<List<SerializedClient>>(HttpStatus.NO_CONTENT);
 		}
-		return new ResponseEntity<List<SerializedClient>>(IOFormatter.convertEntityToDTOforClientList(allRegisteredClients), HttpStatus.OK);
+		HttpHeaders pageHeaders = new HttpHeaders();
+		if (clientsPage.size() > pageSize){
+			clientsPage = clientsPage.subList(0, pageSize);
+			pageHeaders.set(IOFormatter.NEXT_PAGE_CURSOR_HEADER, IOFormatter.encodePageCursor(clientsPage.get(pageSize - 1).getCnp()));
+		}
+		return new ResponseEntity<List<SerializedClient>>(IOFormatter.convertEntityToDTOforClientList(clientsPage), pageHeaders, HttpStatus.OK);
 	}	
 	
 	//------------------------Fetch clients matching a potential name sequence-----------------
@@ -72,13 +100,13 @@ public class ClientRestController {
 		/* Check the well-formedness of the CNP before search submission - for any errors, stop the search and return with an immediate error message */
 		String finalRequestMapping = DEPLOYMENT_URL_ADDRESS + "/client/matchID/" + cnp + "/";
 		if (cnp.length() != 12){
-			LOGGER.error("CNP of invalid length provided to the application!", cnp);
+			LOGGER.error("CNP of invalid length provided to the application! {}", cnp);
 			//This response is mapped into an exception format that is returned under the status code OK for avoiding the generation of exception on the client side during processing: 
 			//return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new IllegalArgumentException("Number of provided characters for this field is different from the required limit!")), HttpStatus.LENGTH_REQUIRED);			
 			return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new IllegalArgumentException("Number of provided characters for this field is different from the required limit!"), HttpStatus.LENGTH_REQUIRED.value(), HttpStatus.LENGTH_REQUIRED), HttpStatus.OK);			
 		}
 		if (!StringUtils.isNumeric(cnp)){
-			LOGGER.error("CNP of invalid pattern provided to the application!", cnp);
+			LOGGER.error("CNP of invalid pattern provided to the application! {}", cnp);
 			//This response is mapped into an exception format that is returned under the status code OK for avoiding the generation of exception on the client side during processing: 
 			//return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new IllegalArgumentException("Invalid characters detected in the submitted CNP value - search thus still cannot be performed!")), HttpStatus.BAD_REQUEST);
 			return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new IllegalArgumentException("Invalid characters detected in the submitted CNP value - search thus still cannot be performed!"), HttpStatus.BAD_REQUEST.value(), HttpStatus.BAD_REQUEST), HttpStatus.OK);
@@ -132,11 +160,11 @@ public class ClientRestController {
 	public ResponseEntity<?> createClient(@RequestBody SerializedClient candidateClient) throws JsonProcessingException{
 		/* Create the mapping for the registration of the new client */
 		String finalRequestMapping = DEPLOYMENT_URL_ADDRESS + "/client/";
-		LOGGER.info("Creating new client " + candidateClient.getName() + "...");
+		LOGGER.info("Creating new client {}...", candidateClient.getName());
 		/* Start by checking the content well-formedness of the given client identifier */
 		if (!IOFormatter.validateClientCNPcontent(candidateClient.getCnp())){
 			/* Print a relevant error message for this case */
-			LOGGER.error("CNP with invalid content provided to the application! " + candidateClient.getCnp());
+			LOGGER.error("CNP with invalid content provided to the application! {}", candidateClient.getCnp());
 			//Return the response for this case mapped into an exception format under the status code OK for avoiding the generation of exception on the client side during processing: 
 			//return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new IllegalArgumentException("CNP in question has an invalid content format! " + candidateClient.getCnp()), HttpStatus.BAD_REQUEST.value(), HttpStatus.BAD_REQUEST), HttpStatus.BAD_REQUEST);
 			return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new IllegalArgumentException("CNP in question has an invalid content format! " + candidateClient.getCnp()), HttpStatus.BAD_REQUEST.value(), HttpStatus.BAD_REQUEST), HttpStatus.OK);
@@ -144,7 +172,7 @@ public class ClientRestController {
 		/* Afterwards, check the length of the given CNP - return again a suitable error message */
 		if (!IOFormatter.validateClientCNPlength(candidateClient.getCnp())){
 			/* Print a relevant error message for this case too */
-			LOGGER.error("CNP with invalid length provided to the application! " + candidateClient.getCnp());
+			LOGGER.error("CNP with invalid length provided to the application! {}", candidateClient.getCnp());
 			//Return the response for this case mapped into an exception format under the status code OK for avoiding the generation of exception on the client side during processing: 
 			//return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new IllegalArgumentException("CNP in question has an invalid length! " + candidateClient.getCnp()), HttpStatus.LENGTH_REQUIRED.value(), HttpStatus.LENGTH_REQUIRED), HttpStatus.LENGTH_REQUIRED);
 			return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new IllegalArgumentException("CNP in question has an invalid length! " + candidateClient.getCnp()), HttpStatus.LENGTH_REQUIRED.value(), HttpStatus.LENGTH_REQUIRED), HttpStatus.OK);
@@ -152,15 +180,15 @@ public class ClientRestController {
 		/* Check next if the CNP of the given client has been assigned to anyone else already - return a corresponding error message */
 		if (clientService.isEmployeeCNPalreadyAssigned(candidateClient.getCnp())){
 			/* Print another relevant error message for this case */
-			LOGGER.error("The CNP in question is well-formed, but has already been assigned to another client!", candidateClient.getCnp());
+			LOGGER.error("The CNP in question is well-formed, but has already been assigned to another client! {}", candidateClient.getCnp());
 			//Return the response for this case mapped into an exception format under the status code OK for avoiding the generation of exception on the client side during processing: 
 			//return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new IllegalArgumentException("CNP in question is already in use by another client! " + candidateClient.getCnp()), HttpStatus.CONFLICT.value(), HttpStatus.CONFLICT), HttpStatus.CONFLICT);
 			return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new IllegalArgumentException("CNP in question is already in use by another client! " + candidateClient.getCnp()), HttpStatus.CONFLICT.value(), HttpStatus.CONFLICT), HttpStatus.OK);
 		}
 		/* Call the registration method from the service */
-		clientService.registerNewClient(IOFormatter.convertSerializedClientDTOtoEntity(candidateClient));
-		/* Get next the map of errors and see which of them has been registered - main rule: first error beats all others in order of appearance */
-		Map<String, Exception> allExceptionsMap = clientService.getRegUpFlagMap();
+		ValidationResult registrationResult = clientService.registerNewClient(IOFormatter.convertSerializedClientDTOtoEntity(candidateClient));
+		/* Get next the map of errors of this call and see which of them has been registered - main rule: first error beats all others in order of appearance */
+		Map<String, Exception> allExceptionsMap = registrationResult.getErrors();
 		/* Check if the key set of the map is not empty and then fetch out the existing elements */
 		/* For each of the cases: print a suitable error message and map the generated exception into a user-friendly response for the client side for avoiding communication problems */
 		if (!allExceptionsMap.keySet().isEmpty()){
@@ -188,7 +216,7 @@ public class ClientRestController {
 		HttpHeaders newClientHeaders = new HttpHeaders();
 		UriComponentsBuilder ccBuilder = UriComponentsBuilder.newInstance();
 		newClientHeaders.setLocation(ccBuilder.path("/client/matchID/{cnp}/").buildAndExpand(candidateClient.getCnp()).toUri());		
-		LOGGER.info("The headers for this operation are:" + newClientHeaders.toString());
+		LOGGER.info("The headers for this operation are: {}", newClientHeaders);
 		return new ResponseEntity<String>(IOFormatter.convertHeadersToJSON(newClientHeaders.getLocation()), HttpStatus.CREATED);
 	}
 	
@@ -197,21 +225,21 @@ public class ClientRestController {
 	public ResponseEntity<?> updateClient(@PathVariable("cnp") String clientCNP, @RequestBody SerializedClient selectedClient){
 		/* Create the mapping for the update of the selected client */
 		String finalRequestMapping = DEPLOYMENT_URL_ADDRESS + "/client/updateClient/" + clientCNP + "/";
-		LOGGER.info("Performing update for the selected client with name = " + selectedClient.getName() + "...");
+		LOGGER.info("Performing update for the selected client with name = {}...", selectedClient.getName());
 		/* Find the client bearing the CNP but the old features */
 		Client initialClient = clientService.findClientByCNP(clientCNP);
 		/* If client cannot be found, return a response with NOT_FOUND status */
 		if (initialClient == null){
 			/* Print a relevant error message for this case as well */
-			LOGGER.error(selectedClient.toString() + " was not found in the database unfortunately...");
+			LOGGER.error("{} was not found in the database unfortunately...", selectedClient);
 			//Return the response for this case mapped into an exception format under the status code OK for avoiding the generation of exception on the client side during processing: 
 			//return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new NullPointerException(selectedClient.toString() + " was not found in the database unfortunately..."), HttpStatus.NOT_FOUND.value(), HttpStatus.NOT_FOUND), HttpStatus.NOT_FOUND);
 			return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new NullPointerException(selectedClient.toString() + " was not found in the database unfortunately..."), HttpStatus.NOT_FOUND.value(), HttpStatus.NOT_FOUND), HttpStatus.OK);
 		}
 		/* Otherwise, proceed with the update - call the update method and check for exceptions */
-		clientService.updateExistingClient(IOFormatter.convertSerializedClientDTOtoEntity(selectedClient));
-		/* Get next the map of errors and see which of them has been registered - main rule: first error beats all others in order of appearance */
-		Map<String, Exception> allExceptionsMap = clientService.getRegUpFlagMap();
+		ValidationResult updateResult = clientService.updateExistingClient(IOFormatter.convertSerializedClientDTOtoEntity(selectedClient));
+		/* Get next the map of errors of this call and see which of them has been registered - main rule: first error beats all others in order of appearance */
+		Map<String, Exception> allExceptionsMap = updateResult.getErrors();
 		/* Check if the key set of the map is not empty and then fetch out the existing elements */
 		/* For each of the cases: print a suitable error message and map the generated exception into a user-friendly response for the client side for avoiding communication problems */
 		if (!allExceptionsMap.keySet().isEmpty()){
@@ -243,13 +271,13 @@ public class ClientRestController {
 	public ResponseEntity<?> removeClient(@PathVariable("cnp") String clientCNP){
 		/* Create the mapping for the removal of the selected client */
 		String finalRequestMapping = DEPLOYMENT_URL_ADDRESS +  "/client/" + clientCNP + "/";
-		LOGGER.info("Performing removal of selected client with CNP " + clientCNP + "...");
+		LOGGER.info("Performing removal of selected client with CNP {}...", clientCNP);
 		/* Find the client bearing the CNP but the old features */
 		Client initialClient = clientService.findClientByCNP(clientCNP);
 		/* If client cannot be found, return a response with NOT_FOUND status */
 		if (initialClient == null){
 			/* Print a relevant error message for this case as well */
-			LOGGER.error(clientCNP + " was not found in the database unfortunately...");
+			LOGGER.error("{} was not found in the database unfortunately...", clientCNP);
 			//Return the response for this case mapped into an exception format under the status code OK for avoiding the generation of exception on the client side during processing: 
 			//return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new NullPointerException("No client with CNP " + clientCNP + " was found in the database unfortunately..."), 0, HttpStatus.NOT_FOUND), HttpStatus.NOT_FOUND);
 			return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new NullPointerException("No client with CNP " + clientCNP + " was found in the database unfortunately..."), HttpStatus.NOT_FOUND.value(), HttpStatus.NOT_FOUND), HttpStatus.OK);
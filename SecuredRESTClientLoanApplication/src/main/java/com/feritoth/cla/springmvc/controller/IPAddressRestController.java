@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -25,6 +26,7 @@ import com.feritoth.cla.springmvc.dbmodel.IPAddress;
 import com.feritoth.cla.springmvc.jsonmodel.SerializedIPAddress;
 import com.feritoth.cla.springmvc.service.ClientService;
 import com.feritoth.cla.springmvc.service.IPAddressService;
+import com.feritoth.cla.springmvc.service.ValidationResult;
 
 @RestController
 public class IPAddressRestController {
@@ -47,12 +49,38 @@ public class IPAddressRestController {
 
     //-------------------------------------Fetch all the registered IP addresses-----------------------------------
 	@RequestMapping(value = "/ipAddress/", method = RequestMethod.GET, produces = {MediaType.APPLICATION_JSON_VALUE})
-	public ResponseEntity<List<SerializedIPAddress>> listAllRegisteredIPs(){
-		List<IPAddress> allRegisteredIPAddresses = ipAddressService.fetchAllAvailableIPAddresses();
-		if (allRegisteredIPAddresses.isEmpty()){
+	public ResponseEntity<?> listAllRegisteredIPs(@RequestParam(value = "limit", required = false) Integer limit, @RequestParam(value = "after", required = false) String after){
+		/* Without any paging parameter, the whole IP address list is returned as before */
+		if (limit == null && after == null){
+			List<IPAddress> allRegisteredIPAddresses = ipAddressService.fetchAllAvailableIPAddresses();
+			if (allRegisteredIPAddresses.isEmpty()){
+				return new ResponseEntity<List<SerializedIPAddress>>(HttpStatus.NO_CONTENT);
+			}
+			return new ResponseEntity<List<SerializedIPAddress>>(IOFormatter.convertEntityToDTOforIPAddressList(allRegisteredIPAddresses), HttpStatus.OK);
+		}
+		/* Otherwise only one page is returned, sorted by the primary key and starting after the key carried by the cursor */
+		String finalRequestMapping = DEPLOYMENT_URL_ADDRESS + "/ipAddress/";
+		int pageSize;
+		Integer afterIPAddressID;
+		try {
+			pageSize = IOFormatter.resolvePageSize(limit);
+			afterIPAddressID = (after == null) ? null : Integer.valueOf(IOFormatter.decodePageCursor(after));
+		} catch (IllegalArgumentException iae) {
+			LOGGER.error("Invalid paging parameters provided to the application! limit={}, after={}", limit, after);
+			//This response is mapped into an exception format that is returned under the status code OK for avoiding the generation of exception on the client side during processing: 
+			return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new IllegalArgumentException("Invalid paging parameters provided to the application! limit=" + limit + ", after=" + after), HttpStatus.BAD_REQUEST.value(), HttpStatus.BAD_REQUEST), HttpStatus.OK);
+		}
+		/* Ask for one element more than the page size - its presence tells whether a next page exists */
+		List<IPAddress> ipAddressesPage = ipAddressService.fetchIPAddressesPage(afterIPAddressID, pageSize + 1);
+		if (ipAddressesPage.isEmpty()){
 			return new ResponseEntity<List<SerializedIPAddress>>(HttpStatus.NO_CONTENT);
 		}
-		return new ResponseEntity<List<SerializedIPAddress>>(IOFormatter.convertEntityToDTOforIPAddressList(allRegisteredIPAddresses), HttpStatus.OK);
+		HttpHeaders pageHeaders = new HttpHeaders();
+		if (ipAddressesPage.size() > pageSize){
+			ipAddressesPage = ipAddressesPage.subList(0, pageSize);
+			pageHeaders.set(IOFormatter.NEXT_PAGE_CURSOR_HEADER, IOFormatter.encodePageCursor(ipAddressesPage.get(pageSize - 1).getIpAddressID().toString()));
+		}
+		return new ResponseEntity<List<SerializedIPAddress>>(IOFormatter.convertEntityToDTOforIPAddressList(ipAddressesPage), pageHeaders, HttpStatus.OK);
 	}
 	
 	//-------------------------------------Fetch all the registered IP addresses assigned to a client-----------------------------------
@@ -99,11 +127,11 @@ public class IPAddressRestController {
 	public ResponseEntity<?> registerNewIPAddressForAddress(@RequestBody SerializedIPAddress candidateIpAddress) throws JsonProcessingException{
 		/* Create the link for the registration of the new IP address */
 		String finalRequestMapping = DEPLOYMENT_URL_ADDRESS + "/ipAddress/";
-		LOGGER.info("Registering new IP address " + candidateIpAddress.getIpValue() + " for client " + candidateIpAddress.getOwnerClient().getName());
+		LOGGER.info("Registering new IP address {} for client {}", candidateIpAddress.getIpValue(), candidateIpAddress.getOwnerClient().getName());
 		/* Next call the registration method from the injected service - do not forget to convert the reference to the suitable type */
-		ipAddressService.registerIPAddress(IOFormatter.convertDTOtoEntityForIPAddress(candidateIpAddress));
-		/* Check if the map required for registering any exceptions during the operation execution has been filled with some content - main rule: first exception beats all others in terms of appearance */
-		Map<String, Exception> allExceptionsMap = ipAddressService.getRegDelFlagMap();		
+		ValidationResult registrationResult = ipAddressService.registerIPAddress(IOFormatter.convertDTOtoEntityForIPAddress(candidateIpAddress));
+		/* Check if the map of the exceptions raised during this operation execution has been filled with some content - main rule: first exception beats all others in terms of appearance */
+		Map<String, Exception> allExceptionsMap = registrationResult.getErrors();
 		/* Check if the key set of the map is not empty and then fetch out the existing elements */
 		/* For each of the cases: print a suitable error message and map the generated exception into a user-friendly response for the client side for avoiding communication problems */
 		if (!allExceptionsMap.keySet().isEmpty()){
@@ -125,7 +153,7 @@ public class IPAddressRestController {
 		HttpHeaders newIPAddressHeaders = new HttpHeaders();
 		UriComponentsBuilder ccBuilder = UriComponentsBuilder.newInstance();
 		newIPAddressHeaders.setLocation(ccBuilder.path("/ipAddress/matchIPvalue/{ipValue}/").buildAndExpand(candidateIpAddress.getIpValue()).toUri());		
-		LOGGER.info("The headers for this operation are:" + newIPAddressHeaders.toString());
+		LOGGER.info("The headers for this operation are: {}", newIPAddressHeaders);
 		return new ResponseEntity<String>(IOFormatter.convertHeadersToJSON(newIPAddressHeaders.getLocation()), HttpStatus.CREATED);
 	}
 
@@ -134,12 +162,12 @@ public class IPAddressRestController {
 	public ResponseEntity<?> removeIPAddress(@PathVariable("ipValue") String ipValue){
 		/* Create the mapping for the selected IP address */
 		String finalRequestMapping = DEPLOYMENT_URL_ADDRESS + "/ipAddress/" + ipValue + "/";
-		LOGGER.info("Performing removal for selected IP address with value " + ipValue + "...");
+		LOGGER.info("Performing removal for selected IP address with value {}...", ipValue);
 		/* Attempt the removal of the given address */
-		ipAddressService.removeIPAddress(ipValue);
+		ValidationResult removalResult = ipAddressService.removeIPAddress(ipValue);
 		/* Check the outcome of the given service operation execution */
-		/* First, pick the error map from the service in question */
-		Map<String, Exception> ipAddressProblemMap = ipAddressService.getRegDelFlagMap();
+		/* First, pick the error map from the outcome returned by the service */
+		Map<String, Exception> ipAddressProblemMap = removalResult.getErrors();
 		/* Find the previously declared two error keys in the map and return a response based upon them */
 		/* For the faulty IP address part */		
 		if (ipAddressProblemMap.containsKey(ALL_POSSIBLE_ERRORS[0])){
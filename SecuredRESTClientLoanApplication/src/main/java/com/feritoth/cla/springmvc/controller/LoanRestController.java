@@ -1,8 +1,15 @@
 package com.feritoth.cla.springmvc.controller;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,23 +18,32 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.feritoth.cla.springmvc.controller.exception.ExceptionInfo;
 import com.feritoth.cla.springmvc.controller.utility.IOFormatter;
 import com.feritoth.cla.springmvc.dbmodel.Client;
 import com.feritoth.cla.springmvc.dbmodel.IPAddress;
 import com.feritoth.cla.springmvc.dbmodel.Loan;
 import com.feritoth.cla.springmvc.jsonmodel.SerializedLoan;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedLoanBatchResult;
 import com.feritoth.cla.springmvc.service.ClientService;
 import com.feritoth.cla.springmvc.service.IPAddressService;
 import com.feritoth.cla.springmvc.service.LoanService;
+import com.feritoth.cla.springmvc.service.ValidationResult;
 
 @RestController
 public class LoanRestController {
@@ -39,6 +55,9 @@ public class LoanRestController {
 	private IPAddressService ipAddressService;
 	@Autowired
 	private ClientService clientService;
+	/* The JSON converter of the application - its object mapper is used for writing the streamed loan list */
+	@Autowired
+	private MappingJackson2HttpMessageConverter jsonConverter;
 	
 	/* Additionally declared resources: */
 	/* The URL address of the server where the application is deployed - used for sending more user-friendly error messages */
@@ -51,14 +70,69 @@ public class LoanRestController {
 	private static final String[] ALL_POSSIBLE_ERRORS = {"faultyLoanDuration", "maximumExtensibilityReached", "maximumLoanNumberPerIPForDay", 
 		                                                 "timePeriodLoanRisk", "faultyIPAddress", "negativeOrZeroLoanAmount", "maximumLoanAmountOverlapped"};
 	
+	/* The registration errors in the order in which they are reported, together with the status code each of them is mapped to */
+	private static final Map<String, HttpStatus> REGISTRATION_ERROR_STATUSES = new LinkedHashMap<>();
+	static {
+		REGISTRATION_ERROR_STATUSES.put(ALL_POSSIBLE_ERRORS[0], HttpStatus.BAD_REQUEST);
+		REGISTRATION_ERROR_STATUSES.put(ALL_POSSIBLE_ERRORS[4], HttpStatus.BAD_REQUEST);
+		REGISTRATION_ERROR_STATUSES.put(ALL_POSSIBLE_ERRORS[5], HttpStatus.BAD_REQUEST);
+		REGISTRATION_ERROR_STATUSES.put(ALL_POSSIBLE_ERRORS[6], HttpStatus.BAD_REQUEST);
+		REGISTRATION_ERROR_STATUSES.put(ALL_POSSIBLE_ERRORS[2], HttpStatus.PAYMENT_REQUIRED);
+		REGISTRATION_ERROR_STATUSES.put(ALL_POSSIBLE_ERRORS[3], HttpStatus.FORBIDDEN);
+	}
+	
 	//--------------------------------------------- Fetch all the loans from the DB --------------------------------------------------
 	@RequestMapping(value = "/loan/", method = RequestMethod.GET, produces = {MediaType.APPLICATION_JSON_VALUE})
-	public ResponseEntity<List<SerializedLoan>> listAllRegisteredLoans(){
-		List<Loan> allRegisteredLoans = loanService.fetchAllLoans();
-		if (allRegisteredLoans.isEmpty()){
+	public ResponseEntity<?> listAllRegisteredLoans(@RequestParam(value = "limit", required = false) Integer limit, @RequestParam(value = "after", required = false) String after){
+		/* Without any paging parameter, the whole loan list is returned as before */
+		if (limit == null && after == null){
+			List<SerializedLoan> allRegisteredLoans = loanService.fetchAllLoans();
+			if (allRegisteredLoans.isEmpty()){
+				return new ResponseEntity<List<SerializedLoan>>(HttpStatus.NO_CONTENT);
+			}
+			return new ResponseEntity<List<SerializedLoan>>(allRegisteredLoans, HttpStatus.OK);
+		}
+		/* Otherwise only one page is returned, sorted by the primary key and starting after the key carried by the cursor */
+		String finalRequestMapping = DEPLOYMENT_URL_ADDRESS + "/loan/";
+		int pageSize;
+		Integer afterLoanID;
+		try {
+			pageSize = IOFormatter.resolvePageSize(limit);
+			afterLoanID = (after == null) ? null : Integer.valueOf(IOFormatter.decodePageCursor(after));
+		} catch (IllegalArgumentException iae) {
+			LOGGER.error("Invalid paging parameters provided to the application! limit={}, after={}", limit, after);
+			//This response is mapped into an exception format that is returned under the status code OK for avoiding the generation of exception on the client side during processing: 
+			return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new IllegalArgumentException("Invalid paging parameters provided to the application! limit=" + limit + ", after=" + after), HttpStatus.BAD_REQUEST.value(), HttpStatus.BAD_REQUEST), HttpStatus.OK);
+		}
+		/* Ask for one element more than the page size - its presence tells whether a next page exists */
+		List<SerializedLoan> loansPage = loanService.fetchLoansPage(afterLoanID, pageSize + 1);
+		if (loansPage.isEmpty()){
 			return new ResponseEntity<List<SerializedLoan>>(HttpStatus.NO_CONTENT);
 		}
-		return new ResponseEntity<List<SerializedLoan>>(IOFormatter.convertEntityToDTOforLoanList(allRegisteredLoans), HttpStatus.OK);
+		HttpHeaders pageHeaders = new HttpHeaders();
+		if (loansPage.size() > pageSize){
+			loansPage = loansPage.subList(0, pageSize);
+			pageHeaders.set(IOFormatter.NEXT_PAGE_CURSOR_HEADER, IOFormatter.encodePageCursor(loansPage.get(pageSize - 1).getLoanID().toString()));
+		}
+		return new ResponseEntity<List<SerializedLoan>>(loansPage, pageHeaders, HttpStatus.OK);
+	}
+	
+	//--------------------------------------------- Stream all the loans from the DB ------------------------------------------------
+	@RequestMapping(value = "/loan/", method = RequestMethod.GET, params = "stream=true", produces = {MediaType.APPLICATION_JSON_VALUE})
+	public void streamAllRegisteredLoans(HttpServletResponse response) throws IOException {
+		/* The loans are written one by one straight into the response while they are read from the DB cursor - the loan views are never held as a list */
+		/* An empty loan table thus results in an empty JSON array instead of a no-content response */
+		response.setStatus(HttpServletResponse.SC_OK);
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		ObjectMapper objectMapper = jsonConverter.getObjectMapper();
+		/* Do not flush after every loan - the generator and the servlet buffers decide when the bytes are sent */
+		ObjectWriter loanWriter = objectMapper.writerFor(SerializedLoan.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		try (JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8)) {
+			jsonGenerator.writeStartArray();
+			loanService.streamAllLoans(loan -> loanWriter.writeValue(jsonGenerator, loan));
+			jsonGenerator.writeEndArray();
+		}
 	}
 	
 	//--------------------------------------------- Fetch all loans issued by a client -------------------------------------------------
@@ -71,9 +145,9 @@ public class LoanRestController {
 			return new ResponseEntity<List<SerializedLoan>>(HttpStatus.NO_CONTENT);
 		}
 		/* Otherwise - A potential match has been found, proceed with the next step: fetch all the loans assigned to given client */
-		List<Loan> allAssignedLoans = loanService.getAllLoansForClient(matchingClient);
+		List<SerializedLoan> allAssignedLoans = loanService.getAllLoansForClient(matchingClient);
 		/* Finally return the result */
-		return new ResponseEntity<List<SerializedLoan>>(IOFormatter.convertEntityToDTOforLoanList(allAssignedLoans), HttpStatus.OK);
+		return new ResponseEntity<List<SerializedLoan>>(allAssignedLoans, HttpStatus.OK);
 	}
 	
 	//--------------------------------------------- Fetch all loans issued from one IP address ------------------------------------------
@@ -86,9 +160,9 @@ public class LoanRestController {
 			return new ResponseEntity<List<SerializedLoan>>(HttpStatus.NO_CONTENT);
 		}
 		/* Otherwise - A potential match has been found, thus proceed with the next step: fetch all the loans issued from the given IP address */
-		List<Loan> allAssignedLoans = loanService.findAllLoansForIPAddress(matchingIPaddress);
+		List<SerializedLoan> allAssignedLoans = loanService.findAllLoansForIPAddress(matchingIPaddress);
 		/* Finally return the result */
-		return new ResponseEntity<List<SerializedLoan>>(IOFormatter.convertEntityToDTOforLoanList(allAssignedLoans), HttpStatus.OK);
+		return new ResponseEntity<List<SerializedLoan>>(allAssignedLoans, HttpStatus.OK);
 	}
 	
 	//--------------------------------------------- Fetch the history of one particular loan (including its extensions) through its ID -----
@@ -97,7 +171,7 @@ public class LoanRestController {
 		/* Create the header to be returned in the case of an error */
 		String finalRequestMapping = DEPLOYMENT_URL_ADDRESS + "/loan/displayLoanHistory/" + loanID + "/";
 		/* Find the loan to be returned in the DB */
-		Loan matchingLoan = loanService.fetchHistoryForLoanID(loanID);
+		SerializedLoan matchingLoan = loanService.fetchHistoryForLoanID(loanID);
 		/* In case of a null loan, return a suitable error message */
 		if (matchingLoan == null){
 			//This response is mapped into an exception format that is returned under the status code OK for avoiding the generation of exception on the client side during processing: 
@@ -105,7 +179,7 @@ public class LoanRestController {
 			return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new NullPointerException("The submitted value for loan ID, " + loanID + ", was not currently found as registered in our database!"), HttpStatus.NOT_FOUND.value(), HttpStatus.NOT_FOUND), HttpStatus.OK);
 		}
 		/* The straight-forward case: the loan was located in the database and can be returned */
-		return new ResponseEntity<SerializedLoan>(IOFormatter.convertSingleLoanEntityToDTO(matchingLoan), HttpStatus.OK);
+		return new ResponseEntity<SerializedLoan>(matchingLoan, HttpStatus.OK);
 	}
 	
 	//--------------------------------------------- Register a loan and perform its associated risk analysis ----------------------------------------------------------------------
@@ -113,11 +187,12 @@ public class LoanRestController {
 	public ResponseEntity<?> registerNewLoan(@RequestBody SerializedLoan candidateLoan) throws JsonProcessingException{
 		/* Create the header to be returned for the registration loan */
 		String finalRequestMapping = DEPLOYMENT_URL_ADDRESS + "/loan/";
-		LOGGER.info("Registering new loan on IP address " + candidateLoan.getIpAddress().getIpValue() + " for client " + candidateLoan.getIpAddress().getOwnerClient().getName());
+		LOGGER.info("Registering new loan on IP address {} for client {}", candidateLoan.getIpAddress().getIpValue(), candidateLoan.getIpAddress().getOwnerClient().getName());
 		/* Afterwards, call the registration method from the injected service - also perform the candidate conversion from business object into relevant DB entity */
-		loanService.registerNewLoan(IOFormatter.convertSingleLoanDTOToEntity(candidateLoan));
-		/* Fetch back the map of exceptions from the service in question */
-		Map<String, Exception> allExceptionsMap = loanService.getRegUpFlagMap();
+		Loan newLoan = IOFormatter.convertSingleLoanDTOToEntity(candidateLoan);
+		ValidationResult registrationResult = loanService.registerNewLoan(newLoan);
+		/* Fetch the map of exceptions from the outcome of the registration */
+		Map<String, Exception> allExceptionsMap = registrationResult.getErrors();
 		/* Examine the content of the map to see if there are any problems surrounding the given loan */
 		/* For each of the given cases, print a suitable error message and map the resulting exception into a suitable response */
 		if (!allExceptionsMap.keySet().isEmpty()){
@@ -164,39 +239,90 @@ public class LoanRestController {
 		/* For no errors encountered during the loan registration and in case of successful pass of the risk analysis, return the response confirming the created loan status */
 		HttpHeaders newLoanHeaders = new HttpHeaders();
 		UriComponentsBuilder ccBuilder = UriComponentsBuilder.newInstance();
-		/* Set as ID of the newly inserted loan the total number of registered loans in the system */
-		List<Loan> allLoans = loanService.fetchAllLoans();
-		Integer loanID = allLoans.get(allLoans.size() - 1).getLoanID();
+		/* The ID of the newly inserted loan is generated by the DB and set into the entity by its save */
+		Integer loanID = newLoan.getLoanID();
 		newLoanHeaders.setLocation(ccBuilder.path("/loan/displayLoanHistory/{loanID}/").buildAndExpand(loanID).toUri());
-		LOGGER.info("The header reference to the new created loan is:" + newLoanHeaders.toString());
+		LOGGER.info("The header reference to the new created loan is: {}", newLoanHeaders);
 		return new ResponseEntity<String>(IOFormatter.convertHeadersToJSON(newLoanHeaders.getLocation()), HttpStatus.CREATED);
 	}
 	
+	//--------------------------------------------- Register a batch of loans in one go ----------------------------------------------------------------------------------------
+	@RequestMapping(value = "/loan/batch", method = RequestMethod.POST, consumes = {MediaType.APPLICATION_JSON_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE})
+	public ResponseEntity<?> registerNewLoanBatch(@RequestBody List<SerializedLoan> candidateLoans){
+		String finalRequestMapping = DEPLOYMENT_URL_ADDRESS + "/loan/batch";
+		/* Refuse the empty and the oversized batches as a whole */
+		if (candidateLoans == null || candidateLoans.isEmpty() || candidateLoans.size() > LoanService.MAXIMUM_LOAN_BATCH_SIZE){
+			int batchSize = (candidateLoans == null) ? 0 : candidateLoans.size();
+			LOGGER.error("Invalid loan batch size submitted to the application: {}", batchSize);
+			return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new IllegalArgumentException("A loan batch must contain between 1 and " + LoanService.MAXIMUM_LOAN_BATCH_SIZE + " loans, but " + batchSize + " were submitted!"), HttpStatus.BAD_REQUEST.value(), HttpStatus.BAD_REQUEST), HttpStatus.OK);
+		}
+		LOGGER.info("Registering a batch of {} loans", candidateLoans.size());
+		/* Convert the complete loans into entities - the incomplete ones are rejected straight away, without reaching the service */
+		SerializedLoanBatchResult[] batchResults = new SerializedLoanBatchResult[candidateLoans.size()];
+		List<Loan> convertedLoans = new ArrayList<>();
+		List<Integer> convertedLoanIndexes = new ArrayList<>();
+		for (int itemIndex = 0; itemIndex < candidateLoans.size(); itemIndex++){
+			SerializedLoan candidateLoan = candidateLoans.get(itemIndex);
+			if (candidateLoan == null || candidateLoan.getIpAddress() == null || candidateLoan.getIpAddress().getIpValue() == null || candidateLoan.getIpAddress().getOwnerClient() == null
+				|| candidateLoan.getApplicationTime() == null || candidateLoan.getReturnDate() == null || candidateLoan.getLoanedAmount() == null || candidateLoan.getCurrency() == null){
+				batchResults[itemIndex] = new SerializedLoanBatchResult(itemIndex, HttpStatus.BAD_REQUEST.value());
+				batchResults[itemIndex].setErrorMessage("Loan cannot be saved due to missing IP address, application time, return date, amount or currency!");
+				continue;
+			}
+			convertedLoans.add(IOFormatter.convertSingleLoanDTOToEntity(candidateLoan));
+			convertedLoanIndexes.add(itemIndex);
+		}
+		/* Validate, risk-check and save the converted loans in one transaction, then map the outcome of each of them */
+		List<ValidationResult> loanResults = convertedLoans.isEmpty() ? new ArrayList<>() : loanService.registerNewLoanBatch(convertedLoans);
+		UriComponentsBuilder ccBuilder = UriComponentsBuilder.newInstance();
+		for (int i = 0; i < convertedLoans.size(); i++){
+			int itemIndex = convertedLoanIndexes.get(i);
+			ValidationResult loanResult = loanResults.get(i);
+			if (loanResult.isValid()){
+				Integer loanID = convertedLoans.get(i).getLoanID();
+				batchResults[itemIndex] = new SerializedLoanBatchResult(itemIndex, HttpStatus.CREATED.value());
+				batchResults[itemIndex].setLoanID(loanID);
+				batchResults[itemIndex].setLocation(ccBuilder.cloneBuilder().path("/loan/displayLoanHistory/{loanID}/").buildAndExpand(loanID).toUriString());
+				continue;
+			}
+			/* Report the first error in the same order as the single loan registration does */
+			for (Map.Entry<String, HttpStatus> errorStatus : REGISTRATION_ERROR_STATUSES.entrySet()){
+				if (loanResult.hasError(errorStatus.getKey())){
+					batchResults[itemIndex] = new SerializedLoanBatchResult(itemIndex, errorStatus.getValue().value());
+					batchResults[itemIndex].setErrorMessage(loanResult.getError(errorStatus.getKey()).getMessage());
+					break;
+				}
+			}
+		}
+		/* The batch as such was processed - the outcome of each loan is given by the status inside its own result */
+		return new ResponseEntity<List<SerializedLoanBatchResult>>(Arrays.asList(batchResults), HttpStatus.OK);
+	}
+	
 	//--------------------------------------------- Extend a loan based on its ID -------------------------------------------------------------------------------------------------
 	@RequestMapping(value = "/loan/extendLoan/{loanID}/", method = RequestMethod.PUT, consumes = {MediaType.APPLICATION_JSON_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE})
 	public ResponseEntity<?> extendLoan(@PathVariable("loanID") Integer loanID, @RequestBody SerializedLoan selectedLoan){
 		/* Create the mapping for the extension of the loan based on its ID */
 		String finalRequestMapping = DEPLOYMENT_URL_ADDRESS + "/loan/extendLoan/" + loanID + "/";
-		LOGGER.info("Performing extension for the chosen loan with ID = ?", loanID);
+		LOGGER.info("Performing extension for the chosen loan with ID = {}", loanID);
 		/* Find the loan for which the extension is to be done */
-		Loan initialLoan = loanService.fetchHistoryForLoanID(loanID);
+		SerializedLoan initialLoan = loanService.fetchHistoryForLoanID(loanID);
 		/* In case the loan in question does not exist return a response with a NOT_FOUND status */
 		if (initialLoan == null){
 			/* Print a relevant error message as well for this case */
-			LOGGER.error(selectedLoan.toString() + " was not found in the database unfortunately...");
+			LOGGER.error("{} was not found in the database unfortunately...", selectedLoan);
 			//Return the response for this case mapped into an exception format under the status code OK for avoiding the generation of exception on the client side during processing: 
 			//return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new NullPointerException(selectedLoan.toString() + " was not found in the database unfortunately..."), HttpStatus.NOT_FOUND.value(), HttpStatus.NOT_FOUND), HttpStatus.NOT_FOUND);
 			return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new NullPointerException("Loan with ID=" + loanID + " was not found in the database unfortunately..."), HttpStatus.NOT_FOUND.value(), HttpStatus.NOT_FOUND), HttpStatus.OK);
 		}
-		if (!StringUtils.equalsIgnoreCase(selectedLoan.getIpAddress().getIpValue(), initialLoan.getIpAddress().getValue())){
+		if (!StringUtils.equalsIgnoreCase(selectedLoan.getIpAddress().getIpValue(), initialLoan.getIpAddress().getIpValue())){
 			/* Print a relevant message for this case as well */
 			LOGGER.error("Mismatch of IP addresses detected, aborting operation");
 			return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new IllegalArgumentException("Loan with ID=" + loanID + " was registered with under a different IP address than the one supplied during update..."), HttpStatus.EXPECTATION_FAILED.value(), HttpStatus.EXPECTATION_FAILED), HttpStatus.OK);
 		}
 		/* Otherwise, proceed with the update - call the update method and check for any occurring exceptions */
-		loanService.extendExistingLoan(IOFormatter.convertSingleLoanDTOToEntity(selectedLoan));
-		/* Get next the map of errors and see which of them has been registered - again the rule of thumb is that first error beats all others in order of appearance */
-		Map<String, Exception> allExceptionsMap = loanService.getRegUpFlagMap();
+		ValidationResult extensionResult = loanService.extendExistingLoan(IOFormatter.convertSingleLoanDTOToEntity(selectedLoan));
+		/* Get next the map of errors of this call and see which of them has been registered - again the rule of thumb is that first error beats all others in order of appearance */
+		Map<String, Exception> allExceptionsMap = extensionResult.getErrors();
 		/* Check if the key set of the map is not empty and fetch out the existing elements */
 		/* In each of the cases in question: print a suitable error message and map the generated exception into a user-friendly response for the client side in order to avoid any problems */
 		if (!allExceptionsMap.keySet().isEmpty()){
@@ -215,7 +341,7 @@ public class LoanRestController {
 		}
 		/* Return in the end the response of the update operation */
 		initialLoan = loanService.fetchHistoryForLoanID(loanID);
-		return new ResponseEntity<SerializedLoan>(IOFormatter.convertSingleLoanEntityToDTO(initialLoan), HttpStatus.ACCEPTED);
+		return new ResponseEntity<SerializedLoan>(initialLoan, HttpStatus.ACCEPTED);
 	}
 	
 	//--------------------------------------------- Remove a loan based on its ID ----------------------------------------
@@ -223,13 +349,13 @@ public class LoanRestController {
 	public ResponseEntity<?> removeLoan(@PathVariable("loanID") Integer loanID){
 		/* Create the mapping for the removal of the selected loan */
 		String finalRequestMapping = DEPLOYMENT_URL_ADDRESS +  "/loan/" + loanID + "/";
-		LOGGER.info("Performing removal of selected loan with ID " + loanID + "...");
+		LOGGER.info("Performing removal of selected loan with ID {}...", loanID);
 		/* Find the client bearing the CNP but the old features */
-		Loan initialLoan = loanService.fetchHistoryForLoanID(loanID);		
+		SerializedLoan initialLoan = loanService.fetchHistoryForLoanID(loanID);		
 		/* If loan cannot be found, return a response with NOT_FOUND status */
 		if (initialLoan == null){
 			/* Print a relevant error message for this case as well */
-			LOGGER.error("The loan with ID " + loanID + " was not found in the database unfortunately...");
+			LOGGER.error("The loan with ID {} was not found in the database unfortunately...", loanID);
 			//Return the response for this case mapped into an exception format under the status code OK for avoiding the generation of exception on the client side during processing: 
 			//return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new NullPointerException("No loan with ID " + loanID + " was found in the database unfortunately..."), 0, HttpStatus.NOT_FOUND), HttpStatus.NOT_FOUND);
 			return new ResponseEntity<ExceptionInfo>(new ExceptionInfo(finalRequestMapping, new NullPointerException("No loan with ID " + loanID + " was found in the database unfortunately..."), HttpStatus.NOT_FOUND.value(), HttpStatus.NOT_FOUND), HttpStatus.OK);
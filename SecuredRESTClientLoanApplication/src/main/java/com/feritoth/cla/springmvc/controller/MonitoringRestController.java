@@ -0,0 +1,72 @@
+package com.feritoth.cla.springmvc.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.feritoth.cla.springmvc.configuration.ReplicaRoutingDataSource;
+import com.feritoth.cla.springmvc.monitoring.ConnectionPoolMetrics;
+import com.feritoth.cla.springmvc.monitoring.FlushMetrics;
+import com.feritoth.cla.springmvc.monitoring.PrometheusTextFormat;
+import com.feritoth.cla.springmvc.monitoring.RequestMetrics;
+import com.feritoth.cla.springmvc.monitoring.SecondLevelCacheMetrics;
+import com.feritoth.cla.springmvc.service.impl.LoanHistoryCache;
+
+@RestController
+public class MonitoringRestController {
+
+	/* Declare here the metrics sources exposed to the operators */
+	@Autowired
+	private ConnectionPoolMetrics connectionPoolMetrics;
+	@Autowired
+	private ReplicaRoutingDataSource routingDataSource;
+	@Autowired
+	private SecondLevelCacheMetrics secondLevelCacheMetrics;
+	@Autowired
+	private LoanHistoryCache loanHistoryCache;
+	@Autowired
+	private FlushMetrics flushMetrics;
+	@Autowired
+	private RequestMetrics requestMetrics;
+
+	//-------------------------------------Fetch the current state of the connection pool and of the replicas-----------------------------------
+	@RequestMapping(value = "/monitoring/pool/", method = RequestMethod.GET, produces = {MediaType.APPLICATION_JSON_VALUE})
+	public ResponseEntity<Map<String, Object>> getConnectionPoolMetrics(){
+		Map<String, Object> poolView = connectionPoolMetrics.snapshot();
+		poolView.put("replicas", routingDataSource.getReplicaStates());
+		return new ResponseEntity<Map<String, Object>>(poolView, HttpStatus.OK);
+	}
+	
+	//-------------------------------------Fetch the hit and miss counters of the second-level cache and of the loan history cache-----------------------------------
+	@RequestMapping(value = "/monitoring/cache/", method = RequestMethod.GET, produces = {MediaType.APPLICATION_JSON_VALUE})
+	public ResponseEntity<Map<String, Object>> getSecondLevelCacheMetrics(){
+		Map<String, Object> cacheView = secondLevelCacheMetrics.snapshot();
+		cacheView.put("loanHistoryCache", loanHistoryCache.snapshot());
+		return new ResponseEntity<Map<String, Object>>(cacheView, HttpStatus.OK);
+	}
+	
+	//-------------------------------------Fetch the time spent in flushing the Hibernate sessions-----------------------------------
+	@RequestMapping(value = "/monitoring/flush/", method = RequestMethod.GET, produces = {MediaType.APPLICATION_JSON_VALUE})
+	public ResponseEntity<Map<String, Object>> getFlushMetrics(){
+		return new ResponseEntity<Map<String, Object>>(flushMetrics.snapshot(), HttpStatus.OK);
+	}
+	
+	//-------------------------------------Fetch the latency percentiles of the REST endpoints and of the service and DAO methods-----------------------------------
+	@RequestMapping(value = "/monitoring/requests/", method = RequestMethod.GET, produces = {MediaType.APPLICATION_JSON_VALUE})
+	public ResponseEntity<Map<String, Object>> getRequestMetrics(){
+		return new ResponseEntity<Map<String, Object>>(requestMetrics.snapshot(), HttpStatus.OK);
+	}
+	
+	//-------------------------------------Scrape all the latency histograms and error counters in the Prometheus text format-----------------------------------
+	@RequestMapping(value = "/metrics", method = RequestMethod.GET, produces = {PrometheusTextFormat.CONTENT_TYPE})
+	public ResponseEntity<String> scrapeMetrics(){
+		return new ResponseEntity<String>(requestMetrics.scrape(), HttpStatus.OK);
+	}
+
+}
@@ -1,16 +1,15 @@
 package com.feritoth.cla.springmvc.controller.utility;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.sql.Date;
 import java.sql.Timestamp;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.feritoth.cla.springmvc.configuration.HibernateAwareObjectMapper;
 import com.feritoth.cla.springmvc.dbmodel.Client;
 import com.feritoth.cla.springmvc.dbmodel.IPAddress;
 import com.feritoth.cla.springmvc.dbmodel.Loan;
@@ -18,6 +17,7 @@ import com.feritoth.cla.springmvc.dbmodel.LoanCurrency;
 import com.feritoth.cla.springmvc.jsonmodel.SerializedClient;
 import com.feritoth.cla.springmvc.jsonmodel.SerializedIPAddress;
 import com.feritoth.cla.springmvc.jsonmodel.SerializedLoan;
+import com.feritoth.cla.springmvc.service.InputValidator;
 
 /**
  * This class serves as utility provider for input pre-processing during the execution of the 
@@ -28,12 +28,16 @@ import com.feritoth.cla.springmvc.jsonmodel.SerializedLoan;
  */
 public class IOFormatter {
 	
-	/* The CNP representation pattern - used for the checking the CNPs submitted for search if they are well-formed */
-	private static final String CNP_PATTERN = "[0-9]+";	
-	
 	/* The CNP length checker reference */
 	private static final int MAX_CNP_LENGTH = 12;
 	
+	/* The page size used by the paginated list methods when no limit is requested, and the largest page size accepted */
+	public static final int DEFAULT_PAGE_SIZE = 100;
+	public static final int MAXIMUM_PAGE_SIZE = 1000;
+	
+	/* The name of the response header carrying the cursor of the next page */
+	public static final String NEXT_PAGE_CURSOR_HEADER = "X-Next-Cursor";
+	
 	/**
 	 *  Validator method for CNP representation pattern check.
 	 *  
@@ -43,9 +47,7 @@ public class IOFormatter {
 	 *  in terms of character content (contains only digits)  
 	 */
 	public static boolean validateClientCNPcontent(String clientCNP){
-		Pattern cnpPattern = Pattern.compile(CNP_PATTERN);
-		Matcher matcher = cnpPattern.matcher(clientCNP);
-		return matcher.matches();
+		return InputValidator.isDigitsOnly(clientCNP);
 	}
 	
 	/**
@@ -162,13 +164,8 @@ public class IOFormatter {
 	public static SerializedLoan convertSingleLoanEntityToDTO(Loan loan) {		
 		/* Create the converted entity */
 		SerializedLoan serializedLoan =  new SerializedLoan(loan);
-		/* In case the loan is extended, compute its number of extensions and add it to the converted entity */
-		if (loan.isExtended()){
-			Long extensionWeeks = ChronoUnit.WEEKS.between(loan.getApplicationTime().toLocalDate(), loan.getPaybackDate()) - 1;
-			serializedLoan.setExtensionCount(extensionWeeks);
-		} else {
-			serializedLoan.setExtensionCount(0L);
-		}
+		/* Add the number of extensions of the loan to the converted entity - 0 for a loan which was never extended */
+		serializedLoan.setExtensionCount(SerializedLoan.computeExtensionCount(loan.getApplicationTime(), loan.getPaybackDate(), loan.isExtended()));
 		/* Return in the end the given loan */
 		return serializedLoan;
 	}
@@ -201,8 +198,53 @@ public class IOFormatter {
 	 * @throws JsonProcessingException in case of any conversion problem
 	 */
 	public static String convertHeadersToJSON(URI candidateHeader) throws JsonProcessingException {
-		ObjectMapper objmap = new ObjectMapper();		
-		return objmap.writeValueAsString(candidateHeader);
-	}			
+		return HibernateAwareObjectMapper.getSharedInstance().writeValueAsString(candidateHeader);
+	}
+	
+	/**
+	 * A method for computing the effective page size of a paginated list request.
+	 * 
+	 * @param requestedLimit the page size requested by the caller (may be null)
+	 * 
+	 * @return the requested page size capped to the maximum allowed one, or the default page size for no request
+	 * 
+	 * @throws IllegalArgumentException in case of a zero or negative requested page size
+	 */
+	public static int resolvePageSize(Integer requestedLimit) {
+		if (requestedLimit == null){
+			return DEFAULT_PAGE_SIZE;
+		}
+		if (requestedLimit <= 0){
+			throw new IllegalArgumentException("The requested page size must be a positive number! " + requestedLimit);
+		}
+		return Math.min(requestedLimit, MAXIMUM_PAGE_SIZE);
+	}
+	
+	/**
+	 * A method for converting the sort key of the last element of a page into an opaque cursor.
+	 * 
+	 * @param lastKey the primary key of the last element returned on the current page
+	 * 
+	 * @return the URL-safe cursor pointing after the given key
+	 */
+	public static String encodePageCursor(String lastKey) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(lastKey.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * A method for converting an opaque cursor back into the sort key it was created from.
+	 * 
+	 * @param cursor the cursor received from a previous page (may be null for the first page)
+	 * 
+	 * @return the primary key after which the next page starts, or null for the first page
+	 * 
+	 * @throws IllegalArgumentException in case the cursor was not produced by this application
+	 */
+	public static String decodePageCursor(String cursor) {
+		if (cursor == null){
+			return null;
+		}
+		return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+	}
 
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.feritoth.cla.springmvc.controller.utility;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * This class writes the dates and times of the DTOs straight into a JSON generator: the digits are put into a small
+ * character buffer, which the generator copies, instead of going through a DateTimeFormatter and an intermediate String.
+ * The formats are the ones of the wire model - yyyy-MM-dd HH:mm:ss for a date and time and yyyy-MM-dd for a date. The
+ * years outside of 1..9999, which need a sign or more than four digits, are left to the formatters.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public final class JsonDateWriter {
+
+	private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+	private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+	private static final int DATE_LENGTH = 10;
+	private static final int DATE_TIME_LENGTH = 19;
+
+	private JsonDateWriter() {
+	}
+
+	/**
+	 * Writes a date and time as a JSON string, truncated to the seconds.
+	 *
+	 * @param value the date and time to be written
+	 * @param generator the generator of the JSON output
+	 *
+	 * @throws IOException in case of any writing problem
+	 */
+	public static void writeDateTime(LocalDateTime value, JsonGenerator generator) throws IOException {
+		if (!hasFourDigitYear(value.getYear())){
+			generator.writeString(value.format(DATE_TIME_FORMATTER));
+			return;
+		}
+		char[] buffer = new char[DATE_TIME_LENGTH];
+		putDate(buffer, value.getYear(), value.getMonthValue(), value.getDayOfMonth());
+		buffer[10] = ' ';
+		putTwoDigits(buffer, 11, value.getHour());
+		buffer[13] = ':';
+		putTwoDigits(buffer, 14, value.getMinute());
+		buffer[16] = ':';
+		putTwoDigits(buffer, 17, value.getSecond());
+		generator.writeString(buffer, 0, DATE_TIME_LENGTH);
+	}
+
+	/**
+	 * Writes a date as a JSON string.
+	 *
+	 * @param value the date to be written
+	 * @param generator the generator of the JSON output
+	 *
+	 * @throws IOException in case of any writing problem
+	 */
+	public static void writeDate(LocalDate value, JsonGenerator generator) throws IOException {
+		if (!hasFourDigitYear(value.getYear())){
+			generator.writeString(value.format(DATE_FORMATTER));
+			return;
+		}
+		char[] buffer = new char[DATE_LENGTH];
+		putDate(buffer, value.getYear(), value.getMonthValue(), value.getDayOfMonth());
+		generator.writeString(buffer, 0, DATE_LENGTH);
+	}
+
+	private static boolean hasFourDigitYear(int year){
+		return year >= 1 && year <= 9999;
+	}
+
+	private static void putDate(char[] buffer, int year, int month, int day){
+		putTwoDigits(buffer, 0, year / 100);
+		putTwoDigits(buffer, 2, year % 100);
+		buffer[4] = '-';
+		putTwoDigits(buffer, 5, month);
+		buffer[7] = '-';
+		putTwoDigits(buffer, 8, day);
+	}
+
+	private static void putTwoDigits(char[] buffer, int offset, int value){
+		buffer[offset] = (char) ('0' + value / 10);
+		buffer[offset + 1] = (char) ('0' + value % 10);
+	}
+
+}
@@ -2,7 +2,6 @@ package com.feritoth.cla.springmvc.controller.utility;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.SerializerProvider;
@@ -18,7 +17,7 @@ public class LocalDateTimeSerializer extends StdSerializer<LocalDateTime> {
 
 	@Override
 	public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
-		gen.writeString(value.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+		JsonDateWriter.writeDateTime(value, gen);
 	}
 
 }
\ No newline at end of file
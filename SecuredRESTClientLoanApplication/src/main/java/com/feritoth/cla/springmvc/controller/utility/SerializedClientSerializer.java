@@ -0,0 +1,42 @@
+package com.feritoth.cla.springmvc.controller.utility;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedClient;
+
+/**
+ * Writes a SerializedClient - see {@link WireModelSerializer}.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public class SerializedClientSerializer extends WireModelSerializer<SerializedClient> {
+
+	private static final long serialVersionUID = -3618202770137251416L;
+
+	private static final SerializableString CNP = new SerializedString("cnp");
+	private static final SerializableString NAME = new SerializedString("name");
+	private static final SerializableString EMAIL_ADDRESS = new SerializedString("emailAddress");
+	private static final SerializableString POSTAL_ADDRESS = new SerializedString("postalAddress");
+	private static final SerializableString ALL_CLIENT_IPS = new SerializedString("allClientIPs");
+
+	public SerializedClientSerializer() {
+		super(SerializedClient.class);
+	}
+
+	@Override
+	public void serialize(SerializedClient client, JsonGenerator generator, SerializerProvider provider) throws IOException {
+		generator.writeStartObject(client);
+		writeStringField(generator, CNP, client.getCnp());
+		writeStringField(generator, NAME, client.getName());
+		writeStringField(generator, EMAIL_ADDRESS, client.getEmailAddress());
+		writeStringField(generator, POSTAL_ADDRESS, client.getPostalAddress());
+		writeListField(generator, ALL_CLIENT_IPS, client.getAllClientIPs(), Shared.IP_ADDRESS, provider);
+		generator.writeEndObject();
+	}
+
+}
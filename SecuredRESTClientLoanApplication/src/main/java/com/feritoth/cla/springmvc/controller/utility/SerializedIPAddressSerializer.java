@@ -0,0 +1,43 @@
+package com.feritoth.cla.springmvc.controller.utility;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedIPAddress;
+
+/**
+ * Writes a SerializedIPAddress - see {@link WireModelSerializer}.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public class SerializedIPAddressSerializer extends WireModelSerializer<SerializedIPAddress> {
+
+	private static final long serialVersionUID = 5523890216649780354L;
+
+	private static final SerializableString IP_ID = new SerializedString("ipID");
+	private static final SerializableString IP_VALUE = new SerializedString("ipValue");
+	private static final SerializableString OWNER_CLIENT = new SerializedString("ownerClient");
+	private static final SerializableString ALL_LOANS = new SerializedString("allLoans");
+
+	public SerializedIPAddressSerializer() {
+		super(SerializedIPAddress.class);
+	}
+
+	@Override
+	public void serialize(SerializedIPAddress ipAddress, JsonGenerator generator, SerializerProvider provider) throws IOException {
+		generator.writeStartObject(ipAddress);
+		writeNumberField(generator, IP_ID, ipAddress.getIpID());
+		writeStringField(generator, IP_VALUE, ipAddress.getIpValue());
+		if (ipAddress.getOwnerClient() != null){
+			generator.writeFieldName(OWNER_CLIENT);
+			Shared.CLIENT.serialize(ipAddress.getOwnerClient(), generator, provider);
+		}
+		writeListField(generator, ALL_LOANS, ipAddress.getAllLoans(), Shared.LOAN, provider);
+		generator.writeEndObject();
+	}
+
+}
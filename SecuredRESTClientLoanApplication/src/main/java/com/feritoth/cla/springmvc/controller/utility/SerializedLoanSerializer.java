@@ -0,0 +1,63 @@
+package com.feritoth.cla.springmvc.controller.utility;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedLoan;
+
+/**
+ * Writes a SerializedLoan - see {@link WireModelSerializer}. The application time and the return date are written by
+ * {@link JsonDateWriter}, in the formats of the annotations of their fields.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public class SerializedLoanSerializer extends WireModelSerializer<SerializedLoan> {
+
+	private static final long serialVersionUID = -1404573561306687264L;
+
+	private static final SerializableString LOAN_ID = new SerializedString("loanID");
+	private static final SerializableString IP_ADDRESS = new SerializedString("ipAddress");
+	private static final SerializableString APPLICATION_TIME = new SerializedString("applicationTime");
+	private static final SerializableString RETURN_DATE = new SerializedString("returnDate");
+	private static final SerializableString LOANED_AMOUNT = new SerializedString("loanedAmount");
+	private static final SerializableString CURRENCY = new SerializedString("currency");
+	private static final SerializableString INTEREST_RATE = new SerializedString("interestRate");
+	private static final SerializableString EXTENSION_COUNT = new SerializedString("extensionCount");
+	private static final SerializableString EXTENDED = new SerializedString("extended");
+
+	public SerializedLoanSerializer() {
+		super(SerializedLoan.class);
+	}
+
+	@Override
+	public void serialize(SerializedLoan loan, JsonGenerator generator, SerializerProvider provider) throws IOException {
+		generator.writeStartObject(loan);
+		writeNumberField(generator, LOAN_ID, loan.getLoanID());
+		if (loan.getIpAddress() != null){
+			generator.writeFieldName(IP_ADDRESS);
+			Shared.IP_ADDRESS.serialize(loan.getIpAddress(), generator, provider);
+		}
+		if (loan.getApplicationTime() != null){
+			generator.writeFieldName(APPLICATION_TIME);
+			JsonDateWriter.writeDateTime(loan.getApplicationTime(), generator);
+		}
+		if (loan.getReturnDate() != null){
+			generator.writeFieldName(RETURN_DATE);
+			JsonDateWriter.writeDate(loan.getReturnDate(), generator);
+		}
+		writeNumberField(generator, LOANED_AMOUNT, loan.getLoanedAmount());
+		if (loan.getCurrency() != null){
+			generator.writeFieldName(CURRENCY);
+			generator.writeString(loan.getCurrency().name());
+		}
+		writeNumberField(generator, INTEREST_RATE, loan.getInterestRate());
+		writeNumberField(generator, EXTENSION_COUNT, loan.getExtensionCount());
+		writeBooleanField(generator, EXTENDED, loan.isExtended());
+		generator.writeEndObject();
+	}
+
+}
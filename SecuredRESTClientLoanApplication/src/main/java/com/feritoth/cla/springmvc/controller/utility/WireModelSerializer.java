@@ -0,0 +1,87 @@
+package com.feritoth.cla.springmvc.controller.utility;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * The base of the hand-written serializers of the wire DTOs. They write the properties in a fixed order, through field
+ * names encoded once, and follow the NON_EMPTY inclusion of the DTOs: the null values, the empty strings and the empty
+ * lists are left out, while zero numbers and false flags are written. The nested DTOs are written by calling their
+ * serializers directly, without any lookup through the serializer provider.
+ *
+ * @author Frantisek Slovak
+ *
+ * @param <T> the type of the serialized DTO
+ */
+public abstract class WireModelSerializer<T> extends StdSerializer<T> {
+
+	private static final long serialVersionUID = 7306158284472103391L;
+
+	/* The shared serializers of the nested DTOs - kept apart from the serializer classes, so that the initialization of
+	   one of them never waits for the initialization of another one, which could deadlock between two threads */
+	static final class Shared {
+
+		static final SerializedLoanSerializer LOAN = new SerializedLoanSerializer();
+		static final SerializedIPAddressSerializer IP_ADDRESS = new SerializedIPAddressSerializer();
+		static final SerializedClientSerializer CLIENT = new SerializedClientSerializer();
+
+		private Shared() {
+		}
+
+	}
+
+	protected WireModelSerializer(Class<T> dtoClass) {
+		super(dtoClass);
+	}
+
+	protected static void writeStringField(JsonGenerator generator, SerializableString fieldName, String value) throws IOException {
+		if (value != null && !value.isEmpty()){
+			generator.writeFieldName(fieldName);
+			generator.writeString(value);
+		}
+	}
+
+	protected static void writeNumberField(JsonGenerator generator, SerializableString fieldName, Integer value) throws IOException {
+		if (value != null){
+			generator.writeFieldName(fieldName);
+			generator.writeNumber(value.intValue());
+		}
+	}
+
+	protected static void writeNumberField(JsonGenerator generator, SerializableString fieldName, Long value) throws IOException {
+		if (value != null){
+			generator.writeFieldName(fieldName);
+			generator.writeNumber(value.longValue());
+		}
+	}
+
+	protected static void writeBooleanField(JsonGenerator generator, SerializableString fieldName, Boolean value) throws IOException {
+		if (value != null){
+			generator.writeFieldName(fieldName);
+			generator.writeBoolean(value.booleanValue());
+		}
+	}
+
+	protected static <E> void writeListField(JsonGenerator generator, SerializableString fieldName, List<E> values, StdSerializer<E> elementSerializer,
+			                                 SerializerProvider provider) throws IOException {
+		if (values == null || values.isEmpty()){
+			return;
+		}
+		generator.writeFieldName(fieldName);
+		generator.writeStartArray(values, values.size());
+		for (E value : values){
+			if (value == null){
+				generator.writeNull();
+			} else {
+				elementSerializer.serialize(value, generator, provider);
+			}
+		}
+		generator.writeEndArray();
+	}
+
+}
@@ -7,6 +7,8 @@ import com.feritoth.cla.springmvc.dbmodel.Client;
 public interface ClientDao {
 	
     List<Client> getAllRegisteredClients();
+    
+    List<Client> getRegisteredClientsPage(String afterCNP, int pageSize);
 	
 	List<Client> getMatchingClients(String nameSequence);
 	
@@ -16,7 +18,7 @@ public interface ClientDao {
 	
 	List<Client> findClientsByEmailAddressFragment(String emailAddressFragment);
 	
-	List<String> getAllClientCNPs();
+	boolean isCNPregistered(String cnp);
 	
 	//Client registerNewClient(String cnp, String name, String emailAddress, String postalAddress);
 	void saveNewClient(Client newClient);
@@ -1,5 +1,6 @@
 package com.feritoth.cla.springmvc.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.feritoth.cla.springmvc.dbmodel.Client;
@@ -7,12 +8,23 @@ import com.feritoth.cla.springmvc.dbmodel.IPAddress;
 
 public interface IPAddressDao {
 	
+	/* Callback used for consuming the IP values together with the CNPs of their owners while they are read from a forward-only cursor */
+	interface IPAddressOwnerHandler {
+		
+		void handleOwner(String ipAddressValue, String ownerCNP);
+		
+	}
+	
 	List<IPAddress> getAllIPAddresses();
 	
+	List<IPAddress> getIPAddressesPage(Integer afterIPAddressID, int pageSize);
+	
 	List<IPAddress> getAllIPAddressesForClient(Client searchedClient);
 	
 	IPAddress findIPAddressDetailsForValue(String ipAddressValue);
 	
+	List<IPAddress> findIPAddressesForValues(Collection<String> ipAddressValues);
+	
 	//IPAddress registerNewIPAddress(String ipAddressValue, Client matchingClient);
 	void saveNewIPAddress(IPAddress newIPAddress);
 	
@@ -21,6 +33,6 @@ public interface IPAddressDao {
 	//boolean removeIPAddressForClient(String ipAddress, Client assignedClient);
 	void removeIPAddressForClient(String ipAddress);
 	
-	List<String> getAllIPValues();
+	void scrollAllIPAddressOwners(IPAddressOwnerHandler ipAddressOwnerHandler);
 
 }
\ No newline at end of file
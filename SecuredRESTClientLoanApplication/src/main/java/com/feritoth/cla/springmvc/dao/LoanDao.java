@@ -1,31 +1,49 @@
 package com.feritoth.cla.springmvc.dao;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
-import com.feritoth.cla.springmvc.dbmodel.Client;
 import com.feritoth.cla.springmvc.dbmodel.IPAddress;
 import com.feritoth.cla.springmvc.dbmodel.Loan;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedLoan;
 
 public interface LoanDao {
 	
-	List<Loan> getAllRegisteredLoans();
+	/* Callback used for consuming the loans one by one while they are read from a forward-only cursor */
+	interface LoanRowHandler {
+		
+		void handleLoan(SerializedLoan loan) throws IOException;
+		
+	}
 	
-	List<Loan> getAllLoansForClient(Client client);
+	/* The list reads below are projections: they select only the columns shown to the clients and build the JSON model straight from the rows */
+	List<SerializedLoan> getAllRegisteredLoans();
 	
-	List<Loan> getAllLoansForIPAddress(IPAddress ipAddress);
+	void scrollAllRegisteredLoans(LoanRowHandler loanRowHandler) throws IOException;
+	
+	List<SerializedLoan> getRegisteredLoansPage(Integer afterLoanID, int pageSize);
+	
+	List<SerializedLoan> getAllLoansForClient(String clientCNP);
+	
+	List<SerializedLoan> getAllLoansForIPAddress(Integer ipAddressID);
 	
 	Loan getLoanHistoryByID(Integer loanID);
 	
+	SerializedLoan getLoanViewByID(Integer loanID);
+	
 	int countLoansForIPAddressOnDay(IPAddress ipAddress, LocalDate applicationDate);
 	
-	int countAllLoansFromDB();
+	Map<Integer, Integer> countLoansPerIPAddressOnDay(LocalDate applicationDate);
 	
 	/* Loan registerLoanForClient(IPAddress ipAddress, LocalDateTime applicationDateTime, LocalDate loanReturnDate, 
 			                      Long amount, LoanCurrency currency, Boolean isExtended, Long interestRate);
      */
 	void saveNewLoan(Loan loan);
 	
+	void saveNewLoans(List<Loan> loans);
+	
 	//Loan extendLoan(IPAddress ipAddress, Integer loanID, LocalDate newLoanReturnDate, Boolean isExtended, Long interestRate);
 	void updateLoan(Loan loan);
 	
@@ -4,8 +4,9 @@ import java.util.List;
 
 import org.hibernate.Criteria;
 import org.hibernate.Hibernate;
-import org.hibernate.Query;
+import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
 
 import com.feritoth.cla.springmvc.dao.ClientDao;
@@ -22,6 +23,19 @@ public class ClientHibernateDao extends AbstractHibernateDao implements	ClientDa
 		List<Client> clientList = (List<Client>) criteria.list();		
         return clientList;
 	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public List<Client> getRegisteredClientsPage(String afterCNP, int pageSize) {
+		/* Keyset pagination on the primary key: no offset scan, the DB seeks directly past the last CNP of the previous page */
+		Criteria criteria = getSession().createCriteria(Client.class);
+		if (afterCNP != null){
+			criteria.add(Restrictions.gt("cnp", afterCNP));
+		}
+		criteria.addOrder(Order.asc("cnp"));
+		criteria.setMaxResults(pageSize);
+		return (List<Client>) criteria.list();
+	}
 
 	@SuppressWarnings("unchecked")
 	@Override
@@ -35,17 +49,17 @@ public class ClientHibernateDao extends AbstractHibernateDao implements	ClientDa
 
 	@Override
 	public Client findClientByCNP(String cnp) {		
-		Criteria criteria = getSession().createCriteria(Client.class);
-        criteria.add(Restrictions.eq("cnp",cnp));
-        Client matchingClient = (Client) criteria.uniqueResult();
-        return matchingClient;        
+		/* The CNP is the primary key - a lookup by ID is served from the second-level cache when the client is there */
+		return getSession().get(Client.class, cnp);
 	}
 
 	@Override
 	public Client findClientByIP(String ipAddress) {
-		Criteria criteria = getSession().createCriteria(IPAddress.class);
-		criteria.add(Restrictions.eq("value", ipAddress));		
-		IPAddress matchingAddress = (IPAddress) criteria.uniqueResult();
+		/* Resolve the address through its natural id and the owner through its ID - both are served from the second-level cache when present */
+		IPAddress matchingAddress = getSession().bySimpleNaturalId(IPAddress.class).load(ipAddress);
+		if (matchingAddress == null){
+			return null;
+		}
 		Client ownerClient = matchingAddress.getClient();
 		Hibernate.initialize(ownerClient);		
 		return ownerClient;  
@@ -73,17 +87,19 @@ public class ClientHibernateDao extends AbstractHibernateDao implements	ClientDa
 
 	@Override
 	public void removeClient(String cnp) {
-		Query clientRemovalQuery = getSession().createSQLQuery("delete from Client where cnp=:cnp");
+		/* Declare which entities the native delete touches - otherwise Hibernate has to invalidate every cache region after it */
+		/* The IP addresses are listed as well, since the DB may remove the addresses of the client together with it */
+		NativeQuery<?> clientRemovalQuery = getSession().createSQLQuery("delete from Client where cnp=:cnp");
+		clientRemovalQuery.addSynchronizedEntityClass(Client.class).addSynchronizedEntityClass(IPAddress.class);
 		clientRemovalQuery.setString("cnp", cnp);
 		clientRemovalQuery.executeUpdate();
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
-	public List<String> getAllClientCNPs() {
-		Query allCNPquery = getSession().createSQLQuery("select cnp from Client");
-		List<String> allRegisteredCNPs = allCNPquery.list();
-		return allRegisteredCNPs;
+	public boolean isCNPregistered(String cnp) {
+		/* Single-row probe on the primary key index - nothing but a constant is read back */
+		String CNP_EXISTENCE_QUERY = "SELECT 1 FROM Client c WHERE c.cnp = :cnp";
+		return getSession().createQuery(CNP_EXISTENCE_QUERY).setParameter("cnp", cnp).setMaxResults(1).uniqueResult() != null;
 	}
 
 }
\ No newline at end of file
@@ -1,11 +1,15 @@
 package com.feritoth.cla.springmvc.dao.hibernate;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.hibernate.Criteria;
 import org.hibernate.Hibernate;
-import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
 
 import com.feritoth.cla.springmvc.dao.IPAddressDao;
@@ -14,14 +18,25 @@ import com.feritoth.cla.springmvc.dbmodel.IPAddress;
 
 @Repository("ipAddressDao")
 public class IPAddressHibernateDao extends AbstractHibernateDao implements IPAddressDao {
+	
+	/* The number of rows fetched from the DB in one go while scrolling through the address owners */
+	private static final int IP_ADDRESS_OWNERS_FETCH_SIZE = 1000;
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public List<IPAddress> getAllIPAddresses() {
-		Criteria criteria = getSession().createCriteria(IPAddress.class);
-		List<IPAddress> allIPs = (List<IPAddress>)criteria.list();
-		allIPs.forEach(ipAddress -> Hibernate.initialize(ipAddress.getClient()));				
-		return allIPs; 
+		/* Fetch the owner clients together with the addresses - one statement regardless of the number of addresses */
+		String ALL_IP_ADDRESSES_QUERY = "SELECT ip FROM IPAddress ip JOIN FETCH ip.client ORDER BY ip.ipAddressID";
+		return (List<IPAddress>) getSession().createQuery(ALL_IP_ADDRESSES_QUERY).list();
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public List<IPAddress> getIPAddressesPage(Integer afterIPAddressID, int pageSize) {
+		/* Keyset pagination on the primary key: the DB seeks directly past the last ID of the previous page */
+		String IP_ADDRESSES_PAGE_QUERY = "SELECT ip FROM IPAddress ip JOIN FETCH ip.client WHERE ip.ipAddressID > :afterIPAddressID ORDER BY ip.ipAddressID";
+		int lastIPAddressID = (afterIPAddressID == null) ? 0 : afterIPAddressID;
+		return (List<IPAddress>) getSession().createQuery(IP_ADDRESSES_PAGE_QUERY).setParameter("afterIPAddressID", lastIPAddressID).setMaxResults(pageSize).list();
 	}
 
 	@SuppressWarnings("unchecked")
@@ -36,15 +51,25 @@ public class IPAddressHibernateDao extends AbstractHibernateDao implements IPAdd
 	
 	@Override
 	public IPAddress findIPAddressDetailsForValue(String ipAddressValue) {
-		Criteria criteria = getSession().createCriteria(IPAddress.class);
-		criteria.add(Restrictions.eq("value", ipAddressValue));
-		IPAddress matchingAddress = (IPAddress) criteria.uniqueResult();
+		/* Natural id lookup: the value is resolved to the ID and then to the entity through the second-level cache, hitting the DB only on a miss */
+		IPAddress matchingAddress = getSession().bySimpleNaturalId(IPAddress.class).load(ipAddressValue);
 		if (matchingAddress != null) {
 			Hibernate.initialize(matchingAddress.getClient());
 		}		
 		return matchingAddress;
 	}
 
+	@SuppressWarnings("unchecked")
+	@Override
+	public List<IPAddress> findIPAddressesForValues(Collection<String> ipAddressValues) {
+		/* Resolve a whole set of IP values in one round trip - an empty IN list is not valid SQL, hence the shortcut */
+		if (ipAddressValues.isEmpty()){
+			return new ArrayList<IPAddress>();
+		}
+		String IP_ADDRESSES_FOR_VALUES_QUERY = "SELECT ip FROM IPAddress ip WHERE ip.value IN (:ipAddressValues)";
+		return (List<IPAddress>) getSession().createQuery(IP_ADDRESSES_FOR_VALUES_QUERY).setParameterList("ipAddressValues", ipAddressValues).list();
+	}
+
 	@Override
 	public void saveNewIPAddress(IPAddress newIPAddress) {
 		persist(newIPAddress);
@@ -52,17 +77,25 @@ public class IPAddressHibernateDao extends AbstractHibernateDao implements IPAdd
 
 	@Override
 	public void removeIPAddressForClient(String ipAddress) {
-		Query addressRemovalQuery = getSession().createSQLQuery("delete from IPAddress where value=:value");
+		/* Declare the entity touched by the native delete - only the IP address regions are then invalidated instead of every cache region */
+		NativeQuery<?> addressRemovalQuery = getSession().createSQLQuery("delete from IPAddress where value=:value");
+		addressRemovalQuery.addSynchronizedEntityClass(IPAddress.class);
 		addressRemovalQuery.setString("value", ipAddress);
 		addressRemovalQuery.executeUpdate();
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
-	public List<String> getAllIPValues() {
-		Query allIPquery = getSession().createSQLQuery("select value from IPAddress");
-		List<String> allRegisteredIPs = allIPquery.list();
-		return allRegisteredIPs;
+	public void scrollAllIPAddressOwners(IPAddressOwnerHandler ipAddressOwnerHandler) {
+		/* Only the two columns are read - the owner CNP is the foreign key itself, hence no join is needed */
+		String IP_ADDRESS_OWNERS_QUERY = "SELECT ip.value, ip.client.cnp FROM IPAddress ip";
+		ScrollableResults ownerCursor = getSession().createQuery(IP_ADDRESS_OWNERS_QUERY).setFetchSize(IP_ADDRESS_OWNERS_FETCH_SIZE).scroll(ScrollMode.FORWARD_ONLY);
+		try {
+			while (ownerCursor.next()){
+				ipAddressOwnerHandler.handleOwner((String) ownerCursor.get(0), (String) ownerCursor.get(1));
+			}
+		} finally {
+			ownerCursor.close();
+		}
 	}
 	
 }
\ No newline at end of file
@@ -1,84 +1,169 @@
 package com.feritoth.cla.springmvc.dao.hibernate;
 
+import java.io.IOException;
 import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
-import org.hibernate.Criteria;
-import org.hibernate.Hibernate;
 import org.hibernate.Query;
-import org.hibernate.criterion.Restrictions;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.springframework.stereotype.Repository;
 
 import com.feritoth.cla.springmvc.dao.LoanDao;
-import com.feritoth.cla.springmvc.dbmodel.Client;
 import com.feritoth.cla.springmvc.dbmodel.IPAddress;
 import com.feritoth.cla.springmvc.dbmodel.Loan;
+import com.feritoth.cla.springmvc.dbmodel.LoanCurrency;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedClient;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedIPAddress;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedLoan;
 
 @Repository("loanDao")
 public class LoanHibernateDao extends AbstractHibernateDao implements LoanDao {
+	
+	/* The number of rows fetched from the DB in one go while scrolling */
+	private static final int STREAMING_FETCH_SIZE = 500;
+	
+	/* The columns of the loan views, with the IP address and the owner client joined in - the queries below only add their filter and the ordering */
+	private static final String LOAN_VIEW_QUERY = "SELECT l.loanID, l.applicationTime, l.paybackDate, l.amount, l.currency, l.isExtended, l.interestRate, " +
+	                                              "ip.ipAddressID, ip.value, c.cnp, c.name, c.emailAddress, c.postalAddress " +
+	                                              "FROM Loan l JOIN l.ipAddress ip JOIN ip.client c";
 
 	@SuppressWarnings("unchecked")
 	@Override
-	public List<Loan> getAllRegisteredLoans() {
-		Criteria criteria = getSession().createCriteria(Loan.class);
-		List<Loan> allLoans = (List<Loan>)criteria.list();
-		allLoans.forEach(loan -> Hibernate.initialize(loan.getIpAddress()));
-		allLoans.forEach(loan -> Hibernate.initialize(loan.getIpAddress().getClient()));
-		return allLoans;
+	public List<SerializedLoan> getAllRegisteredLoans() {
+		/* Scalar rows are neither hydrated into entities nor tracked by the session - one statement regardless of the number of loans */
+		String ALL_LOANS_QUERY = LOAN_VIEW_QUERY + " ORDER BY l.loanID";
+		return new LoanViewAssembler().assembleLoans((List<Object[]>) getSession().createQuery(ALL_LOANS_QUERY).list());
+	}
+	
+	@Override
+	public void scrollAllRegisteredLoans(LoanRowHandler loanRowHandler) throws IOException {
+		/* Read the loans through a forward-only cursor instead of materializing the whole list */
+		/* The rows are scalar, so the session does not grow with the table and never needs to be cleared */
+		String ALL_LOANS_QUERY = LOAN_VIEW_QUERY + " ORDER BY l.loanID";
+		ScrollableResults loanCursor = getSession().createQuery(ALL_LOANS_QUERY).setFetchSize(STREAMING_FETCH_SIZE).scroll(ScrollMode.FORWARD_ONLY);
+		try {
+			LoanViewAssembler loanViewAssembler = new LoanViewAssembler();
+			while (loanCursor.next()){
+				loanRowHandler.handleLoan(loanViewAssembler.assembleLoan(loanCursor.get()));
+			}
+		} finally {
+			loanCursor.close();
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public List<SerializedLoan> getRegisteredLoansPage(Integer afterLoanID, int pageSize) {
+		/* Keyset pagination on the primary key: the DB seeks directly past the last ID of the previous page */
+		String LOANS_PAGE_QUERY = LOAN_VIEW_QUERY + " WHERE l.loanID > :afterLoanID ORDER BY l.loanID";
+		int lastLoanID = (afterLoanID == null) ? 0 : afterLoanID;
+		return new LoanViewAssembler().assembleLoans((List<Object[]>) getSession().createQuery(LOANS_PAGE_QUERY).setParameter("afterLoanID", lastLoanID).setMaxResults(pageSize).list());
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
-	public List<Loan> getAllLoansForClient(Client client) {
-		Criteria criteria = getSession().createCriteria(Loan.class);		
-		List<Loan> allRegisteredLoans = (List<Loan>)criteria.list();
-		allRegisteredLoans.forEach(loan -> Hibernate.initialize(loan.getIpAddress()));
-		allRegisteredLoans.forEach(loan -> Hibernate.initialize(loan.getIpAddress().getClient()));
-		//return allRegisteredLoans;
-		return (List<Loan>) allRegisteredLoans.parallelStream().filter(loan -> loan.getIpAddress().getClient().equals(client)).collect(Collectors.toCollection(ArrayList::new));
+	public List<SerializedLoan> getAllLoansForClient(String clientCNP) {
+		/* Let the DB do the filtering: join loan -> ipaddress -> client on the CNP and read the IP and its owner in the same round trip */
+		String CLIENT_LOANS_QUERY = LOAN_VIEW_QUERY + " WHERE c.cnp = :clientCNP ORDER BY l.loanID";
+		return new LoanViewAssembler().assembleLoans((List<Object[]>) getSession().createQuery(CLIENT_LOANS_QUERY).setParameter("clientCNP", clientCNP).list());
 	}
 	
 	@SuppressWarnings("unchecked")
 	@Override
-	public List<Loan> getAllLoansForIPAddress(IPAddress ipAddress) {
-		Criteria criteria = getSession().createCriteria(Loan.class);
-		criteria.add(Restrictions.eq("ipAddress", ipAddress));
-		List<Loan> allMatchingLoans = criteria.list();
-		allMatchingLoans.forEach(loan -> Hibernate.initialize(loan.getIpAddress()));
-		allMatchingLoans.forEach(loan -> Hibernate.initialize(loan.getIpAddress().getClient()));
-		return allMatchingLoans;
+	public List<SerializedLoan> getAllLoansForIPAddress(Integer ipAddressID) {
+		String IP_ADDRESS_LOANS_QUERY = LOAN_VIEW_QUERY + " WHERE ip.ipAddressID = :ipAddressID ORDER BY l.loanID";
+		return new LoanViewAssembler().assembleLoans((List<Object[]>) getSession().createQuery(IP_ADDRESS_LOANS_QUERY).setParameter("ipAddressID", ipAddressID).list());
 	}
 
 	@Override
 	public Loan getLoanHistoryByID(Integer loanID) {
-		Criteria criteria = getSession().createCriteria(Loan.class);
-		criteria.add(Restrictions.eq("loanID", loanID));
-		Loan selectedLoan = (Loan) criteria.uniqueResult();
-		Hibernate.initialize(selectedLoan.getIpAddress());
-		Hibernate.initialize(selectedLoan.getIpAddress().getClient());
-		return selectedLoan;
+		/* A single primary key lookup fetching the IP address and its owner in the same statement - null for an unknown ID */
+		String LOAN_HISTORY_QUERY = "SELECT l FROM Loan l JOIN FETCH l.ipAddress ip JOIN FETCH ip.client WHERE l.loanID = :loanID";
+		return (Loan) getSession().createQuery(LOAN_HISTORY_QUERY).setParameter("loanID", loanID).uniqueResult();
 	}
 	
+	@SuppressWarnings("unchecked")
 	@Override
-	public int countAllLoansFromDB() {		
-		String LOAN_COUNT_QUERY = "SELECT COUNT(*) FROM Loan";
-		return ((Long) getSession().createQuery(LOAN_COUNT_QUERY).iterate().next()).intValue();
+	public SerializedLoan getLoanViewByID(Integer loanID) {
+		/* The same scalar row as the list views - no entity is created, hence the view holds no link to the session */
+		String LOAN_VIEW_BY_ID_QUERY = LOAN_VIEW_QUERY + " WHERE l.loanID = :loanID";
+		List<SerializedLoan> loanViews = new LoanViewAssembler().assembleLoans((List<Object[]>) getSession().createQuery(LOAN_VIEW_BY_ID_QUERY).setParameter("loanID", loanID).list());
+		return loanViews.isEmpty() ? null : loanViews.get(0);
 	}
 	
 	@Override
 	public int countLoansForIPAddressOnDay(IPAddress ipAddress,	LocalDate applicationDate) {
-		//SELECT COUNT(*) FROM loan_risk_application.loan WHERE ipAddressID = 1 AND  DATE(applicationTime) = '2016-12-12';
-		String LOAN_COUNT_QUERY = "SELECT COUNT(*) FROM Loan l WHERE l.ipAddress.value = :ipAddress AND DATE(l.applicationTime) = :applicationDate";		
-		return ( (Long) getSession().createQuery(LOAN_COUNT_QUERY).setParameter("ipAddress", ipAddress.getValue()).setDate("applicationDate", Date.valueOf(applicationDate)).iterate().next() ).intValue();
+		//SELECT COUNT(*) FROM loan_risk_application.loan WHERE IPAddressID = 1 AND ApplicationTime >= '2016-12-12 00:00:00' AND ApplicationTime < '2016-12-13 00:00:00';
+		/* Equality on the foreign key and a half-open range on the raw column - both served by the (IPAddressID, ApplicationTime) index, without any join */
+		String LOAN_COUNT_QUERY = "SELECT COUNT(l) FROM Loan l WHERE l.ipAddress.ipAddressID = :ipAddressID AND l.applicationTime >= :dayStart AND l.applicationTime < :nextDayStart";		
+		return ( (Long) getSession().createQuery(LOAN_COUNT_QUERY)
+				                    .setParameter("ipAddressID", ipAddress.getIpAddressID())
+				                    .setTimestamp("dayStart", Timestamp.valueOf(applicationDate.atStartOfDay()))
+				                    .setTimestamp("nextDayStart", Timestamp.valueOf(applicationDate.plusDays(1).atStartOfDay()))
+				                    .uniqueResult() ).intValue();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Map<Integer, Integer> countLoansPerIPAddressOnDay(LocalDate applicationDate) {
+		/* One grouped count over the half-open range of the day for all the addresses which have loans on it */
+		String DAILY_LOAN_COUNTS_QUERY = "SELECT l.ipAddress.ipAddressID, COUNT(l) FROM Loan l " +
+		                                 "WHERE l.applicationTime >= :dayStart AND l.applicationTime < :nextDayStart GROUP BY l.ipAddress.ipAddressID";
+		List<Object[]> countRows = (List<Object[]>) getSession().createQuery(DAILY_LOAN_COUNTS_QUERY)
+				                                                .setTimestamp("dayStart", Timestamp.valueOf(applicationDate.atStartOfDay()))
+				                                                .setTimestamp("nextDayStart", Timestamp.valueOf(applicationDate.plusDays(1).atStartOfDay()))
+				                                                .list();
+		Map<Integer, Integer> dailyLoanCounts = new HashMap<>();
+		for (Object[] countRow : countRows){
+			dailyLoanCounts.put((Integer) countRow[0], ((Long) countRow[1]).intValue());
+		}
+		return dailyLoanCounts;
 	}
 
 	@Override
 	public void saveNewLoan(Loan loan) {
 		persist(loan);
 	}
+	
+	@Override
+	public void saveNewLoans(List<Loan> loans) {
+		/* The loan IDs come from an IDENTITY column, for which Hibernate never batches inserts - the loans are therefore sent as one JDBC batch */
+		/* (collapsed by the MySQL driver into multi-row inserts thanks to rewriteBatchedStatements) and the generated IDs are handed back to them */
+		String LOAN_INSERT_STATEMENT = "insert into loan (IPAddressID, ApplicationTime, LoanReturnDate, Amount, Currency, IsExtended, InterestRate) values (?, ?, ?, ?, ?, ?, ?)";
+		getSession().doWork(connection -> {
+			try (PreparedStatement insertStatement = connection.prepareStatement(LOAN_INSERT_STATEMENT, Statement.RETURN_GENERATED_KEYS)) {
+				for (Loan loan : loans){
+					insertStatement.setInt(1, loan.getIpAddress().getIpAddressID());
+					insertStatement.setTimestamp(2, Timestamp.valueOf(loan.getApplicationTime()));
+					insertStatement.setDate(3, Date.valueOf(loan.getPaybackDate()));
+					insertStatement.setLong(4, loan.getAmount());
+					insertStatement.setString(5, loan.getCurrency().name());
+					/* Same representation as the yes_no Hibernate type used by the entity */
+					insertStatement.setString(6, Boolean.TRUE.equals(loan.isExtended()) ? "Y" : "N");
+					insertStatement.setLong(7, loan.getInterestRate());
+					insertStatement.addBatch();
+				}
+				insertStatement.executeBatch();
+				try (ResultSet generatedKeys = insertStatement.getGeneratedKeys()) {
+					for (Loan loan : loans){
+						if (generatedKeys.next()){
+							loan.setLoanID(generatedKeys.getInt(1));
+						}
+					}
+				}
+			}
+		});
+	}
 
 	@Override
 	public void updateLoan(Loan loan) {
@@ -90,6 +175,40 @@ public class LoanHibernateDao extends AbstractHibernateDao implements LoanDao {
 		Query loanRemovalQuery = getSession().createSQLQuery("delete from Loan where loanID=:loanID");
 		loanRemovalQuery.setInteger("loanID", loanID);
 		loanRemovalQuery.executeUpdate();
-	}	
+	}
+	
+	/**
+	 * Builds the loan views from the rows of LOAN_VIEW_QUERY. The IP address and client views are created once per
+	 * address within one read and shared by all the loans issued from it, instead of being copied for every loan.
+	 */
+	private static final class LoanViewAssembler {
+		
+		private final Map<Integer, SerializedIPAddress> ipAddressViews = new HashMap<>();
+		
+		private List<SerializedLoan> assembleLoans(List<Object[]> loanRows){
+			List<SerializedLoan> loanViews = new ArrayList<>(loanRows.size());
+			for (Object[] loanRow : loanRows){
+				loanViews.add(assembleLoan(loanRow));
+			}
+			return loanViews;
+		}
+		
+		private SerializedLoan assembleLoan(Object[] loanRow){
+			LocalDateTime applicationTime = ((Timestamp) loanRow[1]).toLocalDateTime();
+			LocalDate returnDate = ((Date) loanRow[2]).toLocalDate();
+			Boolean isExtended = (Boolean) loanRow[5];
+			SerializedLoan loanView = new SerializedLoan(applicationTime, returnDate, (Long) loanRow[3], 
+					                                     com.feritoth.cla.springmvc.jsonmodel.LoanCurrency.valueOf(((LoanCurrency) loanRow[4]).name()), 
+					                                     isExtended, (Long) loanRow[6], (Integer) loanRow[0]);
+			loanView.setExtensionCount(SerializedLoan.computeExtensionCount(applicationTime, returnDate, isExtended));
+			loanView.setIpAddress(ipAddressViews.computeIfAbsent((Integer) loanRow[7], ipAddressID -> {
+				SerializedIPAddress ipAddressView = new SerializedIPAddress((String) loanRow[8], ipAddressID);
+				ipAddressView.setOwnerClient(new SerializedClient((String) loanRow[9], (String) loanRow[10], (String) loanRow[11], (String) loanRow[12]));
+				return ipAddressView;
+			}));
+			return loanView;
+		}
+		
+	}
 
 }
\ No newline at end of file
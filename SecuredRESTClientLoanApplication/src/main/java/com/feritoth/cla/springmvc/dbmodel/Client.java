@@ -12,8 +12,12 @@ import javax.persistence.Id;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @Entity
 @Table(name = "client")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Client implements Serializable {	
 	
 	private static final long serialVersionUID = -1915534729104872881L;
@@ -15,8 +15,15 @@ import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 @Entity
 @Table(name = "ipaddress")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class IPAddress implements Serializable {
 	
 	private static final long serialVersionUID = 959858043549303139L;
@@ -25,6 +32,7 @@ public class IPAddress implements Serializable {
 	@GeneratedValue (strategy = GenerationType.IDENTITY)
 	@Column (name = "IPAddressID")
 	private Integer ipAddressID;
+	@NaturalId
 	@Column (name = "Value")
 	private String value;
 	@ManyToOne (fetch = FetchType.LAZY)
@@ -6,9 +6,12 @@ import java.util.Collections;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.feritoth.cla.springmvc.controller.utility.SerializedClientSerializer;
 import com.feritoth.cla.springmvc.dbmodel.Client;
 
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonSerialize(using = SerializedClientSerializer.class)
 public class SerializedClient implements Serializable{
 	
 	private static final long serialVersionUID = -1915534729104872881L;
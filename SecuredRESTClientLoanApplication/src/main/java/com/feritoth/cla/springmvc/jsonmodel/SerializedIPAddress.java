@@ -6,9 +6,12 @@ import java.util.Collections;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.feritoth.cla.springmvc.controller.utility.SerializedIPAddressSerializer;
 import com.feritoth.cla.springmvc.dbmodel.IPAddress;
 
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonSerialize(using = SerializedIPAddressSerializer.class)
 public class SerializedIPAddress implements Serializable {
 	
 	private static final long serialVersionUID = 959858043549303139L;
@@ -3,6 +3,7 @@ package com.feritoth.cla.springmvc.jsonmodel;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -10,9 +11,11 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.feritoth.cla.springmvc.controller.utility.LocalDateTimeDeserializer;
 import com.feritoth.cla.springmvc.controller.utility.LocalDateTimeSerializer;
+import com.feritoth.cla.springmvc.controller.utility.SerializedLoanSerializer;
 import com.feritoth.cla.springmvc.dbmodel.Loan;
 
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonSerialize(using = SerializedLoanSerializer.class)
 public class SerializedLoan implements Serializable {
 	
 	private static final long serialVersionUID = -4396287982045867105L;
@@ -57,6 +60,22 @@ public class SerializedLoan implements Serializable {
 		this.interestRate = loan.getInterestRate();
 	}
 
+	/**
+	 * Computes the number of extensions of a loan: every extension moves the return date one week further than the initial one-week period.
+	 * 
+	 * @param applicationTime the moment when the loan was registered
+	 * @param returnDate the current return date of the loan
+	 * @param isExtended the extension flag of the loan
+	 * 
+	 * @return the number of extensions, 0 for a loan which was never extended
+	 */
+	public static Long computeExtensionCount(LocalDateTime applicationTime, LocalDate returnDate, Boolean isExtended) {
+		if (!Boolean.TRUE.equals(isExtended)){
+			return 0L;
+		}
+		return ChronoUnit.WEEKS.between(applicationTime.toLocalDate(), returnDate) - 1;
+	}
+
 	public Integer getLoanID() {
 		return loanID;
 	}
@@ -0,0 +1,78 @@
+package com.feritoth.cla.springmvc.jsonmodel;
+
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class SerializedLoanBatchResult implements Serializable {
+
+	private static final long serialVersionUID = 6180247539611432847L;
+
+	/* The position of the loan in the submitted batch */
+	private Integer itemIndex;
+	/* The status code the single loan registration would have given for this loan */
+	private Integer status;
+	/* For a saved loan: its ID and the link to its history */
+	private Integer loanID;
+	private String location;
+	/* For a rejected loan: the reason of the rejection */
+	private String errorMessage;
+
+	public SerializedLoanBatchResult() {
+		super();
+	}
+
+	public SerializedLoanBatchResult(Integer itemIndex, Integer status) {
+		super();
+		this.itemIndex = itemIndex;
+		this.status = status;
+	}
+
+	public Integer getItemIndex() {
+		return itemIndex;
+	}
+
+	public void setItemIndex(Integer itemIndex) {
+		this.itemIndex = itemIndex;
+	}
+
+	public Integer getStatus() {
+		return status;
+	}
+
+	public void setStatus(Integer status) {
+		this.status = status;
+	}
+
+	public Integer getLoanID() {
+		return loanID;
+	}
+
+	public void setLoanID(Integer loanID) {
+		this.loanID = loanID;
+	}
+
+	public String getLocation() {
+		return location;
+	}
+
+	public void setLocation(String location) {
+		this.location = location;
+	}
+
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+
+	public void setErrorMessage(String errorMessage) {
+		this.errorMessage = errorMessage;
+	}
+
+	@Override
+	public String toString() {
+		return "SerializedLoanBatchResult [itemIndex=" + itemIndex + ", status=" + status + ", loanID=" + loanID
+				+ ", location=" + location + ", errorMessage=" + errorMessage + "]";
+	}
+
+}
@@ -0,0 +1,27 @@
+package com.feritoth.cla.springmvc.logging;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import org.apache.log4j.LogManager;
+
+/**
+ * This listener shuts log4j down when the web application stops: the closing of RingBufferAsyncAppender writes out
+ * the buffered events and stops its dispatcher thread, which would otherwise lose them at the exit of the JVM and keep
+ * the class loader of the application alive after an undeployment. Being an annotated listener, it is registered by
+ * the container itself - LoanAppInitializer receives the Spring variant of the servlet context, which cannot take it.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+@WebListener
+public class Log4jShutdownListener implements ServletContextListener {
+
+	public void contextInitialized(ServletContextEvent servletContextEvent) {}
+
+	public void contextDestroyed(ServletContextEvent servletContextEvent) {
+		LogManager.shutdown();
+	}
+
+}
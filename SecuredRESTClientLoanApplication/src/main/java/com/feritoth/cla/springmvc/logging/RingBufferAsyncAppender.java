@@ -0,0 +1,262 @@
+package com.feritoth.cla.springmvc.logging;
+
+import java.util.Locale;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.log4j.helpers.LogLog;
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * This appender takes the logging events off the request threads: an event is only put into a bounded ring buffer,
+ * from which a single dispatcher thread writes it through the appenders of the delegate logger (DelegateLogger). The
+ * delegate logger is a plain logger holding the real appenders - the properties configuration of log4j cannot attach
+ * appenders to an appender - and should be set to OFF and non-additive, so that nothing else logs through it.
+ *
+ * The content of an event which depends on the logging thread (its message, thread name, NDC and MDC) is rendered
+ * before the event is buffered. The caller location (%L, %M...) is only kept with LocationInfo=true, as it costs a
+ * stack trace for every event.
+ *
+ * When the buffer is full, the OverflowPolicy decides the fate of the new events:
+ *  - DROP discards them;
+ *  - BLOCK makes the logging threads wait for room in the buffer;
+ *  - SAMPLE keeps one event out of SampleRate - in place of the oldest buffered event below ERROR - and discards
+ *    the other ones.
+ * The events of level ERROR and above are kept in place of the oldest buffered event below ERROR as well, and only
+ * discarded when the buffer holds nothing else. The number of the discarded events is logged as a warning once the
+ * buffer drains.
+ *
+ * Only BLOCK ever waits. log4j calls the appenders holding the monitor of the appender (AppenderSkeleton.doAppend is
+ * synchronized) and of the logger, hence a waiting thread stalls all the other logging threads as well - BLOCK trades
+ * the latency of every request for never losing an event.
+ *
+ * The dispatcher is stopped by the closing of the appender, i.e. by LogManager.shutdown(), which Log4jShutdownListener
+ * calls when the web application stops.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public class RingBufferAsyncAppender extends AppenderSkeleton {
+
+	public enum OverflowPolicy { DROP, BLOCK, SAMPLE }
+
+	/* The time given to the dispatcher for writing out the buffered events at the closing */
+	private static final long CLOSE_TIMEOUT_MILLIS = 5000L;
+
+	/* The options set by the configuration */
+	private int bufferSize = 8192;
+	private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+	private int sampleRate = 10;
+	private String delegateLogger = "asyncAppenders";
+	private boolean locationInfo;
+
+	/* The ring buffer - the events are taken from head, put at (head + count) and the capacity is a power of two */
+	private LoggingEvent[] ring;
+	private int mask;
+	private int head;
+	private int count;
+	private long discardedEvents;
+	private long overflowedEvents;
+	private final ReentrantLock ringLock = new ReentrantLock();
+	private final Condition notEmpty = ringLock.newCondition();
+	private final Condition notFull = ringLock.newCondition();
+
+	private Thread dispatcher;
+
+	public void setBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	public void setOverflowPolicy(String overflowPolicy) {
+		try {
+			this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			LogLog.warn("Unknown overflow policy " + overflowPolicy + " for appender " + name + ", " + this.overflowPolicy + " is used instead");
+		}
+	}
+
+	public String getOverflowPolicy() {
+		return overflowPolicy.name();
+	}
+
+	public void setSampleRate(int sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+	public void setDelegateLogger(String delegateLogger) {
+		this.delegateLogger = delegateLogger;
+	}
+
+	public String getDelegateLogger() {
+		return delegateLogger;
+	}
+
+	public void setLocationInfo(boolean locationInfo) {
+		this.locationInfo = locationInfo;
+	}
+
+	public boolean getLocationInfo() {
+		return locationInfo;
+	}
+
+	@Override
+	public void activateOptions() {
+		int capacity = Integer.highestOneBit(Math.max(bufferSize, 2) - 1) << 1;
+		ring = new LoggingEvent[capacity];
+		mask = capacity - 1;
+		sampleRate = Math.max(sampleRate, 1);
+		dispatcher = new Thread(this::dispatchEvents, "log4j-" + name + "-dispatcher");
+		dispatcher.setDaemon(true);
+		dispatcher.start();
+	}
+
+	@Override
+	protected void append(LoggingEvent event) {
+		/* Everything the dispatcher could not compute on its own thread */
+		event.getRenderedMessage();
+		event.getThreadName();
+		event.getNDC();
+		event.getMDCCopy();
+		event.getThrowableStrRep();
+		if (locationInfo){
+			event.getLocationInformation();
+		}
+		ringLock.lock();
+		try {
+			if (count == ring.length && !makeRoom(event)){
+				discardedEvents++;
+				return;
+			}
+			ring[(head + count) & mask] = event;
+			count++;
+			notEmpty.signal();
+		} finally {
+			ringLock.unlock();
+		}
+	}
+
+	/* Decides whether the event gets room in the full buffer, and makes it - false if the event is to be discarded */
+	private boolean makeRoom(LoggingEvent event){
+		overflowedEvents++;
+		if (overflowPolicy == OverflowPolicy.BLOCK){
+			return awaitRoom();
+		}
+		boolean kept = event.getLevel().isGreaterOrEqual(Level.ERROR) || (overflowPolicy == OverflowPolicy.SAMPLE && overflowedEvents % sampleRate == 0);
+		return kept && evictOldestBelowError();
+	}
+
+	/* Removes the oldest buffered event below ERROR, moving the older ERROR ones up by one slot - false if there is none */
+	private boolean evictOldestBelowError(){
+		for (int i = 0; i < count; i++){
+			if (!ring[(head + i) & mask].getLevel().isGreaterOrEqual(Level.ERROR)){
+				for (int j = i; j > 0; j--){
+					ring[(head + j) & mask] = ring[(head + j - 1) & mask];
+				}
+				ring[head] = null;
+				head = (head + 1) & mask;
+				count--;
+				discardedEvents++;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/* Waits for room in the full buffer - false if the appender gets closed meanwhile */
+	private boolean awaitRoom(){
+		try {
+			while (count == ring.length && !closed){
+				notFull.await();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		return !closed;
+	}
+
+	private void dispatchEvents(){
+		/* Both loggers are resolved upfront - the closing holds the lock of the logger repository while it waits for the dispatcher */
+		Logger delegates = LogManager.getLogger(delegateLogger);
+		Logger appenderLogger = Logger.getLogger(RingBufferAsyncAppender.class);
+		LoggingEvent[] batch = new LoggingEvent[ring.length];
+		while (true){
+			int batchSize;
+			long discardedCount;
+			ringLock.lock();
+			try {
+				while (count == 0 && !closed){
+					notEmpty.awaitUninterruptibly();
+				}
+				if (count == 0){
+					return;
+				}
+				/* The whole content of the buffer is taken at once, so that the logging threads never wait for the writing */
+				batchSize = count;
+				for (int i = 0; i < batchSize; i++){
+					batch[i] = ring[(head + i) & mask];
+					ring[(head + i) & mask] = null;
+				}
+				head = (head + batchSize) & mask;
+				count = 0;
+				discardedCount = discardedEvents;
+				discardedEvents = 0;
+				notFull.signalAll();
+			} finally {
+				ringLock.unlock();
+			}
+			if (discardedCount > 0){
+				delegates.callAppenders(new LoggingEvent(Logger.class.getName(), appenderLogger, Level.WARN,
+						                                 discardedCount + " logging events were discarded by the full buffer of appender " + name, null));
+			}
+			for (int i = 0; i < batchSize; i++){
+				try {
+					delegates.callAppenders(batch[i]);
+				} catch (RuntimeException e) {
+					LogLog.error("Failed to dispatch a logging event of appender " + name, e);
+				}
+				batch[i] = null;
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		ringLock.lock();
+		try {
+			if (closed){
+				return;
+			}
+			closed = true;
+			notEmpty.signalAll();
+			notFull.signalAll();
+		} finally {
+			ringLock.unlock();
+		}
+		if (dispatcher != null){
+			try {
+				dispatcher.join(CLOSE_TIMEOUT_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public boolean requiresLayout() {
+		return false;
+	}
+
+}
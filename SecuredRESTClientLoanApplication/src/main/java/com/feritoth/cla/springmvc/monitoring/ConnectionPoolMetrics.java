@@ -0,0 +1,86 @@
+package com.feritoth.cla.springmvc.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * This class collects the runtime metrics of the JDBC connection pool: it is handed over to the pool as
+ * metrics tracker factory, so the pool reports to it every connection acquisition, usage and timeout, while
+ * the gauges (active, idle, waiting threads) are read from the pool statistics on demand.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+	/* The histograms of the time spent waiting for a connection, of the time a connection was held and of the physical connection creation */
+	private final LatencyHistogram acquireTimeHistogram = new LatencyHistogram();
+	private final LatencyHistogram usageTimeHistogram = new LatencyHistogram();
+	private final LatencyHistogram creationTimeHistogram = new LatencyHistogram();
+	/* The number of acquisitions given up after the connection timeout */
+	private final AtomicLong connectionTimeouts = new AtomicLong();
+
+	/* The name and the statistics of the pool, set once the pool is started */
+	private volatile String poolName;
+	private volatile PoolStats poolStats;
+
+	@Override
+	public IMetricsTracker create(String poolName, PoolStats poolStats) {
+		this.poolName = poolName;
+		this.poolStats = poolStats;
+		return new IMetricsTracker() {
+
+			@Override
+			public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+				acquireTimeHistogram.recordNanos(elapsedAcquiredNanos);
+			}
+
+			@Override
+			public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+				usageTimeHistogram.recordMillis(elapsedBorrowedMillis);
+			}
+
+			@Override
+			public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+				creationTimeHistogram.recordMillis(connectionCreatedMillis);
+			}
+
+			@Override
+			public void recordConnectionTimeout() {
+				connectionTimeouts.incrementAndGet();
+			}
+
+		};
+	}
+
+	/**
+	 * Builds a point-in-time view of the pool: the gauges followed by the timing histograms.
+	 *
+	 * @return an insertion-ordered map suitable for the JSON output
+	 */
+	public Map<String, Object> snapshot(){
+		Map<String, Object> poolView = new LinkedHashMap<>();
+		PoolStats currentStats = poolStats;
+		poolView.put("poolName", poolName);
+		/* The pool is started lazily together with the session factory - until then only the histograms exist */
+		if (currentStats != null){
+			poolView.put("activeConnections", currentStats.getActiveConnections());
+			poolView.put("idleConnections", currentStats.getIdleConnections());
+			poolView.put("totalConnections", currentStats.getTotalConnections());
+			poolView.put("waitingThreads", currentStats.getPendingThreads());
+			poolView.put("minConnections", currentStats.getMinConnections());
+			poolView.put("maxConnections", currentStats.getMaxConnections());
+		}
+		poolView.put("connectionTimeouts", connectionTimeouts.get());
+		poolView.put("acquireTime", acquireTimeHistogram.snapshot());
+		poolView.put("usageTime", usageTimeHistogram.snapshot());
+		poolView.put("creationTime", creationTimeHistogram.snapshot());
+		return poolView;
+	}
+
+}
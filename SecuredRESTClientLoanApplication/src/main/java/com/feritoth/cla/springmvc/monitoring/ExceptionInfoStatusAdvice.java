@@ -0,0 +1,42 @@
+package com.feritoth.cla.springmvc.monitoring;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import com.feritoth.cla.springmvc.controller.exception.ExceptionInfo;
+
+/**
+ * The controllers return their errors as ExceptionInfo under the status OK, so that the desktop client does not get
+ * an exception for them - this advice hands the status code carried by the ExceptionInfo to RequestMetricsFilter,
+ * so that the error is counted under its real status.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+@ControllerAdvice
+public class ExceptionInfoStatusAdvice implements ResponseBodyAdvice<Object> {
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		/* The declared return types are mostly ResponseEntity<?> - the body itself is checked below */
+		return true;
+	}
+
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType, Class<? extends HttpMessageConverter<?>> selectedConverterType,
+			                      ServerHttpRequest request, ServerHttpResponse response) {
+		RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+		if (body instanceof ExceptionInfo && requestAttributes != null){
+			requestAttributes.setAttribute(RequestMetricsFilter.EXCEPTION_INFO_STATUS_ATTRIBUTE, ((ExceptionInfo) body).getErrorCode(), RequestAttributes.SCOPE_REQUEST);
+		}
+		return body;
+	}
+
+}
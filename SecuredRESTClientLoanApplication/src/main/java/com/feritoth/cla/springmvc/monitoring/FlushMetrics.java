@@ -0,0 +1,85 @@
+package com.feritoth.cla.springmvc.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * This class collects the time spent by Hibernate in flushing the sessions - i.e. in dirty-checking every entity
+ * loaded by the session and writing out the changed ones. The full flushes are the ones run at transaction commit,
+ * the partial (auto) flushes are the ones run before the queries of a read-write session.
+ *
+ * The sessions report to it through {@link Listener}, which Hibernate instantiates on its own for every session
+ * (hibernate.session.events.auto), hence the single shared instance.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public class FlushMetrics {
+
+	private static final FlushMetrics SHARED_INSTANCE = new FlushMetrics();
+
+	private final LatencyHistogram flushTimeHistogram = new LatencyHistogram();
+	private final LatencyHistogram partialFlushTimeHistogram = new LatencyHistogram();
+	/* The number of entities and collections visited by the full flushes */
+	private final AtomicLong flushedEntities = new AtomicLong();
+	private final AtomicLong flushedCollections = new AtomicLong();
+
+	private FlushMetrics() {
+	}
+
+	public static FlushMetrics getInstance(){
+		return SHARED_INSTANCE;
+	}
+
+	/**
+	 * Builds a point-in-time view of the flush counters and timing histograms.
+	 *
+	 * @return an insertion-ordered map suitable for the JSON output
+	 */
+	public Map<String, Object> snapshot(){
+		Map<String, Object> flushView = new LinkedHashMap<>();
+		flushView.put("flushedEntities", flushedEntities.get());
+		flushView.put("flushedCollections", flushedCollections.get());
+		flushView.put("flushTime", flushTimeHistogram.snapshot());
+		flushView.put("partialFlushTime", partialFlushTimeHistogram.snapshot());
+		return flushView;
+	}
+
+	/**
+	 * The per-session listener timing the flushes - a session is used by a single thread, so plain fields are enough.
+	 */
+	public static class Listener extends BaseSessionEventListener {
+
+		private static final long serialVersionUID = 2871460185234097719L;
+
+		private long flushStartNanos;
+		private long partialFlushStartNanos;
+
+		@Override
+		public void flushStart() {
+			flushStartNanos = System.nanoTime();
+		}
+
+		@Override
+		public void flushEnd(int numberOfEntities, int numberOfCollections) {
+			SHARED_INSTANCE.flushTimeHistogram.recordNanos(System.nanoTime() - flushStartNanos);
+			SHARED_INSTANCE.flushedEntities.addAndGet(numberOfEntities);
+			SHARED_INSTANCE.flushedCollections.addAndGet(numberOfCollections);
+		}
+
+		@Override
+		public void partialFlushStart() {
+			partialFlushStartNanos = System.nanoTime();
+		}
+
+		@Override
+		public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+			SHARED_INSTANCE.partialFlushTimeHistogram.recordNanos(System.nanoTime() - partialFlushStartNanos);
+		}
+
+	}
+
+}
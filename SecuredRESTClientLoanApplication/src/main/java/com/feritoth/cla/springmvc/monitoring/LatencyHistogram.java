@@ -0,0 +1,139 @@
+package com.feritoth.cla.springmvc.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class serves as a lock-free latency histogram which can be updated concurrently from any number
+ * of threads without blocking them. The recorded durations are counted in buckets whose upper bounds are
+ * the powers of two of microseconds (1 us, 2 us, 4 us ... ~35 minutes), hence the percentiles reported
+ * are upper bound estimates with a precision of a factor of two at most.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public class LatencyHistogram {
+
+	/* The number of buckets - the last one collects every duration above the upper bound of the one before it */
+	private static final int BUCKET_COUNT = 32;
+
+	/* The percentiles reported in the snapshot of the histogram */
+	private static final double[] REPORTED_PERCENTILES = {50.0, 90.0, 95.0, 99.0, 99.9};
+
+	private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+	private final AtomicLong totalCount = new AtomicLong();
+	private final AtomicLong totalMicros = new AtomicLong();
+	private final AtomicLong maximumMicros = new AtomicLong();
+
+	/**
+	 * Records a measured duration into the histogram.
+	 *
+	 * @param durationNanos the measured duration in nanoseconds
+	 */
+	public void recordNanos(long durationNanos){
+		long durationMicros = Math.max(0L, durationNanos / 1000L);
+		bucketCounts.incrementAndGet(bucketIndexOf(durationMicros));
+		totalCount.incrementAndGet();
+		totalMicros.addAndGet(durationMicros);
+		/* Raise the maximum only if the current value is larger - retried when another thread won the race in between */
+		long currentMaximum = maximumMicros.get();
+		while (durationMicros > currentMaximum && !maximumMicros.compareAndSet(currentMaximum, durationMicros)){
+			currentMaximum = maximumMicros.get();
+		}
+	}
+
+	/**
+	 * Records a measured duration given in milliseconds into the histogram.
+	 *
+	 * @param durationMillis the measured duration in milliseconds
+	 */
+	public void recordMillis(long durationMillis){
+		recordNanos(durationMillis * 1_000_000L);
+	}
+
+	/**
+	 * Returns the current number of recorded durations.
+	 */
+	public long getCount(){
+		return totalCount.get();
+	}
+
+	/**
+	 * Returns the sum of the recorded durations in microseconds.
+	 */
+	public long getTotalMicros(){
+		return totalMicros.get();
+	}
+
+	/**
+	 * Copies the current counts of the buckets - the bucket i counts the durations below 2^(i+1) microseconds
+	 * which are not counted by the buckets before it, the last one counts all the remaining ones.
+	 *
+	 * @return the bucket counts, one element per bucket
+	 */
+	public long[] getBucketCounts(){
+		long[] counts = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++){
+			counts[i] = bucketCounts.get(i);
+		}
+		return counts;
+	}
+
+	/**
+	 * Builds a point-in-time view of the histogram: count, mean, maximum and the percentile estimates, all
+	 * of them expressed in microseconds. As the fields are read one by one without locking, the values may be
+	 * very slightly out of sync with each other under concurrent updates.
+	 *
+	 * @return an insertion-ordered map suitable for the JSON output
+	 */
+	public Map<String, Object> snapshot(){
+		long[] counts = new long[BUCKET_COUNT];
+		long snapshotCount = 0L;
+		for (int i = 0; i < BUCKET_COUNT; i++){
+			counts[i] = bucketCounts.get(i);
+			snapshotCount += counts[i];
+		}
+		Map<String, Object> histogramView = new LinkedHashMap<>();
+		histogramView.put("count", snapshotCount);
+		histogramView.put("meanMicros", snapshotCount == 0L ? 0L : totalMicros.get() / snapshotCount);
+		histogramView.put("maxMicros", maximumMicros.get());
+		for (double percentile : REPORTED_PERCENTILES){
+			histogramView.put("p" + formatPercentile(percentile) + "Micros", percentileUpperBound(counts, snapshotCount, percentile));
+		}
+		return histogramView;
+	}
+
+	/* The bucket of a duration is given by the position of its highest set bit: 0-1 us -> 0, 2-3 us -> 1, 4-7 us -> 2 and so on */
+	private static int bucketIndexOf(long durationMicros){
+		int bucketIndex = 63 - Long.numberOfLeadingZeros(Math.max(1L, durationMicros));
+		return Math.min(bucketIndex, BUCKET_COUNT - 1);
+	}
+
+	/* Walk the buckets until the requested rank is reached and report the upper bound of the bucket where it lies */
+	private long percentileUpperBound(long[] counts, long snapshotCount, double percentile){
+		if (snapshotCount == 0L){
+			return 0L;
+		}
+		long requestedRank = (long) Math.ceil(snapshotCount * percentile / 100.0);
+		long cumulatedCount = 0L;
+		for (int i = 0; i < BUCKET_COUNT - 1; i++){
+			cumulatedCount += counts[i];
+			if (cumulatedCount >= requestedRank){
+				return (1L << (i + 1)) - 1;
+			}
+		}
+		/* The rank lies in the overflow bucket - the maximum is the only meaningful bound there */
+		return maximumMicros.get();
+	}
+
+	/* 50.0 -> "50", 99.9 -> "99_9" - so that the keys remain valid JSON identifiers in most client languages */
+	private static String formatPercentile(double percentile){
+		if (percentile == Math.rint(percentile)){
+			return String.valueOf((long) percentile);
+		}
+		return String.valueOf(percentile).replace('.', '_');
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.feritoth.cla.springmvc.monitoring;
+
+import java.lang.reflect.Method;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * This post-processor times the calls of the service and DAO beans - every method declared by an interface of the
+ * service or DAO package - and records them into RequestMetrics. The timing advice is added to the proxy which the
+ * bean already has (e.g. the transactional one of the services), in front of its other advice, so that the time of a
+ * service call includes the begin and the commit of its transaction. A bean without a proxy gets a new interface one.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+@Component
+public class LayerTimingPostProcessor extends AbstractAdvisingBeanPostProcessor implements InitializingBean {
+
+	private static final long serialVersionUID = -4716823506581407212L;
+
+	/* The packages of the timed interfaces and the layer names they are recorded under */
+	private static final String SERVICE_PACKAGE = "com.feritoth.cla.springmvc.service";
+	private static final String DAO_PACKAGE = "com.feritoth.cla.springmvc.dao";
+
+	@Autowired
+	private transient RequestMetrics requestMetrics;
+
+	public LayerTimingPostProcessor() {
+		setBeforeExistingAdvisors(true);
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		MethodInterceptor timingInterceptor = invocation -> {
+			long startNanos = System.nanoTime();
+			boolean failed = true;
+			try {
+				Object result = invocation.proceed();
+				failed = false;
+				return result;
+			} finally {
+				Method method = invocation.getMethod();
+				requestMetrics.recordMethodCall(layerOf(method.getDeclaringClass()), method, System.nanoTime() - startNanos, failed);
+			}
+		};
+		this.advisor = new DefaultPointcutAdvisor(new LayerInterfacePointcut(), timingInterceptor);
+	}
+
+	/* The layer of a timed interface - null for any other type */
+	private static String layerOf(Class<?> declaringClass){
+		if (!declaringClass.isInterface()){
+			return null;
+		}
+		String packageName = ClassUtils.getPackageName(declaringClass);
+		if (SERVICE_PACKAGE.equals(packageName)){
+			return "service";
+		}
+		return DAO_PACKAGE.equals(packageName) ? "dao" : null;
+	}
+
+	/* Matches the methods of the beans which implement a method of a service or DAO interface */
+	private static final class LayerInterfacePointcut extends StaticMethodMatcherPointcut {
+
+		@Override
+		public boolean matches(Method method, Class<?> targetClass) {
+			return layerOf(ClassUtils.getInterfaceMethodIfPossible(method, targetClass).getDeclaringClass()) != null;
+		}
+
+	}
+
+}
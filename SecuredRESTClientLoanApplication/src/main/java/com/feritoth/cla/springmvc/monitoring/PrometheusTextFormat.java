@@ -0,0 +1,103 @@
+package com.feritoth.cla.springmvc.monitoring;
+
+/**
+ * This class writes metrics in the Prometheus text exposition format (version 0.0.4), which is understood by
+ * Prometheus and by most of the other scrapers. The durations of the latency histograms are converted to seconds,
+ * the base unit of the format, and their power-of-two buckets become the cumulative "le" buckets of the histograms.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public final class PrometheusTextFormat {
+
+	/* The content type of the scrape responses */
+	public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	/* The buckets exposed for every histogram: from 64 us (index 5) to about 33.5 s (index 24) - the other ones are folded into their neighbours */
+	private static final int FIRST_EXPOSED_BUCKET = 5;
+	private static final int LAST_EXPOSED_BUCKET = 24;
+
+	private PrometheusTextFormat() {
+	}
+
+	/**
+	 * Writes the HELP and TYPE lines which must precede the samples of a metric.
+	 *
+	 * @param output the scrape output
+	 * @param metricName the name of the metric
+	 * @param help the description of the metric
+	 * @param type the type of the metric - counter, gauge, histogram...
+	 */
+	public static void writeHeader(StringBuilder output, String metricName, String help, String type){
+		output.append("# HELP ").append(metricName).append(' ').append(help).append('\n');
+		output.append("# TYPE ").append(metricName).append(' ').append(type).append('\n');
+	}
+
+	/**
+	 * Writes one sample of a metric.
+	 *
+	 * @param output the scrape output
+	 * @param metricName the name of the metric
+	 * @param labels the labels of the sample, already formatted by {@link #formatLabels(String...)}
+	 * @param value the value of the sample
+	 */
+	public static void writeSample(StringBuilder output, String metricName, String labels, long value){
+		output.append(metricName).append('{').append(labels).append("} ").append(value).append('\n');
+	}
+
+	/**
+	 * Writes the samples of a latency histogram: its cumulative buckets, the sum of the durations in seconds and their count.
+	 *
+	 * @param output the scrape output
+	 * @param metricName the name of the histogram metric - the suffixes of the samples are appended to it
+	 * @param labels the labels of the histogram, already formatted by {@link #formatLabels(String...)}
+	 * @param histogram the histogram whose current state is written
+	 */
+	public static void writeHistogram(StringBuilder output, String metricName, String labels, LatencyHistogram histogram){
+		long[] bucketCounts = histogram.getBucketCounts();
+		long cumulatedCount = 0L;
+		for (int i = 0; i < bucketCounts.length; i++){
+			cumulatedCount += bucketCounts[i];
+			if (i >= FIRST_EXPOSED_BUCKET && i <= LAST_EXPOSED_BUCKET){
+				/* The bucket i holds the durations truncated to whole microseconds below 2^(i+1) us */
+				output.append(metricName).append("_bucket{").append(labels).append(",le=\"").append((1L << (i + 1)) / 1e6).append("\"} ").append(cumulatedCount).append('\n');
+			}
+		}
+		/* The total of the buckets rather than the separately kept count, so that the +Inf bucket always equals the count */
+		output.append(metricName).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(cumulatedCount).append('\n');
+		output.append(metricName).append("_sum{").append(labels).append("} ").append(histogram.getTotalMicros() / 1e6).append('\n');
+		output.append(metricName).append("_count{").append(labels).append("} ").append(cumulatedCount).append('\n');
+	}
+
+	/**
+	 * Formats the labels of a series once, so that they can be reused by every scrape.
+	 *
+	 * @param namesAndValues the label names, each one followed by its value
+	 *
+	 * @return the labels as written between the braces of a sample, e.g. method="GET",uri="/loan/"
+	 */
+	public static String formatLabels(String... namesAndValues){
+		StringBuilder labels = new StringBuilder();
+		for (int i = 0; i < namesAndValues.length; i += 2){
+			if (i > 0){
+				labels.append(',');
+			}
+			labels.append(namesAndValues[i]).append("=\"");
+			/* The backslash, the double quote and the line feed are the only characters escaped in the label values */
+			String value = namesAndValues[i + 1];
+			for (int position = 0; position < value.length(); position++){
+				char character = value.charAt(position);
+				if (character == '\\' || character == '"'){
+					labels.append('\\').append(character);
+				} else if (character == '\n'){
+					labels.append("\\n");
+				} else {
+					labels.append(character);
+				}
+			}
+			labels.append('"');
+		}
+		return labels.toString();
+	}
+
+}
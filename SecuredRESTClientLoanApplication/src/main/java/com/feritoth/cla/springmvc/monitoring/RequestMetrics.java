@@ -0,0 +1,218 @@
+package com.feritoth.cla.springmvc.monitoring;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Role;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class collects the timings of the application at its three layers: the REST requests per mapped endpoint and
+ * response status, and the calls of the service and DAO methods per method. Every series owns a lock-free latency
+ * histogram; the series are created on their first use and looked up through concurrent maps afterwards, hence a
+ * request records its timings without taking any lock.
+ *
+ * The status of a request is the one returned to the client, except for the errors which the controllers return as
+ * ExceptionInfo under the status OK - they are counted under the status code carried by the ExceptionInfo.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+@Component("requestMetrics")
+/* Injected into LayerTimingPostProcessor, hence created before the post-processors and never proxied itself */
+@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+public class RequestMetrics {
+
+	/* The metric names of the scrape output */
+	private static final String REQUEST_DURATION_METRIC = "cla_http_server_requests_seconds";
+	private static final String REQUEST_ERRORS_METRIC = "cla_http_server_errors_total";
+	private static final String METHOD_DURATION_METRIC = "cla_method_calls_seconds";
+	private static final String METHOD_ERRORS_METRIC = "cla_method_errors_total";
+
+	/* The status codes are kept in an array indexed by their value - anything outside of the valid range is counted as 0 */
+	private static final int STATUS_CODE_LIMIT = 600;
+
+	private final Map<String, EndpointSeries> endpointSeries = new ConcurrentHashMap<>();
+	private final Map<Method, MethodSeries> methodSeries = new ConcurrentHashMap<>();
+	private final Map<String, MethodSeries> namedMethodSeries = new ConcurrentHashMap<>();
+
+	/**
+	 * Records one completed REST request.
+	 *
+	 * @param httpMethod the HTTP method of the request
+	 * @param uriPattern the mapping pattern of the endpoint, e.g. /loan/matchClient/{clientCNP}/ - never the actual URI, whose values are unbounded
+	 * @param status the status code of the response
+	 * @param durationNanos the time spent by the application in the request
+	 */
+	public void recordRequest(String httpMethod, String uriPattern, int status, long durationNanos){
+		String endpointKey = httpMethod + ' ' + uriPattern;
+		EndpointSeries endpoint = endpointSeries.get(endpointKey);
+		if (endpoint == null){
+			endpoint = endpointSeries.computeIfAbsent(endpointKey, key -> new EndpointSeries(httpMethod, uriPattern));
+		}
+		endpoint.statusSeriesOf(status).histogram.recordNanos(durationNanos);
+	}
+
+	/**
+	 * Records one completed call of a service or DAO method.
+	 *
+	 * @param layer the layer of the called method - service or dao
+	 * @param method the called interface method
+	 * @param durationNanos the duration of the call
+	 * @param failed true when the call ended with an exception
+	 */
+	public void recordMethodCall(String layer, Method method, long durationNanos, boolean failed){
+		MethodSeries series = methodSeries.get(method);
+		if (series == null){
+			/* The overloads of a method share its series, as they share its name */
+			MethodSeries namedSeries = namedMethodSeries.computeIfAbsent(layer + ' ' + method.getDeclaringClass().getSimpleName() + '.' + method.getName(), key -> new MethodSeries(layer, method));
+			series = methodSeries.computeIfAbsent(method, key -> namedSeries);
+		}
+		series.histogram.recordNanos(durationNanos);
+		if (failed){
+			series.failures.increment();
+		}
+	}
+
+	/**
+	 * Builds a point-in-time view of all the series, with the percentiles of their latencies.
+	 *
+	 * @return an insertion-ordered map suitable for the JSON output
+	 */
+	public Map<String, Object> snapshot(){
+		Map<String, Object> requestsView = new LinkedHashMap<>();
+		for (EndpointSeries endpoint : sortedEndpoints()){
+			Map<String, Object> statusesView = new LinkedHashMap<>();
+			endpoint.forEachStatus(statusSeries -> statusesView.put(String.valueOf(statusSeries.status), statusSeries.histogram.snapshot()));
+			requestsView.put(endpoint.httpMethod + " " + endpoint.uriPattern, statusesView);
+		}
+		Map<String, Object> methodsView = new LinkedHashMap<>();
+		for (MethodSeries series : sortedMethods()){
+			Map<String, Object> methodView = new LinkedHashMap<>(series.histogram.snapshot());
+			methodView.put("errors", series.failures.sum());
+			methodsView.put(series.layer + " " + series.methodName, methodView);
+		}
+		Map<String, Object> metricsView = new LinkedHashMap<>();
+		metricsView.put("requests", requestsView);
+		metricsView.put("methods", methodsView);
+		return metricsView;
+	}
+
+	/**
+	 * Writes all the series in the Prometheus text format.
+	 *
+	 * @return the scrape output
+	 */
+	public String scrape(){
+		StringBuilder output = new StringBuilder(16384);
+		List<EndpointSeries> endpoints = sortedEndpoints();
+		PrometheusTextFormat.writeHeader(output, REQUEST_DURATION_METRIC, "Duration of the REST requests per endpoint and response status.", "histogram");
+		for (EndpointSeries endpoint : endpoints){
+			endpoint.forEachStatus(statusSeries -> PrometheusTextFormat.writeHistogram(output, REQUEST_DURATION_METRIC, statusSeries.labels, statusSeries.histogram));
+		}
+		PrometheusTextFormat.writeHeader(output, REQUEST_ERRORS_METRIC, "Number of the REST requests answered with an error status (4xx and 5xx, including the ExceptionInfo answers).", "counter");
+		for (EndpointSeries endpoint : endpoints){
+			endpoint.forEachStatus(statusSeries -> {
+				if (statusSeries.status >= 400){
+					PrometheusTextFormat.writeSample(output, REQUEST_ERRORS_METRIC, statusSeries.labels, statusSeries.histogram.getCount());
+				}
+			});
+		}
+		List<MethodSeries> methods = sortedMethods();
+		PrometheusTextFormat.writeHeader(output, METHOD_DURATION_METRIC, "Duration of the service and DAO method calls.", "histogram");
+		for (MethodSeries series : methods){
+			PrometheusTextFormat.writeHistogram(output, METHOD_DURATION_METRIC, series.labels, series.histogram);
+		}
+		PrometheusTextFormat.writeHeader(output, METHOD_ERRORS_METRIC, "Number of the service and DAO method calls ended with an exception.", "counter");
+		for (MethodSeries series : methods){
+			PrometheusTextFormat.writeSample(output, METHOD_ERRORS_METRIC, series.labels, series.failures.sum());
+		}
+		return output.toString();
+	}
+
+	private List<EndpointSeries> sortedEndpoints(){
+		List<EndpointSeries> endpoints = new ArrayList<>(endpointSeries.values());
+		endpoints.sort(Comparator.comparing((EndpointSeries endpoint) -> endpoint.uriPattern).thenComparing(endpoint -> endpoint.httpMethod));
+		return endpoints;
+	}
+
+	private List<MethodSeries> sortedMethods(){
+		List<MethodSeries> methods = new ArrayList<>(namedMethodSeries.values());
+		methods.sort(Comparator.comparing((MethodSeries series) -> series.layer).thenComparing(series -> series.methodName));
+		return methods;
+	}
+
+	/* The series of one endpoint, one per response status - created when the status is first returned */
+	private static final class EndpointSeries {
+
+		private final String httpMethod;
+		private final String uriPattern;
+		private final AtomicReferenceArray<StatusSeries> statusSeries = new AtomicReferenceArray<>(STATUS_CODE_LIMIT);
+
+		private EndpointSeries(String httpMethod, String uriPattern) {
+			this.httpMethod = httpMethod;
+			this.uriPattern = uriPattern;
+		}
+
+		private StatusSeries statusSeriesOf(int status){
+			int statusIndex = (status > 0 && status < STATUS_CODE_LIMIT) ? status : 0;
+			StatusSeries series = statusSeries.get(statusIndex);
+			if (series == null){
+				/* Two threads may create it at the same time - only the first one is kept */
+				statusSeries.compareAndSet(statusIndex, null, new StatusSeries(httpMethod, uriPattern, statusIndex));
+				series = statusSeries.get(statusIndex);
+			}
+			return series;
+		}
+
+		private void forEachStatus(Consumer<StatusSeries> action){
+			for (int statusIndex = 0; statusIndex < STATUS_CODE_LIMIT; statusIndex++){
+				StatusSeries series = statusSeries.get(statusIndex);
+				if (series != null){
+					action.accept(series);
+				}
+			}
+		}
+
+	}
+
+	private static final class StatusSeries {
+
+		private final int status;
+		private final String labels;
+		private final LatencyHistogram histogram = new LatencyHistogram();
+
+		private StatusSeries(String httpMethod, String uriPattern, int status) {
+			this.status = status;
+			this.labels = PrometheusTextFormat.formatLabels("method", httpMethod, "uri", uriPattern, "status", String.valueOf(status));
+		}
+
+	}
+
+	/* The series of one service or DAO method, named after its interface, e.g. LoanService.registerNewLoan */
+	private static final class MethodSeries {
+
+		private final String layer;
+		private final String methodName;
+		private final String labels;
+		private final LatencyHistogram histogram = new LatencyHistogram();
+		private final LongAdder failures = new LongAdder();
+
+		private MethodSeries(String layer, Method method) {
+			this.layer = layer;
+			this.methodName = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+			this.labels = PrometheusTextFormat.formatLabels("layer", layer, "method", methodName);
+		}
+
+	}
+
+}
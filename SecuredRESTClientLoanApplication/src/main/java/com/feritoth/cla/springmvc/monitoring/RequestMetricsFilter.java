@@ -0,0 +1,70 @@
+package com.feritoth.cla.springmvc.monitoring;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.context.ContextLoader;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * This filter times the requests handled by the REST controllers and records them into RequestMetrics under the
+ * mapping pattern of their endpoint, which the dispatcher leaves among the request attributes. The time includes the
+ * writing of the response body. The requests without a controller method (e.g. the unmapped URIs) are not recorded,
+ * so that the series stay bounded by the number of endpoints.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public class RequestMetricsFilter implements Filter {
+
+	/* The request attribute holding the status code of an ExceptionInfo answer */
+	static final String EXCEPTION_INFO_STATUS_ATTRIBUTE = RequestMetricsFilter.class.getName() + ".exceptionInfoStatus";
+
+	private RequestMetrics requestMetrics;
+
+	public void init(FilterConfig filterConfig) {
+		/* The filter is not a bean - the metrics are taken from the root context, which is started before the filters */
+		requestMetrics = ContextLoader.getCurrentWebApplicationContext().getBean(RequestMetrics.class);
+	}
+
+	public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
+		HttpServletRequest request = (HttpServletRequest) req;
+		HttpServletResponse response = (HttpServletResponse) res;
+		long startNanos = System.nanoTime();
+		boolean failed = true;
+		try {
+			chain.doFilter(req, res);
+			failed = false;
+		} finally {
+			if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod){
+				long durationNanos = System.nanoTime() - startNanos;
+				String uriPattern = String.valueOf(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+				requestMetrics.recordRequest(request.getMethod(), uriPattern, resolveStatus(request, response, failed), durationNanos);
+			}
+		}
+	}
+
+	/* An exception left to the container becomes a server error, an ExceptionInfo answer counts with its own status code */
+	private static int resolveStatus(HttpServletRequest request, HttpServletResponse response, boolean failed){
+		Object exceptionInfoStatus = request.getAttribute(EXCEPTION_INFO_STATUS_ATTRIBUTE);
+		if (exceptionInfoStatus != null){
+			return (Integer) exceptionInfoStatus;
+		}
+		if (failed && response.getStatus() < HttpServletResponse.SC_BAD_REQUEST){
+			return HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+		}
+		return response.getStatus();
+	}
+
+	public void destroy() {}
+
+}
@@ -0,0 +1,59 @@
+package com.feritoth.cla.springmvc.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheableDataStatistics;
+import org.hibernate.stat.Statistics;
+
+import com.feritoth.cla.springmvc.dbmodel.Client;
+import com.feritoth.cla.springmvc.dbmodel.IPAddress;
+
+/**
+ * This class exposes the hit, miss and put counters of the Hibernate second-level cache, as a whole and
+ * for each cached entity and natural id. The counters are only collected while the Hibernate statistics
+ * are enabled (hibernate.generate_statistics, off by default), which is also reported in the snapshot.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public class SecondLevelCacheMetrics {
+
+	private final SessionFactory sessionFactory;
+
+	public SecondLevelCacheMetrics(SessionFactory sessionFactory) {
+		this.sessionFactory = sessionFactory;
+	}
+
+	/**
+	 * Builds a point-in-time view of the second-level cache counters.
+	 *
+	 * @return an insertion-ordered map suitable for the JSON output
+	 */
+	public Map<String, Object> snapshot(){
+		Statistics statistics = sessionFactory.getStatistics();
+		Map<String, Object> cacheView = new LinkedHashMap<>();
+		cacheView.put("statisticsEnabled", statistics.isStatisticsEnabled());
+		cacheView.put("entityCacheHits", statistics.getSecondLevelCacheHitCount());
+		cacheView.put("entityCacheMisses", statistics.getSecondLevelCacheMissCount());
+		cacheView.put("entityCachePuts", statistics.getSecondLevelCachePutCount());
+		cacheView.put("naturalIdCacheHits", statistics.getNaturalIdCacheHitCount());
+		cacheView.put("naturalIdCacheMisses", statistics.getNaturalIdCacheMissCount());
+		cacheView.put("naturalIdCachePuts", statistics.getNaturalIdCachePutCount());
+		cacheView.put("clientEntity", describeCacheUsage(statistics.getEntityStatistics(Client.class.getName())));
+		cacheView.put("ipAddressEntity", describeCacheUsage(statistics.getEntityStatistics(IPAddress.class.getName())));
+		cacheView.put("ipAddressNaturalId", describeCacheUsage(statistics.getNaturalIdStatistics(IPAddress.class.getName())));
+		return cacheView;
+	}
+
+	private static Map<String, Object> describeCacheUsage(CacheableDataStatistics cacheableStatistics){
+		Map<String, Object> usageView = new LinkedHashMap<>();
+		usageView.put("region", cacheableStatistics.getCacheRegionName());
+		usageView.put("hits", cacheableStatistics.getCacheHitCount());
+		usageView.put("misses", cacheableStatistics.getCacheMissCount());
+		usageView.put("puts", cacheableStatistics.getCachePutCount());
+		return usageView;
+	}
+
+}
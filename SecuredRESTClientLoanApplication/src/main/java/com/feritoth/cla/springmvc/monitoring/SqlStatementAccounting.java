@@ -0,0 +1,187 @@
+package com.feritoth.cla.springmvc.monitoring;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+/**
+ * This class accounts the SQL work done on behalf of a single REST request: the statements prepared by Hibernate,
+ * the time spent by the JDBC driver in executing them and the entities loaded by the sessions. The accounting is kept
+ * in a thread-local, which SqlStatementAccountingFilter opens when the request enters and closes once it completes -
+ * the sessions of the request run on its thread, hence they find it without any lookup by request.
+ *
+ * Hibernate reports to it through the three hooks below, which it instantiates on its own: {@link Listener} for every
+ * session (hibernate.session.events.auto), {@link Inspector} and {@link LoadInterceptor} once for the session factory.
+ * The work done outside of a request (e.g. the seeding of the caches at startup) is not accounted.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public final class SqlStatementAccounting {
+
+	private static final ThreadLocal<RequestStatements> CURRENT_REQUEST = new ThreadLocal<>();
+
+	private SqlStatementAccounting() {
+	}
+
+	/**
+	 * Opens the accounting of the request handled by the current thread.
+	 *
+	 * @return false if an accounting is already open, e.g. for a forward of the request - it is then left to its opener
+	 */
+	public static boolean open(){
+		if (CURRENT_REQUEST.get() != null){
+			return false;
+		}
+		CURRENT_REQUEST.set(new RequestStatements());
+		return true;
+	}
+
+	/**
+	 * Closes the accounting of the request handled by the current thread.
+	 *
+	 * @return the statements accounted since the opening
+	 */
+	public static RequestStatements close(){
+		RequestStatements requestStatements = CURRENT_REQUEST.get();
+		CURRENT_REQUEST.remove();
+		return requestStatements;
+	}
+
+	/**
+	 * @return the statements accounted so far for the request handled by the current thread, null outside of a request
+	 */
+	public static RequestStatements current(){
+		return CURRENT_REQUEST.get();
+	}
+
+	/**
+	 * The SQL work of one request - it is only ever touched by the thread of the request, so plain fields are enough.
+	 */
+	public static final class RequestStatements {
+
+		private int statementCount;
+		private long jdbcNanos;
+		private int loadedEntityCount;
+		/* The number of times every distinct SQL string was prepared - a high one is the mark of an N+1 query */
+		private final Map<String, Integer> preparationsBySQL = new HashMap<>();
+
+		private RequestStatements() {
+		}
+
+		public int getStatementCount() {
+			return statementCount;
+		}
+
+		public long getJdbcNanos() {
+			return jdbcNanos;
+		}
+
+		public int getLoadedEntityCount() {
+			return loadedEntityCount;
+		}
+
+		/**
+		 * @return the SQL string prepared the most times, null if no statement was prepared
+		 */
+		public Map.Entry<String, Integer> getMostRepeatedStatement(){
+			Map.Entry<String, Integer> mostRepeated = null;
+			for (Map.Entry<String, Integer> preparations : preparationsBySQL.entrySet()){
+				if (mostRepeated == null || preparations.getValue() > mostRepeated.getValue()){
+					mostRepeated = preparations;
+				}
+			}
+			return mostRepeated;
+		}
+
+		/**
+		 * @return the accounting in the key=value form of the log line and of the debug header, e.g. statements=3 jdbcMillis=1.25 entities=12
+		 */
+		public String format(){
+			return "statements=" + statementCount + " jdbcMillis=" + String.format(Locale.ROOT, "%.2f", jdbcNanos / 1e6) + " entities=" + loadedEntityCount;
+		}
+
+	}
+
+	/**
+	 * The per-session listener timing the JDBC executions. Hibernate takes a single listener class for all the sessions,
+	 * hence it also keeps the flush timing of {@link FlushMetrics.Listener}.
+	 */
+	public static class Listener extends FlushMetrics.Listener {
+
+		private static final long serialVersionUID = -6093180371457120984L;
+
+		private long executionStartNanos;
+
+		@Override
+		public void jdbcExecuteStatementStart() {
+			executionStartNanos = System.nanoTime();
+		}
+
+		@Override
+		public void jdbcExecuteStatementEnd() {
+			addJdbcNanos(System.nanoTime() - executionStartNanos);
+		}
+
+		@Override
+		public void jdbcExecuteBatchStart() {
+			executionStartNanos = System.nanoTime();
+		}
+
+		@Override
+		public void jdbcExecuteBatchEnd() {
+			addJdbcNanos(System.nanoTime() - executionStartNanos);
+		}
+
+		private static void addJdbcNanos(long durationNanos){
+			RequestStatements requestStatements = CURRENT_REQUEST.get();
+			if (requestStatements != null){
+				requestStatements.jdbcNanos += durationNanos;
+			}
+		}
+
+	}
+
+	/**
+	 * Counts the statements prepared by the sessions - the statements of a JDBC batch are prepared once.
+	 */
+	public static class Inspector implements StatementInspector {
+
+		private static final long serialVersionUID = 3658409265715933267L;
+
+		@Override
+		public String inspect(String sql) {
+			RequestStatements requestStatements = CURRENT_REQUEST.get();
+			if (requestStatements != null){
+				requestStatements.statementCount++;
+				requestStatements.preparationsBySQL.merge(sql, 1, Integer::sum);
+			}
+			return sql;
+		}
+
+	}
+
+	/**
+	 * Counts the entities loaded by the sessions.
+	 */
+	public static class LoadInterceptor extends EmptyInterceptor {
+
+		private static final long serialVersionUID = -2154781496620178253L;
+
+		@Override
+		public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+			RequestStatements requestStatements = CURRENT_REQUEST.get();
+			if (requestStatements != null){
+				requestStatements.loadedEntityCount++;
+			}
+			return false;
+		}
+
+	}
+
+}
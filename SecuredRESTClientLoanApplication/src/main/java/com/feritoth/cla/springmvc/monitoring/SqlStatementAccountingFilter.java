@@ -0,0 +1,74 @@
+package com.feritoth.cla.springmvc.monitoring;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.context.ContextLoader;
+
+import com.feritoth.cla.springmvc.monitoring.SqlStatementAccounting.RequestStatements;
+
+/**
+ * This filter opens the SQL accounting of every request and logs it once the request completes, as a single key=value
+ * line which can be filtered by the log tooling. A request which prepared the same SQL string more times than the
+ * threshold (monitoring.sql.repeatedStatementThreshold) is logged as a warning together with that statement, as it
+ * most likely loads an association or a list element by element.
+ *
+ * The line is logged at INFO for the requests which ran any statement and at DEBUG for the other ones.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public class SqlStatementAccountingFilter implements Filter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SqlStatementAccountingFilter.class);
+
+	private int repeatedStatementThreshold;
+
+	public void init(FilterConfig filterConfig) {
+		/* The filter is not a bean - the settings are taken from the root context, which is started before the filters */
+		repeatedStatementThreshold = ContextLoader.getCurrentWebApplicationContext().getEnvironment().getProperty("monitoring.sql.repeatedStatementThreshold", Integer.class, 10);
+	}
+
+	public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
+		if (!SqlStatementAccounting.open()){
+			chain.doFilter(req, res);
+			return;
+		}
+		try {
+			chain.doFilter(req, res);
+		} finally {
+			logRequestStatements((HttpServletRequest) req, (HttpServletResponse) res, SqlStatementAccounting.close());
+		}
+	}
+
+	private void logRequestStatements(HttpServletRequest request, HttpServletResponse response, RequestStatements requestStatements){
+		if (requestStatements.getStatementCount() == 0 && !LOGGER.isDebugEnabled()){
+			return;
+		}
+		String logLine = "sql method=" + request.getMethod() + " uri=" + request.getRequestURI() + " status=" + response.getStatus() + " " + requestStatements.format();
+		if (requestStatements.getStatementCount() == 0){
+			LOGGER.debug(logLine);
+			return;
+		}
+		LOGGER.info(logLine);
+		Map.Entry<String, Integer> mostRepeated = requestStatements.getMostRepeatedStatement();
+		if (mostRepeated.getValue() > repeatedStatementThreshold){
+			LOGGER.warn("Possible N+1 query: the same statement was prepared " + mostRepeated.getValue() + " times by " + request.getMethod() + " " + request.getRequestURI()
+			            + " (threshold " + repeatedStatementThreshold + "): " + mostRepeated.getKey());
+		}
+	}
+
+	public void destroy() {}
+
+}
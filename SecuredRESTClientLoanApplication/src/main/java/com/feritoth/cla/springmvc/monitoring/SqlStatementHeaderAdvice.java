@@ -0,0 +1,55 @@
+package com.feritoth.cla.springmvc.monitoring;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import com.feritoth.cla.springmvc.monitoring.SqlStatementAccounting.RequestStatements;
+
+/**
+ * This advice publishes the SQL accounting of a request in the X-SQL-Statements debug header of its response, when
+ * enabled by monitoring.sql.header.enabled. The header is written together with the body, i.e. after the services
+ * of the request have completed, hence it holds all the statements of the request. The streamed loan list writes its
+ * response directly and gets no header - its statements are only logged.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+@ControllerAdvice
+public class SqlStatementHeaderAdvice implements ResponseBodyAdvice<Object>, InitializingBean {
+
+	public static final String SQL_STATEMENTS_HEADER = "X-SQL-Statements";
+
+	@Autowired
+	private Environment environment;
+
+	private boolean headerEnabled;
+
+	@Override
+	public void afterPropertiesSet() {
+		headerEnabled = environment.getProperty("monitoring.sql.header.enabled", Boolean.class, false);
+	}
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return headerEnabled;
+	}
+
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType, Class<? extends HttpMessageConverter<?>> selectedConverterType,
+			                      ServerHttpRequest request, ServerHttpResponse response) {
+		RequestStatements requestStatements = SqlStatementAccounting.current();
+		if (requestStatements != null){
+			response.getHeaders().set(SQL_STATEMENTS_HEADER, requestStatements.format());
+		}
+		return body;
+	}
+
+}
@@ -1,7 +1,6 @@
 package com.feritoth.cla.springmvc.service;
 
 import java.util.List;
-import java.util.Map;
 
 import com.feritoth.cla.springmvc.dbmodel.Client;
 
@@ -9,6 +8,8 @@ public interface ClientService {
 	
 	List<Client> findAllRegisteredClients();
 	
+	List<Client> findRegisteredClientsPage(String afterCNP, int pageSize);
+	
 	List<Client> getMatchingClients(String nameSequence);
 	
 	Client findClientByCNP(String cnp);
@@ -17,14 +18,12 @@ public interface ClientService {
 	
 	List<Client> findClientsByEmailFragment(String emailAddress);
 	
-	void registerNewClient(Client newClient);
+	ValidationResult registerNewClient(Client newClient);
 	
-	void updateExistingClient(Client selectedClient);
+	ValidationResult updateExistingClient(Client selectedClient);
 	
-	void removeClient(String cnp);
+	ValidationResult removeClient(String cnp);
 	
 	boolean isEmployeeCNPalreadyAssigned(String cnp);
-	
-	Map<String, Exception> getRegUpFlagMap();
 
 }
\ No newline at end of file
@@ -1,7 +1,6 @@
 package com.feritoth.cla.springmvc.service;
 
 import java.util.List;
-import java.util.Map;
 
 import com.feritoth.cla.springmvc.dbmodel.Client;
 import com.feritoth.cla.springmvc.dbmodel.IPAddress;
@@ -10,16 +9,16 @@ public interface IPAddressService {
 	
 	List<IPAddress> fetchAllAvailableIPAddresses();
 	
+	List<IPAddress> fetchIPAddressesPage(Integer afterIPAddressID, int pageSize);
+	
 	List<IPAddress> fetchAllAssignedIPAddressesForClient(Client client);
 	
-	void registerIPAddress(IPAddress ipAddress);
+	ValidationResult registerIPAddress(IPAddress ipAddress);
 	
-	void removeIPAddress(String ipAddress);
+	ValidationResult removeIPAddress(String ipAddress);
 	
 	boolean validateIPAddress(String ipAddress);
 	
 	IPAddress findDetailsForIPvalue(String ipAddress);
-	
-	Map<String, Exception> getRegDelFlagMap();
 
 }
\ No newline at end of file
@@ -0,0 +1,227 @@
+package com.feritoth.cla.springmvc.service;
+
+/**
+ * This class gathers the validators of the client and IP address input. Each of them is a hand-written scanner which
+ * walks over its input once, without compiling patterns, splitting or taking substrings - hence without allocating.
+ * They accept exactly the values accepted by the regular expressions used before (quoted in the comments), which are
+ * kept as the reference of the equivalence check in InputValidatorEquivalenceChecker.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public final class InputValidator {
+
+	/* The value returned by the IPv4 parser for anything else than four dot-separated octets */
+	public static final long NOT_IPV4 = -1L;
+
+	private InputValidator() {
+	}
+
+	private static boolean isDigit(char character){
+		return character >= '0' && character <= '9';
+	}
+
+	private static boolean isLetter(char character){
+		return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z');
+	}
+
+	private static boolean isLetterOrDigit(char character){
+		return isLetter(character) || isDigit(character);
+	}
+
+	/**
+	 * Checks that the value consists of digits only - [0-9]+.
+	 *
+	 * @param value the checked value, e.g. a CNP
+	 *
+	 * @return true for a non-empty value made of ASCII digits
+	 */
+	public static boolean isDigitsOnly(String value){
+		if (value == null || value.isEmpty()){
+			return false;
+		}
+		for (int position = 0; position < value.length(); position++){
+			if (!isDigit(value.charAt(position))){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks the e-mail address - ^[_A-Za-z0-9-\+]+(\.[_A-Za-z0-9-]+)*@[A-Za-z0-9-]+(\.[A-Za-z0-9]+)*(\.[A-Za-z]{2,})$.
+	 * As no character class contains the dot or the at sign, the address is a local part of dot-separated non-empty
+	 * labels, an at sign and a domain of at least two dot-separated non-empty labels, the last one of 2+ letters.
+	 *
+	 * @param emailAddress the checked e-mail address
+	 *
+	 * @return true for a well-formed e-mail address
+	 */
+	public static boolean isValidEmailAddress(String emailAddress){
+		if (emailAddress == null){
+			return false;
+		}
+		int length = emailAddress.length();
+		int position = 0;
+		/* The local part: the first label may contain the plus sign, the next ones may not */
+		boolean firstLabel = true;
+		while (true){
+			int labelStart = position;
+			while (position < length){
+				char character = emailAddress.charAt(position);
+				if (isLetterOrDigit(character) || character == '_' || character == '-' || (firstLabel && character == '+')){
+					position++;
+				} else {
+					break;
+				}
+			}
+			if (position == labelStart || position == length){
+				return false;
+			}
+			char separator = emailAddress.charAt(position++);
+			if (separator == '@'){
+				break;
+			}
+			if (separator != '.'){
+				return false;
+			}
+			firstLabel = false;
+		}
+		/* The domain: the first label may contain the hyphen, the middle ones are alphanumeric and the last one is made of letters only */
+		int labelCount = 0;
+		while (true){
+			int labelStart = position;
+			boolean lettersOnly = true;
+			while (position < length){
+				char character = emailAddress.charAt(position);
+				if (isLetter(character)){
+					position++;
+				} else if (isDigit(character) || (labelCount == 0 && character == '-')){
+					lettersOnly = false;
+					position++;
+				} else {
+					break;
+				}
+			}
+			int labelLength = position - labelStart;
+			if (labelLength == 0){
+				return false;
+			}
+			labelCount++;
+			if (position == length){
+				return labelCount >= 2 && lettersOnly && labelLength >= 2;
+			}
+			if (emailAddress.charAt(position++) != '.'){
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Checks the client name, given as the last name, a space and the first name (anything after a second space is
+	 * not checked). The last name must match [a-zA-z]+([ '-][a-zA-Z]+)* - including the A-z range of the first part,
+	 * which lets the characters [\]^_` in as well - and the first name must match [A-Z][a-zA-Z]*.
+	 *
+	 * @param clientName the checked client name
+	 *
+	 * @return true for a well-formed client name - false as well for a name without any space
+	 */
+	public static boolean isValidClientName(String clientName){
+		if (clientName == null){
+			return false;
+		}
+		int length = clientName.length();
+		int position = 0;
+		/* The first part of the last name, up to the first space, apostrophe or hyphen */
+		while (position < length){
+			char character = clientName.charAt(position);
+			if (character >= 'a' && character <= 'z' || character >= 'A' && character <= 'z'){
+				position++;
+			} else {
+				break;
+			}
+		}
+		if (position == 0){
+			return false;
+		}
+		/* Its further parts, each one preceded by an apostrophe or a hyphen */
+		while (position < length && (clientName.charAt(position) == '\'' || clientName.charAt(position) == '-')){
+			int partStart = ++position;
+			while (position < length && isLetter(clientName.charAt(position))){
+				position++;
+			}
+			if (position == partStart){
+				return false;
+			}
+		}
+		if (position == length || clientName.charAt(position++) != ' '){
+			return false;
+		}
+		/* The first name, up to the next space or the end */
+		if (position == length || clientName.charAt(position) < 'A' || clientName.charAt(position) > 'Z'){
+			return false;
+		}
+		position++;
+		while (position < length && clientName.charAt(position) != ' '){
+			if (!isLetter(clientName.charAt(position++))){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Parses an IPv4 address - ^([01]?\d\d?|2[0-4]\d|25[0-5])\.(...)\.(...)\.(...)$, i.e. four octets of one to three
+	 * digits each (leading zeros allowed) whose value does not exceed 255.
+	 *
+	 * @param ipAddressValue the parsed IP address value
+	 *
+	 * @return the address packed into the lower 32 bits, or NOT_IPV4 for a malformed value
+	 */
+	public static long parseIPv4(String ipAddressValue){
+		if (ipAddressValue == null){
+			return NOT_IPV4;
+		}
+		int length = ipAddressValue.length();
+		int position = 0;
+		long parsedAddress = 0L;
+		for (int octetIndex = 0; octetIndex < 4; octetIndex++){
+			if (octetIndex > 0){
+				if (position == length || ipAddressValue.charAt(position) != '.'){
+					return NOT_IPV4;
+				}
+				position++;
+			}
+			int octetStart = position;
+			int octet = 0;
+			while (position < length && position - octetStart < 3 && isDigit(ipAddressValue.charAt(position))){
+				octet = octet * 10 + (ipAddressValue.charAt(position) - '0');
+				position++;
+			}
+			if (position == octetStart || octet > 255){
+				return NOT_IPV4;
+			}
+			parsedAddress = (parsedAddress << 8) | octet;
+		}
+		return position == length ? parsedAddress : NOT_IPV4;
+	}
+
+	/**
+	 * Checks that a parsed IPv4 address may be assigned to a client: the first octet must not denote "this" network
+	 * (0), the loopback (127) or the multicast and reserved ranges (240 and above), the last octet must not denote the
+	 * network (0) or the broadcast (255) address.
+	 *
+	 * @param parsedAddress an address returned by {@link #parseIPv4(String)}
+	 *
+	 * @return true when the address is in the assignable range
+	 */
+	public static boolean isAssignableIPv4(long parsedAddress){
+		if (parsedAddress == NOT_IPV4){
+			return false;
+		}
+		int firstOctet = (int) (parsedAddress >>> 24) & 0xFF;
+		int lastOctet = (int) parsedAddress & 0xFF;
+		return firstOctet != 0 && firstOctet != 127 && firstOctet < 240 && lastOctet != 0 && lastOctet != 255;
+	}
+
+}
@@ -1,11 +1,13 @@
 package com.feritoth.cla.springmvc.service;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 
+import com.feritoth.cla.springmvc.dao.LoanDao.LoanRowHandler;
 import com.feritoth.cla.springmvc.dbmodel.Client;
 import com.feritoth.cla.springmvc.dbmodel.IPAddress;
 import com.feritoth.cla.springmvc.dbmodel.Loan;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedLoan;
 
 public interface LoanService {
 	
@@ -25,20 +27,28 @@ public interface LoanService {
 	/* The value used for increasing the interest rate of a loan in case of any term prolongation */
 	double INTEREST_RATE_INCREASE_FACTOR = 1.5;
 	
-	List<Loan> fetchAllLoans();
+	/* The maximum number of loans accepted in one batch registration */
+	int MAXIMUM_LOAN_BATCH_SIZE = 500;
 	
-	List<Loan> getAllLoansForClient(Client client);
+	List<SerializedLoan> fetchAllLoans();
 	
-	List<Loan> findAllLoansForIPAddress(IPAddress ipAddress);
+	void streamAllLoans(LoanRowHandler loanRowHandler) throws IOException;
 	
-	Loan fetchHistoryForLoanID(Integer loanID);
+	List<SerializedLoan> fetchLoansPage(Integer afterLoanID, int pageSize);
 	
-	void registerNewLoan(Loan newLoan);
+	List<SerializedLoan> getAllLoansForClient(Client client);
 	
-	void extendExistingLoan(Loan existingLoan);
+	List<SerializedLoan> findAllLoansForIPAddress(IPAddress ipAddress);
 	
-	void removeLoan(Integer loanID);
+	SerializedLoan fetchHistoryForLoanID(Integer loanID);
+	
+	ValidationResult registerNewLoan(Loan newLoan);
+	
+	/* Registers a batch of loans in one transaction - the returned list holds the outcome of each loan in submission order (valid for a saved loan) */
+	List<ValidationResult> registerNewLoanBatch(List<Loan> candidateLoans);
 	
-	Map<String, Exception> getRegUpFlagMap();
+	ValidationResult extendExistingLoan(Loan existingLoan);
+	
+	void removeLoan(Integer loanID);
 
 }
\ No newline at end of file
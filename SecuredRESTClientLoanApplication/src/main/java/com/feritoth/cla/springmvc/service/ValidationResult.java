@@ -0,0 +1,64 @@
+package com.feritoth.cla.springmvc.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class holds the outcome of one call of a registration, update, extension or removal service method: the errors
+ * detected for the submitted entity, keyed by the error names which the controllers map to their responses. A new
+ * instance is returned by every call and it cannot be changed afterwards, hence the services keep no per-call state and
+ * can serve any number of concurrent requests.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+public final class ValidationResult {
+
+	/* The outcome of every call without errors - shared, as there is nothing in it to change */
+	private static final ValidationResult VALID = new ValidationResult(Collections.emptyMap());
+
+	private final Map<String, Exception> errors;
+
+	private ValidationResult(Map<String, Exception> errors) {
+		this.errors = errors;
+	}
+
+	public static ValidationResult valid(){
+		return VALID;
+	}
+
+	/**
+	 * Creates the outcome of a call from the errors collected during its validation.
+	 *
+	 * @param errors the detected errors keyed by their names - copied, so the caller may go on using the map
+	 *
+	 * @return the outcome holding a copy of the given errors
+	 */
+	public static ValidationResult of(Map<String, Exception> errors){
+		return errors.isEmpty() ? VALID : new ValidationResult(Collections.unmodifiableMap(new HashMap<>(errors)));
+	}
+
+	public boolean isValid(){
+		return errors.isEmpty();
+	}
+
+	public boolean hasError(String errorName){
+		return errors.containsKey(errorName);
+	}
+
+	public Exception getError(String errorName){
+		return errors.get(errorName);
+	}
+
+	/* A read-only view of all the detected errors - empty for a valid call */
+	public Map<String, Exception> getErrors(){
+		return errors;
+	}
+
+	@Override
+	public String toString() {
+		return "ValidationResult [errors=" + errors.keySet() + "]";
+	}
+
+}
@@ -5,8 +5,6 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -17,9 +15,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.feritoth.cla.springmvc.dao.ClientDao;
-import com.feritoth.cla.springmvc.dao.IPAddressDao;
 import com.feritoth.cla.springmvc.dbmodel.Client;
 import com.feritoth.cla.springmvc.service.ClientService;
+import com.feritoth.cla.springmvc.service.InputValidator;
+import com.feritoth.cla.springmvc.service.ValidationResult;
 
 @Service("clientService")
 @Transactional
@@ -29,43 +28,24 @@ public class ClientSpringService implements ClientService {
 	private ClientDao clientDao;
 	
 	@Autowired
-	private IPAddressDao ipAddressDao;
+	private IPAddressIndex ipAddressIndex;
 	
-	/* Declare here the map of the exceptions used during the update and the registration of a client */
-	private Map<String, Exception> regUpFlagMap = new HashMap<>();
+	@Autowired
+	private LoanHistoryCache loanHistoryCache;
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(ClientSpringService.class);
-	private static final String EMAIL_PATTERN = "^[_A-Za-z0-9-\\+]+(\\.[_A-Za-z0-9-]+)*@[A-Za-z0-9-]+(\\.[A-Za-z0-9]+)*(\\.[A-Za-z]{2,})$";
-	private static final String FIRST_NAME_PATTERN = "[A-Z][a-zA-Z]*";
-	private static final String LAST_NAME_PATTERN = "[a-zA-z]+([ '-][a-zA-Z]+)*";
-	private static final String CNP_PATTERN = "[0-9]+";
 	
+	/* The CNP, e-mail and name checks are single-pass scanners, equivalent to the regular expressions quoted in InputValidator */
 	private boolean validateClientCNP(String clientCNP){
-		Pattern cnpPattern = Pattern.compile(CNP_PATTERN);
-		Matcher matcher = cnpPattern.matcher(clientCNP);
-		return matcher.matches();
+		return InputValidator.isDigitsOnly(clientCNP);
 	}
 	
-	public Map<String, Exception> getRegUpFlagMap() {
-		return Collections.unmodifiableMap(regUpFlagMap);
-	}
-
 	private boolean validateClientEmailAddress(String emailAddress) {
-		Pattern emailPattern = Pattern.compile(EMAIL_PATTERN);
-		if (StringUtils.isNotBlank(emailAddress)){
-			Matcher matcher = emailPattern.matcher(emailAddress);
-			return matcher.matches();
-		} 
-		return false;
+		return InputValidator.isValidEmailAddress(emailAddress);
 	}
 	
 	private boolean validateClientName(String clientName){
-		Pattern firstNamePattern = Pattern.compile(FIRST_NAME_PATTERN);
-		Pattern lastNamePattern = Pattern.compile(LAST_NAME_PATTERN);
-		String[] clientNameParts = clientName.split(" ");
-		Matcher firstNameMatcher = firstNamePattern.matcher(clientNameParts[1]);
-		Matcher lastNameMatcher = lastNamePattern.matcher(clientNameParts[0]);		
-		return firstNameMatcher.matches() && lastNameMatcher.matches();
+		return InputValidator.isValidClientName(clientName);
 	}
 	
 	private boolean checkIfClientAlreadyPresent(Client newClient, List<Client> possibleMatches) {
@@ -74,46 +54,52 @@ public class ClientSpringService implements ClientService {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Client> findAllRegisteredClients() {
 		return clientDao.getAllRegisteredClients();
 	}
 
 	@Override
+	@Transactional(readOnly = true)
+	public List<Client> findRegisteredClientsPage(String afterCNP, int pageSize) {
+		return clientDao.getRegisteredClientsPage(afterCNP, pageSize);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
 	public List<Client> getMatchingClients(String nameSequence) {
 		return clientDao.getMatchingClients(nameSequence);
 	}
 
+	/* Not read-only: the client is checked before its update and removal, hence it must come from the primary rather than from a lagging replica */
 	@Override
 	public Client findClientByCNP(String cnp) {		
-		/* Check first if the given CNP is registered in the DB */
-		List<String> allRegisteredCNPs = clientDao.getAllClientCNPs();
-		/* In case of presence, proceed with the retrieval of the given client, otherwise return null */
-		if (allRegisteredCNPs.contains(cnp)){
-			return clientDao.findClientByCNP(cnp);
-		}
-		return null;
+		/* A lookup by primary key - it directly returns null for an unregistered CNP, hence no prior existence check is needed */
+		return clientDao.findClientByCNP(cnp);
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public Client findClientByIP(String ipAddress) {
-		/* Check again if the IP address is already registered in the DB */
-		List<String> allRegisteredIPValues = ipAddressDao.getAllIPValues();
-		/* In case of presence, proceed with the retrieval of the given client, otherwise return null */
-		if (allRegisteredIPValues.contains(ipAddress)){
+		/* Resolve the owner through the IP index - the values not covered by it are resolved by the DB */
+		if (!ipAddressIndex.isCovered(ipAddress)){
 			return clientDao.findClientByIP(ipAddress);
 		}
-		return null;
+		String ownerCNP = ipAddressIndex.findOwnerCNP(ipAddress);
+		/* In case of presence, proceed with the retrieval of the given client by its primary key, otherwise return null */
+		return (ownerCNP == null) ? null : clientDao.findClientByCNP(ownerCNP);
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Client> findClientsByEmailFragment(String emailAddressFragment) {
 		return clientDao.findClientsByEmailAddressFragment(emailAddressFragment);
 	}
 
 	@Override
-	public void registerNewClient(Client newClient) {
-		/* As a prerequisite, empty the flag map in order to avoid unwanted overwrites from previous invocations */
-		regUpFlagMap.clear();
+	public ValidationResult registerNewClient(Client newClient) {
+		/* Collect the detected errors in a map of this call only - it is handed back as the immutable outcome of the call */
+		Map<String, Exception> regUpFlagMap = new HashMap<>();
 		/* Check the correctness of the CNP, e-mail & postal addresses and of the course client name before registration */
 		/* CNP - must be exactly 12 characters long and contain only digits */
 		List<Client> possibleMatches = clientDao.getMatchingClients(newClient.getName());		
@@ -132,37 +118,38 @@ public class ClientSpringService implements ClientService {
         } else {
         	/* Check which of these parameters was given wrongly and throw an exception accordingly to the matching case */
         	if (!cnpOK){
-        		LOGGER.error("Invalid CNP provided to the application!", newClient.getCnp());
+        		LOGGER.error("Invalid CNP provided to the application! {}", newClient.getCnp());
     			String exMessage = "Invalid CNP provided to the application! " + newClient.getCnp();
     			regUpFlagMap.put("faultyCNP", new IllegalArgumentException(exMessage));    			 
         	}
         	if (!clientNotRegisteredYet){
-        		LOGGER.error("The CNP in question is well-formed, but has already been assigned to another client!", newClient.getCnp());
+        		LOGGER.error("The CNP in question is well-formed, but has already been assigned to another client! {}", newClient.getCnp());
         		String exMessage = "CNP in question is already in use by another client! " + newClient.getCnp();
         		regUpFlagMap.put("clientAlreadyRegistered", new IllegalArgumentException(exMessage));
         	}
         	if (!emailAddressOK){
-        		LOGGER.error("Invalid e-mail address provided to the application!", newClient.getEmailAddress());
+        		LOGGER.error("Invalid e-mail address provided to the application! {}", newClient.getEmailAddress());
     			String exMessage = "Invalid e-mail address provided to the application! " + newClient.getEmailAddress();
     			regUpFlagMap.put("faultyEmailAddress", new IllegalArgumentException(exMessage));
         	}
         	if (!nameOK){
-        		LOGGER.error("Invalid name format provided to the application!", newClient.getName());
+        		LOGGER.error("Invalid name format provided to the application! {}", newClient.getName());
     			String exMessage = "Invalid name format provided to the application! " + newClient.getName();
     			regUpFlagMap.put("faultyName", new IllegalArgumentException(exMessage));
         	}
         	if (!postalAddressOK){
-        		LOGGER.error("Invalid postal address provided to the application!", newClient.getPostalAddress());
+        		LOGGER.error("Invalid postal address provided to the application! {}", newClient.getPostalAddress());
     			String exMessage = "Invalid postal address provided to the application! " + newClient.getPostalAddress();
     			regUpFlagMap.put("faultyPostalAddress", new IllegalArgumentException(exMessage));
         	}
         }
+        return ValidationResult.of(regUpFlagMap);
 	}
 
 	@Override
-	public void updateExistingClient(Client selectedClient) {
-		/* As a prerequisite, empty the flag map in order to avoid unwanted overwrites from previous invocations */
-		regUpFlagMap.clear();
+	public ValidationResult updateExistingClient(Client selectedClient) {
+		/* Collect the detected errors in a map of this call only - it is handed back as the immutable outcome of the call */
+		Map<String, Exception> regUpFlagMap = new HashMap<>();
 		/* Check the consistency of the new e-mail address and postal address as well as for the client name - in case of any updates */		
 		/* Email Address - must match the description pattern provided as class constant */
         boolean emailAddressOK = validateClientEmailAddress(selectedClient.getEmailAddress());
@@ -173,46 +160,49 @@ public class ClientSpringService implements ClientService {
         /* For these preconditions fulfilled, client registration can move on */
         if (postalAddressOK && emailAddressOK && nameOK){
         	clientDao.updateClient(selectedClient);
+        	/* The client details are part of the history of each of its loans */
+        	loanHistoryCache.invalidateClientAfterCommit(selectedClient.getCnp());
         } else {
         	/* Check which of the new parameters was given in the wrong format */
         	if (!postalAddressOK){
-        		LOGGER.error("New but invalid postal address provided to the application!", selectedClient.getPostalAddress());
+        		LOGGER.error("New but invalid postal address provided to the application! {}", selectedClient.getPostalAddress());
     			String exMessage = "New but invalid postal address provided to the application! " + selectedClient.getPostalAddress();
     			regUpFlagMap.put("faultyPostalAddress", new IllegalArgumentException(exMessage));
         	}
         	if (!emailAddressOK){
-        		LOGGER.error("New but invalid e-mail address provided to the application!", selectedClient.getEmailAddress());
+        		LOGGER.error("New but invalid e-mail address provided to the application! {}", selectedClient.getEmailAddress());
     			String exMessage = "New but invalid e-mail address provided to the application! " + selectedClient.getEmailAddress();
     			regUpFlagMap.put("faultyEmailAddress", new IllegalArgumentException(exMessage));
         	}
         	if (!nameOK){
-        		LOGGER.error("The new name format provided to the application is invalid!", selectedClient.getName());
+        		LOGGER.error("The new name format provided to the application is invalid! {}", selectedClient.getName());
     			String exMessage = "The new name format provided to the application is invalid! " + selectedClient.getName();
     			regUpFlagMap.put("faultyName", new IllegalArgumentException(exMessage));
         	}
-        }				
+        }
+        return ValidationResult.of(regUpFlagMap);
 	}
 
 	@Override
-	public void removeClient(String cnp) {
+	public ValidationResult removeClient(String cnp) {
 		/* Validate the CNP before */
 		boolean cnpOK = cnp.length() == 12 && validateClientCNP(cnp);
 		if (cnpOK){
 			clientDao.removeClient(cnp);
-		} else {
-			LOGGER.error("Invalid CNP provided to the application!", cnp);
-			String exMessage = "Invalid CNP provided to the application! " + cnp;
-			regUpFlagMap.put("faultyCNP", new IllegalArgumentException(exMessage));
-		}			
+			/* The addresses of the client are removed together with it */
+			ipAddressIndex.removeOwnerAfterCommit(cnp);
+			loanHistoryCache.invalidateClientAfterCommit(cnp);
+			return ValidationResult.valid();
+		}
+		LOGGER.error("Invalid CNP provided to the application! {}", cnp);
+		String exMessage = "Invalid CNP provided to the application! " + cnp;
+		return ValidationResult.of(Collections.singletonMap("faultyCNP", new IllegalArgumentException(exMessage)));
 	}
 
+	/* Not read-only: the check guards the registration of a new client, a lagging replica could let a duplicate CNP through */
 	@Override
 	public boolean isEmployeeCNPalreadyAssigned(String cnp) {
-		Client registeredClient = findClientByCNP(cnp);
-		if (registeredClient != null){
-			return registeredClient.getCnp().equals(cnp);
-		}
-		return false;
+		return clientDao.isCNPregistered(cnp);
 	}
 	
 }
\ No newline at end of file
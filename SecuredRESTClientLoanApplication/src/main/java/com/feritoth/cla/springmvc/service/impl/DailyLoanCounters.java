@@ -0,0 +1,181 @@
+package com.feritoth.cla.springmvc.service.impl;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.feritoth.cla.springmvc.dao.LoanDao;
+import com.feritoth.cla.springmvc.dbmodel.IPAddress;
+
+/**
+ * This class keeps the number of loans registered from every IP address per application day, so that the daily limit
+ * of the loans can be enforced without counting the loan table on every registration. The counters are spread over
+ * lock stripes by their (IP address ID, epoch day) key: the check against the limit and the increment happen under
+ * the lock of the stripe, hence two concurrent registrations from the same address can never both pass the limit.
+ *
+ * The counters of the current day are seeded from the DB at startup and again at the first registration after the
+ * day rollover, when the counters older than the previous day are dropped. A counter of any other day is read from
+ * the DB once, on its first use. An increment is taken back when the transaction of its registration rolls back and
+ * the removal of a loan decrements its counter after the commit. The counters only see the loans registered through
+ * this instance of the application - the loans inserted by other means are picked up at the next seeding.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+@Component("dailyLoanCounters")
+public class DailyLoanCounters implements InitializingBean {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DailyLoanCounters.class);
+
+	/* The number of lock stripes - a power of two */
+	private static final int STRIPE_COUNT = 64;
+
+	@Autowired
+	private LoanDao loanDao;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+	/* The epoch day whose counters were seeded for all the addresses - an address missing from it has no loans on that day */
+	private volatile long seededEpochDay = Long.MIN_VALUE;
+	private final Object rolloverLock = new Object();
+
+	public DailyLoanCounters() {
+		for (int stripeIndex = 0; stripeIndex < STRIPE_COUNT; stripeIndex++){
+			stripes[stripeIndex] = new Stripe();
+		}
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		rollOverIfNeeded();
+	}
+
+	/* The address ID in the upper and the epoch day in the lower half of the key */
+	private static long keyOf(int ipAddressID, long epochDay){
+		return ((long) ipAddressID << 32) | (epochDay & 0xFFFFFFFFL);
+	}
+
+	private static long epochDayOf(long key){
+		return (int) key;
+	}
+
+	private Stripe stripeOf(long key){
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return stripes[(int) (hash >>> 58) & (STRIPE_COUNT - 1)];
+	}
+
+	/* Seed the counters of the new day and drop the ones older than the previous day - a no-op as long as the day does not change */
+	private void rollOverIfNeeded(){
+		long today = LocalDate.now().toEpochDay();
+		if (today == seededEpochDay){
+			return;
+		}
+		synchronized (rolloverLock) {
+			if (today == seededEpochDay){
+				return;
+			}
+			/* Joins the transaction of the registration which noticed the rollover - deliberately not read-only, the counts must come from the primary */
+			Map<Integer, Integer> dailyLoanCounts = new TransactionTemplate(transactionManager).execute(status -> loanDao.countLoansPerIPAddressOnDay(LocalDate.ofEpochDay(today)));
+			for (Stripe stripe : stripes){
+				synchronized (stripe) {
+					Iterator<Long> keyIterator = stripe.loanCounts.keySet().iterator();
+					while (keyIterator.hasNext()){
+						if (epochDayOf(keyIterator.next()) < today - 1){
+							keyIterator.remove();
+						}
+					}
+				}
+			}
+			/* A counter already present for the new day was read on its first use and has seen the later registrations - it is kept as it is */
+			dailyLoanCounts.forEach((ipAddressID, loanCount) -> {
+				long key = keyOf(ipAddressID, today);
+				Stripe stripe = stripeOf(key);
+				synchronized (stripe) {
+					stripe.loanCounts.putIfAbsent(key, new int[] {loanCount});
+				}
+			});
+			seededEpochDay = today;
+			LOGGER.info("Daily loan counters seeded for " + LocalDate.ofEpochDay(today) + " with " + dailyLoanCounts.size() + " addresses");
+		}
+	}
+
+	/**
+	 * Counts a new loan from the given address on the given day, unless the address has already reached the limit.
+	 * The caller must give the slot back through {@link #decrement(Integer, LocalDate)} if the loan is not saved in
+	 * the end, or through {@link #decrementAfterRollback(Integer, LocalDate)} once it is saved.
+	 *
+	 * @param registeredAddress the registered IP address from which the loan is issued
+	 * @param applicationDay the application day of the loan
+	 * @param maximumLoanCount the maximum number of loans allowed from one address on one day
+	 *
+	 * @return true when the loan was counted, false when the limit had been reached already
+	 */
+	public boolean tryIncrement(IPAddress registeredAddress, LocalDate applicationDay, int maximumLoanCount){
+		rollOverIfNeeded();
+		long epochDay = applicationDay.toEpochDay();
+		long key = keyOf(registeredAddress.getIpAddressID(), epochDay);
+		Stripe stripe = stripeOf(key);
+		synchronized (stripe) {
+			int[] loanCount = stripe.loanCounts.get(key);
+			if (loanCount == null){
+				/* Nothing is known about this address and day yet - for any other than the seeded day, read the count once from the DB */
+				/* (under the lock of the stripe, so that a concurrent registration from the address waits for it instead of reading it as well) */
+				int initialCount = (epochDay == seededEpochDay) ? 0 : loanDao.countLoansForIPAddressOnDay(registeredAddress, applicationDay);
+				loanCount = new int[] {initialCount};
+				stripe.loanCounts.put(key, loanCount);
+			}
+			if (loanCount[0] >= maximumLoanCount){
+				return false;
+			}
+			loanCount[0]++;
+			return true;
+		}
+	}
+
+	/**
+	 * Gives back a loan counted for the given address and day.
+	 *
+	 * @param ipAddressID the ID of the IP address from which the loan was issued
+	 * @param applicationDay the application day of the loan
+	 */
+	public void decrement(Integer ipAddressID, LocalDate applicationDay){
+		long key = keyOf(ipAddressID, applicationDay.toEpochDay());
+		Stripe stripe = stripeOf(key);
+		synchronized (stripe) {
+			int[] loanCount = stripe.loanCounts.get(key);
+			/* The counter may have been dropped by a rollover in the meantime - it is then read from the DB again when needed */
+			if (loanCount != null && loanCount[0] > 0){
+				loanCount[0]--;
+			}
+		}
+	}
+
+	/* Gives the loan back if the transaction saving it rolls back */
+	public void decrementAfterRollback(Integer ipAddressID, LocalDate applicationDay){
+		TransactionCallbacks.runAfterRollback(() -> decrement(ipAddressID, applicationDay));
+	}
+
+	/* Gives the loan back once the transaction removing it has committed */
+	public void decrementAfterCommit(Integer ipAddressID, LocalDate applicationDay){
+		TransactionCallbacks.runAfterCommit(() -> decrement(ipAddressID, applicationDay));
+	}
+
+	/* A group of counters sharing one lock - the counts are single-element arrays, updated in place instead of re-put into the map */
+	private static final class Stripe {
+
+		private final Map<Long, int[]> loanCounts = new HashMap<>();
+
+	}
+
+}
@@ -0,0 +1,305 @@
+package com.feritoth.cla.springmvc.service.impl;
+
+import java.util.concurrent.locks.StampedLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.feritoth.cla.springmvc.dao.IPAddressDao;
+
+/**
+ * This class serves as in-memory index of the registered IPv4 addresses, mapping each of them to the CNP of its
+ * owner client. The addresses are encoded as primitive ints and kept in an open-addressing hash table with linear
+ * probing, so a lookup neither boxes nor allocates. The readers go through optimistic StampedLock reads and only
+ * fall back to a read lock when they raced with a writer.
+ *
+ * The index is loaded from the DB at startup and maintained by the services after the commit of the transactions
+ * registering or removing addresses. Only the canonical dotted-quad values (no leading zeros) are indexed - for
+ * any other value the index answers with {@link #isCovered(String)} false and the caller must ask the DB instead.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+@Component("ipAddressIndex")
+public class IPAddressIndex implements InitializingBean {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(IPAddressIndex.class);
+
+	/* The initial capacity (a power of two) and the maximum load factor of the hash table */
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final float MAXIMUM_LOAD_FACTOR = 0.5f;
+
+	/* The marker of a removed entry - the probing must continue past it, but its slot can be reused */
+	private static final String REMOVED_OWNER = new String("<removed>");
+
+	/* The value returned by the encoder for anything else than a canonical dotted-quad IPv4 value */
+	private static final long NOT_ENCODABLE = -1L;
+
+	@Autowired
+	private IPAddressDao ipAddressDao;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final StampedLock indexLock = new StampedLock();
+	/* The hash table: the encoded addresses and, on the same positions, the owner CNPs (null for a free slot) */
+	private int[] encodedAddresses = new int[INITIAL_CAPACITY];
+	private String[] ownerCNPs = new String[INITIAL_CAPACITY];
+	/* The number of live entries and of the slots taken by live or removed entries */
+	private int size;
+	private int usedSlots;
+
+	@Override
+	public void afterPropertiesSet() {
+		/* Read the whole address - owner mapping in one pass - deliberately not in a read-only transaction, which could be served by a lagging replica */
+		TransactionTemplate loadingTransaction = new TransactionTemplate(transactionManager);
+		loadingTransaction.executeWithoutResult(status -> ipAddressDao.scrollAllIPAddressOwners(this::put));
+		LOGGER.info("IP address index loaded with " + size + " addresses");
+	}
+
+	/**
+	 * Encodes a canonical dotted-quad IPv4 value into the 32 bits of an int, returned as a non-negative long.
+	 *
+	 * @param ipAddressValue the IP address value to be encoded
+	 *
+	 * @return the encoded address or NOT_ENCODABLE for null, malformed and non-canonical values
+	 */
+	static long encode(String ipAddressValue){
+		if (ipAddressValue == null){
+			return NOT_ENCODABLE;
+		}
+		int length = ipAddressValue.length();
+		long encodedAddress = 0L;
+		int position = 0;
+		for (int octetIndex = 0; octetIndex < 4; octetIndex++){
+			/* Every octet but the first one is preceded by a dot */
+			if (octetIndex > 0){
+				if (position >= length || ipAddressValue.charAt(position) != '.'){
+					return NOT_ENCODABLE;
+				}
+				position++;
+			}
+			int octetStart = position;
+			int octet = 0;
+			while (position < length && position - octetStart < 3){
+				char digit = ipAddressValue.charAt(position);
+				if (digit < '0' || digit > '9'){
+					break;
+				}
+				octet = octet * 10 + (digit - '0');
+				position++;
+			}
+			int octetLength = position - octetStart;
+			/* An empty octet, a value above 255 or a leading zero make the value non-canonical */
+			if (octetLength == 0 || octet > 255 || (octetLength > 1 && ipAddressValue.charAt(octetStart) == '0')){
+				return NOT_ENCODABLE;
+			}
+			encodedAddress = (encodedAddress << 8) | octet;
+		}
+		return position == length ? encodedAddress : NOT_ENCODABLE;
+	}
+
+	/* Spread the bits of the address over the whole int - the consecutive addresses of a subnet would otherwise cluster */
+	private static int slotOf(int encodedAddress, int mask){
+		int hash = encodedAddress * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+	/**
+	 * Tells whether the given value can be answered by the index - i.e. whether it is a canonical dotted-quad.
+	 */
+	public boolean isCovered(String ipAddressValue){
+		return encode(ipAddressValue) != NOT_ENCODABLE;
+	}
+
+	/**
+	 * Looks up the owner of a registered IP address.
+	 *
+	 * @param ipAddressValue the searched IP address value
+	 *
+	 * @return the CNP of the owner client or null when the address is not registered (or is not covered by the index)
+	 */
+	public String findOwnerCNP(String ipAddressValue){
+		long encodedValue = encode(ipAddressValue);
+		if (encodedValue == NOT_ENCODABLE){
+			return null;
+		}
+		int encodedAddress = (int) encodedValue;
+		long stamp = indexLock.tryOptimisticRead();
+		String ownerCNP = probe(encodedAddresses, ownerCNPs, encodedAddress);
+		if (!indexLock.validate(stamp)){
+			/* A writer got in between - repeat the probe under the read lock */
+			stamp = indexLock.readLock();
+			try {
+				ownerCNP = probe(encodedAddresses, ownerCNPs, encodedAddress);
+			} finally {
+				indexLock.unlockRead(stamp);
+			}
+		}
+		return ownerCNP;
+	}
+
+	/**
+	 * Tells whether the given IP address is registered.
+	 */
+	public boolean contains(String ipAddressValue){
+		return findOwnerCNP(ipAddressValue) != null;
+	}
+
+	private static String probe(int[] addresses, String[] owners, int encodedAddress){
+		/* An optimistic reader may pick the arrays of two different tables around a resize - the stamp validation then discards its answer */
+		if (addresses.length != owners.length){
+			return null;
+		}
+		int mask = owners.length - 1;
+		int slot = slotOf(encodedAddress, mask);
+		/* Bounded by the capacity, as an optimistic reader may see a table being modified */
+		for (int probes = 0; probes < owners.length; probes++){
+			String owner = owners[slot];
+			if (owner == null){
+				return null;
+			}
+			if (owner != REMOVED_OWNER && addresses[slot] == encodedAddress){
+				return owner;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Adds or replaces the owner of an IP address. Non-canonical values are ignored, as they are never looked up here.
+	 */
+	public void put(String ipAddressValue, String ownerCNP){
+		long encodedValue = encode(ipAddressValue);
+		if (encodedValue == NOT_ENCODABLE || ownerCNP == null){
+			return;
+		}
+		int encodedAddress = (int) encodedValue;
+		long stamp = indexLock.writeLock();
+		try {
+			if (usedSlots + 1 > ownerCNPs.length * MAXIMUM_LOAD_FACTOR){
+				rehash();
+			}
+			int mask = ownerCNPs.length - 1;
+			int slot = slotOf(encodedAddress, mask);
+			int firstRemovedSlot = -1;
+			while (ownerCNPs[slot] != null){
+				if (ownerCNPs[slot] == REMOVED_OWNER){
+					firstRemovedSlot = (firstRemovedSlot < 0) ? slot : firstRemovedSlot;
+				} else if (encodedAddresses[slot] == encodedAddress){
+					ownerCNPs[slot] = ownerCNP;
+					return;
+				}
+				slot = (slot + 1) & mask;
+			}
+			/* Not present yet: reuse the first removed slot met on the way, if any */
+			if (firstRemovedSlot >= 0){
+				slot = firstRemovedSlot;
+			} else {
+				usedSlots++;
+			}
+			encodedAddresses[slot] = encodedAddress;
+			ownerCNPs[slot] = ownerCNP;
+			size++;
+		} finally {
+			indexLock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Removes an IP address from the index.
+	 */
+	public void remove(String ipAddressValue){
+		long encodedValue = encode(ipAddressValue);
+		if (encodedValue == NOT_ENCODABLE){
+			return;
+		}
+		int encodedAddress = (int) encodedValue;
+		long stamp = indexLock.writeLock();
+		try {
+			int mask = ownerCNPs.length - 1;
+			int slot = slotOf(encodedAddress, mask);
+			while (ownerCNPs[slot] != null){
+				if (ownerCNPs[slot] != REMOVED_OWNER && encodedAddresses[slot] == encodedAddress){
+					ownerCNPs[slot] = REMOVED_OWNER;
+					size--;
+					return;
+				}
+				slot = (slot + 1) & mask;
+			}
+		} finally {
+			indexLock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Removes all the IP addresses of a client - a full scan of the table, which is fine for the rare client removals.
+	 */
+	public void removeOwner(String ownerCNP){
+		long stamp = indexLock.writeLock();
+		try {
+			for (int slot = 0; slot < ownerCNPs.length; slot++){
+				String owner = ownerCNPs[slot];
+				if (owner != null && owner != REMOVED_OWNER && owner.equals(ownerCNP)){
+					ownerCNPs[slot] = REMOVED_OWNER;
+					size--;
+				}
+			}
+		} finally {
+			indexLock.unlockWrite(stamp);
+		}
+	}
+
+	/* Rebuild the table without the removed entries - doubling its capacity when the live entries alone would fill it over the load factor */
+	private void rehash(){
+		int newCapacity = ownerCNPs.length;
+		while ((size + 1) > newCapacity * MAXIMUM_LOAD_FACTOR / 2){
+			newCapacity <<= 1;
+		}
+		int[] newAddresses = new int[newCapacity];
+		String[] newOwners = new String[newCapacity];
+		int newMask = newCapacity - 1;
+		for (int slot = 0; slot < ownerCNPs.length; slot++){
+			String owner = ownerCNPs[slot];
+			if (owner != null && owner != REMOVED_OWNER){
+				int newSlot = slotOf(encodedAddresses[slot], newMask);
+				while (newOwners[newSlot] != null){
+					newSlot = (newSlot + 1) & newMask;
+				}
+				newAddresses[newSlot] = encodedAddresses[slot];
+				newOwners[newSlot] = owner;
+			}
+		}
+		encodedAddresses = newAddresses;
+		ownerCNPs = newOwners;
+		usedSlots = size;
+	}
+
+	/**
+	 * Adds an IP address once the current transaction has committed - or right away without transaction.
+	 */
+	public void putAfterCommit(String ipAddressValue, String ownerCNP){
+		TransactionCallbacks.runAfterCommit(() -> put(ipAddressValue, ownerCNP));
+	}
+
+	/**
+	 * Removes an IP address once the current transaction has committed - or right away without transaction.
+	 */
+	public void removeAfterCommit(String ipAddressValue){
+		TransactionCallbacks.runAfterCommit(() -> remove(ipAddressValue));
+	}
+
+	/**
+	 * Removes the IP addresses of a client once the current transaction has committed - or right away without transaction.
+	 */
+	public void removeOwnerAfterCommit(String ownerCNP){
+		TransactionCallbacks.runAfterCommit(() -> removeOwner(ownerCNP));
+	}
+
+}
@@ -1,11 +1,8 @@
 package com.feritoth.cla.springmvc.service.impl;
 
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -18,6 +15,8 @@ import com.feritoth.cla.springmvc.dao.IPAddressDao;
 import com.feritoth.cla.springmvc.dbmodel.Client;
 import com.feritoth.cla.springmvc.dbmodel.IPAddress;
 import com.feritoth.cla.springmvc.service.IPAddressService;
+import com.feritoth.cla.springmvc.service.InputValidator;
+import com.feritoth.cla.springmvc.service.ValidationResult;
 
 @Service("ipAddressService")
 @Transactional
@@ -25,43 +24,26 @@ public class IPAddressSpringService implements IPAddressService {
 	
 	@Autowired
 	private IPAddressDao ipAddressDao;
-
-	private Map<String, Exception> regDelFlagMap = new HashMap<>();
 	
-	private static final Logger LOGGER = LoggerFactory.getLogger(IPAddressSpringService.class);
-	protected static final String IPADDRESS_PATTERN = "^([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\.([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\.([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\.([01]?\\d\\d?|2[0-4]\\d|25[0-5])$";
+	@Autowired
+	private IPAddressIndex ipAddressIndex;
 	
-	public Map<String, Exception> getRegDelFlagMap() {
-		return Collections.unmodifiableMap(regDelFlagMap);
-	}
+	@Autowired
+	private LoanHistoryCache loanHistoryCache;
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(IPAddressSpringService.class);
+	
 	public boolean validateIPAddress(String ipAddress) {
-		/* First, check if the supplied IP address value bears the correct identification pattern */
-		Pattern emailPattern = Pattern.compile(IPADDRESS_PATTERN);
-		Matcher matcher = emailPattern.matcher(ipAddress);
-		boolean validIPAddress = matcher.matches();
-		/* Throw an exception in case of the defined pattern not matching the selected IP address */
-		if (!validIPAddress){
-			LOGGER.error("The given IP address does not match the general validation pattern defined in the current class! " + ipAddress);
+		/* First, parse the supplied IP address value straight into an int - four dot-separated octets not above 255 */
+		long parsedAddress = InputValidator.parseIPv4(ipAddress);
+		if (parsedAddress == InputValidator.NOT_IPV4){
+			LOGGER.error("The given IP address does not match the general validation pattern of IPv4 addresses! {}", ipAddress);
 			return false;
 		}
 		/* Then check if the IP address is included in the acceptable range - i.e. remote machine addresses and IP addresses for host, broadcast and research purposes shall be excluded */
-		String[] ipAddressComponents = ipAddress.split("\\.");
-		boolean validIPAddressRange = checkIPComponentWellFormedness(ipAddressComponents[0], ipAddressComponents[3]);
-		LOGGER.info("The following validation results have been obtained:" + validIPAddress + " " + validIPAddressRange);
-		return validIPAddress && validIPAddressRange;
-	}
-	
-	private boolean checkIPComponentWellFormedness(String firstElement, String lastElement) {
-		/* Check the conditions for the first element */
-		Integer firstNb = Integer.valueOf(firstElement);
-		boolean firstCheckOK = (firstNb != 127) && (firstNb != 0) && (firstNb < 240);
-		/* Check the conditions for the last element */
-		Integer lastNb = Integer.valueOf(lastElement);
-		boolean lastCheckOK = (lastNb != 0) && (lastNb != 255);
-		/* Return the result of the check */
-		LOGGER.info("The following well-formedness results have been obtained:" + firstCheckOK + " " + lastCheckOK);
-		return firstCheckOK && lastCheckOK;
+		boolean validIPAddressRange = InputValidator.isAssignableIPv4(parsedAddress);
+		LOGGER.debug("The following range check result has been obtained for {}: {}", ipAddress, validIPAddressRange);
+		return validIPAddressRange;
 	}
 	
 	private boolean checkIfIPAddressAlreadyRegistered(String candidateAddress, String possiblyMatchingAddress){
@@ -69,33 +51,41 @@ public class IPAddressSpringService implements IPAddressService {
 	}
 	
 	@Override
+	@Transactional(readOnly = true)
 	public List<IPAddress> fetchAllAvailableIPAddresses() {
 		return ipAddressDao.getAllIPAddresses();
 	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<IPAddress> fetchIPAddressesPage(Integer afterIPAddressID, int pageSize) {
+		return ipAddressDao.getIPAddressesPage(afterIPAddressID, pageSize);
+	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<IPAddress> fetchAllAssignedIPAddressesForClient(Client searchedClient) {
 		return ipAddressDao.getAllIPAddressesForClient(searchedClient);
 	}
 	
 	@Override
+	@Transactional(readOnly = true)
 	public IPAddress findDetailsForIPvalue(String ipAddressValue) {
-		/* Check if the supplied value is registered first in the DB */
-		List<String> allRegisteredIPValues = ipAddressDao.getAllIPValues();
-		/* In case the given IP address is registered in the DB, fetch its details; otherwise, just return a null */
-		if (allRegisteredIPValues.contains(ipAddressValue)){
-			return ipAddressDao.findIPAddressDetailsForValue(ipAddressValue);
+		/* Check first in the IP index if the supplied value is registered - the values not covered by the index are looked up in the DB directly */
+		if (ipAddressIndex.isCovered(ipAddressValue) && !ipAddressIndex.contains(ipAddressValue)){
+			return null;
 		}
-		return null;
+		/* In case the given IP address is registered, fetch its details - a null is returned for an unregistered value anyway */
+		return ipAddressDao.findIPAddressDetailsForValue(ipAddressValue);
 	}
 
 	@Override
-	public void registerIPAddress(IPAddress candidateIPAddress) {
+	public ValidationResult registerIPAddress(IPAddress candidateIPAddress) {
 		/* Check the well-formedness of the candidate IP address first */
 		boolean ipAddressWellFormed = validateIPAddress(candidateIPAddress.getValue());
-		/* Clear the flag map for avoiding any unwanted overwrites from previous invocations */
-		regDelFlagMap.clear();
-		/* Check next if the value of the candidate IP address has not already been registered */
+		/* Collect the detected errors in a map of this call only - it is handed back as the immutable outcome of the call */
+		Map<String, Exception> regDelFlagMap = new HashMap<>();
+		/* Check next if the value of the candidate IP address has not already been registered - inside this write transaction, i.e. on the primary, never on a lagging replica */
 		IPAddress possiblyRegisteredAddress = ipAddressDao.findIPAddressDetailsForValue(candidateIPAddress.getValue());
 		/* Declare here the matchResult variable - do not give it any value for now */
 		boolean matchResult;
@@ -108,51 +98,57 @@ public class IPAddressSpringService implements IPAddressService {
 		/* If both preconditions successfully satisfied, register the given IP address */
 		if (ipAddressWellFormed && !matchResult){
 			ipAddressDao.saveNewIPAddress(candidateIPAddress);
+			ipAddressIndex.putAfterCommit(candidateIPAddress.getValue(), candidateIPAddress.getClient().getCnp());
 		} else {
 			/* One of the conditions is broken, therefore we have an exception to be returned */
 			if (!ipAddressWellFormed){
-				LOGGER.error("Malformed or invalid IP address provided to the application!", candidateIPAddress.getValue());
+				LOGGER.error("Malformed or invalid IP address provided to the application! {}", candidateIPAddress.getValue());
     			String exMessage = "Malformed or invalid IP address provided to the application! " + candidateIPAddress.getValue();
     			regDelFlagMap.put("faultyIPAddressValue", new IllegalArgumentException(exMessage));
 			}
 			if (matchResult){
-				LOGGER.error("The provided IP address has already been registered for another client!", candidateIPAddress.getValue());
+				LOGGER.error("The provided IP address has already been registered for another client! {}", candidateIPAddress.getValue());
     			String exMessage = "Duplicate IP address provided to the application! " + candidateIPAddress.getValue();
     			regDelFlagMap.put("reservedIPAddress", new IllegalArgumentException(exMessage));
 			}
 		}
+		return ValidationResult.of(regDelFlagMap);
 	}
 
 	@Override
-	public void removeIPAddress(String candidateIPAddress) {
+	public ValidationResult removeIPAddress(String candidateIPAddress) {
 		/* Validate the IP address value before usage */
 		/* Check the well-formedness */
 		boolean ipAddressWellFormed = validateIPAddress(candidateIPAddress);
-		/* Clear the flag map for avoiding any overwrites from previous invocations */
-		regDelFlagMap.clear();
-		/* Check if the given address is present in the DB */
+		/* Collect the detected errors in a map of this call only - it is handed back as the immutable outcome of the call */
+		Map<String, Exception> regDelFlagMap = new HashMap<>();
+		/* Check if the given address is present in the DB - inside this write transaction, i.e. on the primary, never on a lagging replica */
 		IPAddress possiblyRegisteredAddress = ipAddressDao.findIPAddressDetailsForValue(candidateIPAddress);
 		if (possiblyRegisteredAddress == null) {
-			LOGGER.error("The provided IP address has not yet been registered in the application database!", candidateIPAddress);
+			LOGGER.error("The provided IP address has not yet been registered in the application database! {}", candidateIPAddress);
 			String exMessage = "Unregistered IP address provided to the application! " + candidateIPAddress;
 			regDelFlagMap.put("unassignedIPAddress", new IllegalArgumentException(exMessage));
 		} else {
 			boolean matchResult = checkIfIPAddressAlreadyRegistered(candidateIPAddress, possiblyRegisteredAddress.getValue());
 			if (ipAddressWellFormed && matchResult){
 				ipAddressDao.removeIPAddressForClient(candidateIPAddress);
+				ipAddressIndex.removeAfterCommit(candidateIPAddress);
+				/* The loans of the address are removed together with it */
+				loanHistoryCache.invalidateIPAddressAfterCommit(candidateIPAddress);
 			} else {
 				if (!ipAddressWellFormed){
-					LOGGER.error("Malformed or invalid IP address provided to the application!", candidateIPAddress);
+					LOGGER.error("Malformed or invalid IP address provided to the application! {}", candidateIPAddress);
 	    			String exMessage = "Malformed or invalid IP address provided to the application! " + candidateIPAddress;
 	    			regDelFlagMap.put("faultyIPAddressValue", new IllegalArgumentException(exMessage));
 				}
 				if (!matchResult){
-					LOGGER.error("The provided IP address has not yet been registered for any client!", candidateIPAddress);
+					LOGGER.error("The provided IP address has not yet been registered for any client! {}", candidateIPAddress);
 	    			String exMessage = "Unregistered IP address provided to the application! " + candidateIPAddress;
 	    			regDelFlagMap.put("unassignedIPAddress", new IllegalArgumentException(exMessage));
 				}
 			}
-		}				
+		}
+		return ValidationResult.of(regDelFlagMap);
 	}	
 
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.feritoth.cla.springmvc.service.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.springframework.stereotype.Component;
+
+import com.feritoth.cla.springmvc.jsonmodel.SerializedLoan;
+
+/**
+ * This class keeps the histories of the recently viewed loans - i.e. the loan views together with their IP address
+ * and owner client - in a bounded map evicting the least recently viewed one once the capacity is reached. Only the
+ * wire form is kept: unlike the entities, it is not bound to any session and it is shared by the request threads as a
+ * read-only value, hence a cached view must never be modified.
+ *
+ * The entries are invalidated after the commit of every transaction changing a loan, its IP address or its client.
+ * A history read from the DB is only cached when no invalidation happened since the read started, so that a reader
+ * racing with a writer can never put back the state the writer has just replaced.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+@Component("loanHistoryCache")
+public class LoanHistoryCache {
+
+	/* The maximum number of loan histories kept in memory */
+	private static final int MAXIMUM_CACHED_HISTORIES = 1000;
+
+	/* An access-ordered map: the eldest entry is always the least recently viewed one */
+	private final Map<Integer, SerializedLoan> cachedHistories = new LinkedHashMap<Integer, SerializedLoan>(MAXIMUM_CACHED_HISTORIES * 4 / 3 + 1, 0.75f, true) {
+
+		private static final long serialVersionUID = -2473590417120765843L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, SerializedLoan> eldestEntry) {
+			return size() > MAXIMUM_CACHED_HISTORIES;
+		}
+
+	};
+
+	/* Incremented by every invalidation - compared against the value seen by the readers before they went to the DB */
+	private long invalidationGeneration;
+	private long hitCount;
+	private long missCount;
+
+	/**
+	 * Returns the cached history of a loan.
+	 *
+	 * @param loanID the ID of the searched loan
+	 *
+	 * @return the cached loan view or null when its history is not cached
+	 */
+	public synchronized SerializedLoan get(Integer loanID){
+		SerializedLoan cachedLoan = cachedHistories.get(loanID);
+		if (cachedLoan == null){
+			missCount++;
+		} else {
+			hitCount++;
+		}
+		return cachedLoan;
+	}
+
+	/**
+	 * Returns the current invalidation generation - to be read before loading a history from the DB and passed to {@link #put(SerializedLoan, long)}.
+	 */
+	public synchronized long currentGeneration(){
+		return invalidationGeneration;
+	}
+
+	/**
+	 * Caches the history of a loan, unless an invalidation happened since the given generation was read.
+	 *
+	 * @param loan the loan view read from the DB, with its IP address and client
+	 * @param readGeneration the generation returned by {@link #currentGeneration()} before the loan was read
+	 */
+	public synchronized void put(SerializedLoan loan, long readGeneration){
+		if (readGeneration == invalidationGeneration){
+			cachedHistories.put(loan.getLoanID(), loan);
+		}
+	}
+
+	/**
+	 * Drops the history of a loan once the current transaction has committed.
+	 */
+	public void invalidateLoanAfterCommit(Integer loanID){
+		TransactionCallbacks.runAfterCommit(() -> invalidate(cachedLoan -> cachedLoan.getLoanID().equals(loanID)));
+	}
+
+	/**
+	 * Drops the histories of all the loans of a client once the current transaction has committed.
+	 */
+	public void invalidateClientAfterCommit(String cnp){
+		TransactionCallbacks.runAfterCommit(() -> invalidate(cachedLoan -> cachedLoan.getIpAddress().getOwnerClient().getCnp().equals(cnp)));
+	}
+
+	/**
+	 * Drops the histories of all the loans of an IP address once the current transaction has committed.
+	 */
+	public void invalidateIPAddressAfterCommit(String ipAddressValue){
+		TransactionCallbacks.runAfterCommit(() -> invalidate(cachedLoan -> cachedLoan.getIpAddress().getIpValue().equals(ipAddressValue)));
+	}
+
+	/* A scan over at most MAXIMUM_CACHED_HISTORIES entries - cheap compared to the write which triggered it */
+	private synchronized void invalidate(Predicate<SerializedLoan> staleHistory){
+		invalidationGeneration++;
+		Iterator<SerializedLoan> cachedLoans = cachedHistories.values().iterator();
+		while (cachedLoans.hasNext()){
+			if (staleHistory.test(cachedLoans.next())){
+				cachedLoans.remove();
+			}
+		}
+	}
+
+	/**
+	 * Builds a point-in-time view of the cache usage.
+	 *
+	 * @return an insertion-ordered map suitable for the JSON output
+	 */
+	public synchronized Map<String, Object> snapshot(){
+		Map<String, Object> cacheView = new LinkedHashMap<>();
+		cacheView.put("size", cachedHistories.size());
+		cacheView.put("capacity", MAXIMUM_CACHED_HISTORIES);
+		cacheView.put("hits", hitCount);
+		cacheView.put("misses", missCount);
+		cacheView.put("invalidations", invalidationGeneration);
+		return cacheView;
+	}
+
+}
@@ -1,13 +1,16 @@
 package com.feritoth.cla.springmvc.service.impl;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,11 +20,14 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.feritoth.cla.springmvc.dao.IPAddressDao;
 import com.feritoth.cla.springmvc.dao.LoanDao;
+import com.feritoth.cla.springmvc.dao.LoanDao.LoanRowHandler;
 import com.feritoth.cla.springmvc.dbmodel.Client;
 import com.feritoth.cla.springmvc.dbmodel.IPAddress;
 import com.feritoth.cla.springmvc.dbmodel.Loan;
 import com.feritoth.cla.springmvc.dbmodel.LoanCurrency;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedLoan;
 import com.feritoth.cla.springmvc.service.LoanService;
+import com.feritoth.cla.springmvc.service.ValidationResult;
 
 @Repository("loanService")
 @Transactional
@@ -35,20 +41,19 @@ public class LoanSpringService implements LoanService {
 	@Autowired
 	private IPAddressDao ipAddressDao;
 	
-	/* Declare here the map of exceptions used during the loan registration and extension operations */
-	private Map<String, Exception> regUpFlagMap = new HashMap<>();
+	@Autowired
+	private LoanHistoryCache loanHistoryCache;
 	
-	@Override
-	public Map<String, Exception> getRegUpFlagMap() {		
-		return Collections.unmodifiableMap(regUpFlagMap);
-	}
+	@Autowired
+	private DailyLoanCounters dailyLoanCounters;
 	
 	private boolean checkIfMaximumLoanExtensionDurationReached(LocalDate initialReturnDate,	LocalDate newReturnDate) {
 		long weeksBetweenLoanReturns = ChronoUnit.WEEKS.between(initialReturnDate, newReturnDate);
 		return weeksBetweenLoanReturns < 52;
 	}
 	
-	private boolean validateLoanPeriodForRegistration(LocalDateTime loanRegistrationDateTime, LocalDate loanReturnDate){		
+	/* The loan rules are package-private rather than private, so that LoanRulesBenchmark (LoanApplicationBenchmarks) can measure them */
+	boolean validateLoanPeriodForRegistration(LocalDateTime loanRegistrationDateTime, LocalDate loanReturnDate){		
 		/* Check first if the return date is after the initially given one */
 		boolean datesCorrect = loanRegistrationDateTime.toLocalDate().isBefore(loanReturnDate);
 		/* Then see how many weeks are between the given dates - in case of registration, this number must be at exactly 1 */
@@ -60,7 +65,7 @@ public class LoanSpringService implements LoanService {
 		return loanDurationLength == 1 && loanDurationRemainder == 0 && datesCorrect;
 	}
 	
-	private boolean validateLoanPeriodForExtension(LocalDate initialReturnDate, LocalDate newReturnDate){
+	boolean validateLoanPeriodForExtension(LocalDate initialReturnDate, LocalDate newReturnDate){
 		/* Check first if the new return date is after the initially given one */
 		boolean datesCorrect = initialReturnDate.isBefore(newReturnDate);
 		/* Then see how many weeks are between the given dates - in case of extension, this number must be at least 2 */
@@ -72,17 +77,7 @@ public class LoanSpringService implements LoanService {
 		return loanDurationLength >= 2 && loanDurationRemainder == 0 && datesCorrect;
 	}
 	
-	private boolean validateLoanIPAddress(IPAddress loanAddress){
-		IPAddress registeredAddress = ipAddressDao.findIPAddressDetailsForValue(loanAddress.getValue());
-		return loanAddress.equals(registeredAddress);
-	}
-	
-	private boolean checkDailyLoanNbForIPAddressOnDate(IPAddress ipAddress, LocalDate applicationDate){
-		int currentLoanCount = loanDao.countLoansForIPAddressOnDay(ipAddress, applicationDate);
-		return currentLoanCount >= MAXIMUM_LOAN_NB_PER_DAY;
-	}
-	
-	private boolean validateRegularLoanAmount(LoanCurrency currency, Long loanAmount){
+	boolean validateRegularLoanAmount(LoanCurrency currency, Long loanAmount){
 		boolean loanAmountValid = false;
 		switch(currency){
 		case CZK:
@@ -95,7 +90,7 @@ public class LoanSpringService implements LoanService {
 		return loanAmountValid;
 	}
 	
-	private boolean validateRiskLoanAmount(LoanCurrency currency, Long loanAmount){
+	boolean validateRiskLoanAmount(LoanCurrency currency, Long loanAmount){
 		boolean loanAmountValid = false;
 		switch(currency){
 		case CZK:
@@ -108,102 +103,177 @@ public class LoanSpringService implements LoanService {
 		return loanAmountValid;
 	}
 	
-	private boolean validateRiskLoanApplicationTime(LocalTime applicationTime){
+	boolean validateRiskLoanApplicationTime(LocalTime applicationTime){
 		LocalTime midnightTime = LocalTime.MIDNIGHT;
 		LocalTime morningTime = LocalTime.of(6, 0, 0);
 		return (applicationTime.isAfter(midnightTime) || applicationTime.equals(midnightTime)) && (applicationTime.isBefore(morningTime) || applicationTime.equals(morningTime)); 
 	}
 	
-	private long computeInitialInterestRateForLoan(Long loanAmount){
+	long computeInitialInterestRateForLoan(Long loanAmount){
 		return loanAmount * 10 / 100;
 	}
 	
-	private long computeNewInterestRateForLoan(Long interestRate) {		
+	long computeNewInterestRateForLoan(Long interestRate) {		
 		return interestRate * 15 / 10;
 	}
 	
 	@Override
-	public List<Loan> fetchAllLoans() {
+	@Transactional(readOnly = true)
+	public List<SerializedLoan> fetchAllLoans() {
 		return loanDao.getAllRegisteredLoans();
 	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public void streamAllLoans(LoanRowHandler loanRowHandler) throws IOException {
+		loanDao.scrollAllRegisteredLoans(loanRowHandler);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<SerializedLoan> fetchLoansPage(Integer afterLoanID, int pageSize) {
+		return loanDao.getRegisteredLoansPage(afterLoanID, pageSize);
+	}
 
 	@Override
-	public List<Loan> getAllLoansForClient(Client client) {
-		return loanDao.getAllLoansForClient(client);
+	@Transactional(readOnly = true)
+	public List<SerializedLoan> getAllLoansForClient(Client client) {
+		return loanDao.getAllLoansForClient(client.getCnp());
 	}
 
 	@Override
-	public List<Loan> findAllLoansForIPAddress(IPAddress ipAddress) {
-		return loanDao.getAllLoansForIPAddress(ipAddress);
+	@Transactional(readOnly = true)
+	public List<SerializedLoan> findAllLoansForIPAddress(IPAddress ipAddress) {
+		return loanDao.getAllLoansForIPAddress(ipAddress.getIpAddressID());
 	}
 
+	/* Not read-only: the loan is checked before its extension and removal and it ends up in the history cache, hence it must come from the primary */
 	@Override
-	public Loan fetchHistoryForLoanID(Integer loanID) {
-		int allLoansCount = loanDao.countAllLoansFromDB();
-		if (loanID > allLoansCount){
-			return null;
+	public SerializedLoan fetchHistoryForLoanID(Integer loanID) {
+		/* Serve the recently viewed loans from memory */
+		SerializedLoan cachedLoan = loanHistoryCache.get(loanID);
+		if (cachedLoan != null){
+			return cachedLoan;
+		}
+		/* Otherwise, read the loan view with its IP address and client in one go and keep it for the next views */
+		long cacheGeneration = loanHistoryCache.currentGeneration();
+		SerializedLoan selectedLoan = loanDao.getLoanViewByID(loanID);
+		if (selectedLoan != null){
+			loanHistoryCache.put(selectedLoan, cacheGeneration);
 		}
-		return loanDao.getLoanHistoryByID(loanID);
+		return selectedLoan;
 	}
 
-	@Override
-	public void registerNewLoan(Loan newLoan) {
-		/* As a prerequisite, empty the flag map in order to avoid the occurrence of previously detected problems */
-		regUpFlagMap.clear();
-		/* Then start with the examination of the submitted loan */
-		/* First, check if the IP address of the loan is registered in the DB */
-		boolean validIPAddress = validateLoanIPAddress(newLoan.getIpAddress());
-		/* Second, validate the duration period of the given loan */
+	/* Check the registration pre-conditions of the loan (IP address, duration, amount) and record the failed ones in the given map */
+	private boolean checkRegistrationPreconditions(Loan newLoan, boolean validIPAddress, Map<String, Exception> flagMap){
+		/* Validate the duration period of the given loan */
 		boolean validDuration = validateLoanPeriodForRegistration(newLoan.getApplicationTime(), newLoan.getPaybackDate());
-		/* Third, see if the loan amount is allowed to be done */
+		/* Then see if the loan amount is allowed to be done */
 		boolean regularLoanAmountValid = validateRegularLoanAmount(newLoan.getCurrency(), newLoan.getAmount());
+		if (!validIPAddress){
+			LOGGER.error("Impossible to register loan due to invalid or unregistered IP address! {}", newLoan.getIpAddress().getValue());
+			flagMap.put("faultyIPAddress", new IllegalArgumentException("Loan cannot be saved due to the invalidity of the assigned IP address!"));				
+		}
+		if (!validDuration){
+			LOGGER.error("Impossible to register loan due to invalid duration period! {} - {}", newLoan.getApplicationTime(), newLoan.getPaybackDate());
+			flagMap.put("faultyLoanDuration", new IllegalArgumentException("Loan cannot be saved due to the invalidity of the duration period!"));				
+		}
+		if (!regularLoanAmountValid){
+			if (newLoan.getAmount() <= 0){
+				LOGGER.error("Impossible to register loan due to negative or zero amount introduced by user! {}", newLoan.getAmount());
+				flagMap.put("negativeOrZeroLoanAmount", new IllegalArgumentException("Loan cannot be saved due to negative or zero amount introduced by user!"));					
+			} else {
+				LOGGER.error("Impossible to register loan due to overlap of maximum allowed amount (CZK = 30000, EUR = 15000)! {}", newLoan.getAmount());
+				flagMap.put("maximumLoanAmountOverlapped", new IllegalArgumentException("Loan cannot be saved due to overlap of the maximum allowed amount (CZK = 30000, EUR = 15000) for the chosen currency!"));					
+			}				
+		}
+		return validIPAddress && validDuration && regularLoanAmountValid;
+	}
+	
+	/* Do the quick risk analysis of a loan which fulfilled the pre-conditions and record the detected risk in the given map */
+	private boolean checkRegistrationRisks(Loan newLoan, boolean maximumLoansPerDayReached, Map<String, Exception> flagMap){
+		/* Add in 2 parts the risk conditions related to the maximum possible amount to be requested and the application time */
+		boolean riskLoanAmountValid = validateRiskLoanAmount(newLoan.getCurrency(), newLoan.getAmount());
+		boolean riskLoanTimeValid = validateRiskLoanApplicationTime(newLoan.getApplicationTime().toLocalTime());			
+		if (maximumLoansPerDayReached){
+			LOGGER.error("Risk level surrounding loan is high due to overlap of maximum daily loan limit given for an IP Address!");
+			flagMap.put("maximumLoanNumberPerIPForDay", new IllegalArgumentException("Loan cannot be saved due to the exceed on the number of allowed loans (currently set to 3) from the selected IP for a day!"));				
+			return false;
+		}
+		if (riskLoanAmountValid && riskLoanTimeValid){
+			LOGGER.error("Risk level surrounding loan is high due to unsuitable risk application period and maximum allowable loan value!");
+			flagMap.put("timePeriodLoanRisk", new IllegalArgumentException("Loan cannot be saved due to a high risk level on the application time and granted amount! (CZK = 30000, EUR = 15000, between midnight and 6 AM in the morning)"));
+			return false;
+		}
+		/* Compute the value of interest rate before saving the given rate */
+		newLoan.setInterestRate(computeInitialInterestRateForLoan(newLoan.getAmount()));
+		/* Also, mark the extension flag for the newly registered loan */
+		newLoan.setExtended(Boolean.FALSE);
+		return true;
+	}
+
+	@Override
+	public ValidationResult registerNewLoan(Loan newLoan) {
+		/* Collect the detected problems in a map of this call only - it is handed back as the immutable outcome of the call */
+		Map<String, Exception> regUpFlagMap = new HashMap<>();
+		/* Then start with the examination of the submitted loan: first, check if the IP address of the loan is registered in the DB - on the primary, as part of this write transaction */
+		IPAddress registeredAddress = ipAddressDao.findIPAddressDetailsForValue(newLoan.getIpAddress().getValue());
+		boolean validIPAddress = newLoan.getIpAddress().equals(registeredAddress);
 		/* For all registration pre-conditions fulfilled, do quick risk analysis of the surrounding loan before registration */
-		if (validIPAddress && validDuration && regularLoanAmountValid){
-			/* First, see if the number of loans for the given IP address and application date exceeds the maximum limit */
-			boolean maximumLoansPerDayReached = checkDailyLoanNbForIPAddressOnDate(newLoan.getIpAddress(), newLoan.getApplicationTime().toLocalDate());
-			/* Second, add in 2 parts the risk conditions related to the maximum possible amount to be requested and the application time */
-			boolean riskLoanAmountValid = validateRiskLoanAmount(newLoan.getCurrency(), newLoan.getAmount());
-			boolean riskLoanTimeValid = validateRiskLoanApplicationTime(newLoan.getApplicationTime().toLocalTime());			
+		if (checkRegistrationPreconditions(newLoan, validIPAddress, regUpFlagMap)){
+			/* Take one of the daily loan slots of the registered address - from the in-memory counters, atomically with the check against the maximum limit */
+			LocalDate applicationDay = newLoan.getApplicationTime().toLocalDate();
+			boolean loanCounted = dailyLoanCounters.tryIncrement(registeredAddress, applicationDay, MAXIMUM_LOAN_NB_PER_DAY);
 			/* Check also if the risk conditions are fulfilled before the effective save of the loan */
-			if (maximumLoansPerDayReached){
-				LOGGER.error("Risk level surrounding loan is high due to overlap of maximum daily loan limit given for an IP Address!");
-				regUpFlagMap.put("maximumLoanNumberPerIPForDay", new IllegalArgumentException("Loan cannot be saved due to the exceed on the number of allowed loans (currently set to 3) from the selected IP for a day!"));				
-			} else if (riskLoanAmountValid && riskLoanTimeValid){
-				LOGGER.error("Risk level surrounding loan is high due to unsuitable risk application period and maximum allowable loan value!");
-				regUpFlagMap.put("timePeriodLoanRisk", new IllegalArgumentException("Loan cannot be saved due to a high risk level on the application time and granted amount! (CZK = 30000, EUR = 15000, between midnight and 6 AM in the morning)"));
-			} else {
-			    /* Compute the value of interest rate before saving the given rate */
-				newLoan.setInterestRate(computeInitialInterestRateForLoan(newLoan.getAmount()));
-				/* Also, mark the extension flag for the newly registered loan */
-				newLoan.setExtended(Boolean.FALSE);
-				/* Finally, save the loan in the database */
+			if (checkRegistrationRisks(newLoan, !loanCounted, regUpFlagMap)){
+				/* Finally, save the loan in the database - its slot is given back if the transaction does not commit */
+				dailyLoanCounters.decrementAfterRollback(registeredAddress.getIpAddressID(), applicationDay);
 			    loanDao.saveNewLoan(newLoan);
+			} else if (loanCounted){
+				dailyLoanCounters.decrement(registeredAddress.getIpAddressID(), applicationDay);
 			}
-		} else {
-			if (!validIPAddress){
-				LOGGER.error("Impossible to register loan due to invalid or unregistered IP address! ", newLoan.getIpAddress().getValue());
-				regUpFlagMap.put("faultyIPAddress", new IllegalArgumentException("Loan cannot be saved due to the invalidity of the assigned IP address!"));				
-			}
-			if (!validDuration){
-				LOGGER.error("Impossible to register loan due to invalid duration period! ", newLoan.getApplicationTime(), newLoan.getPaybackDate());
-				regUpFlagMap.put("faultyLoanDuration", new IllegalArgumentException("Loan cannot be saved due to the invalidity of the duration period!"));				
-			}
-			if (!regularLoanAmountValid){
-				if (newLoan.getAmount() <= 0){
-					LOGGER.error("Impossible to register loan due to negative or zero amount introduced by user! ", newLoan.getAmount());
-					regUpFlagMap.put("negativeOrZeroLoanAmount", new IllegalArgumentException("Loan cannot be saved due to negative or zero amount introduced by user!"));					
-				} else {
-					LOGGER.error("Impossible to register loan due to overlap of maximum allowed amount (CZK = 30000, EUR = 15000)! ", newLoan.getAmount());
-					regUpFlagMap.put("maximumLoanAmountOverlapped", new IllegalArgumentException("Loan cannot be saved due to overlap of the maximum allowed amount (CZK = 30000, EUR = 15000) for the chosen currency!"));					
-				}				
+		}
+		return ValidationResult.of(regUpFlagMap);
+	}
+	
+	@Override
+	public List<ValidationResult> registerNewLoanBatch(List<Loan> candidateLoans) {
+		/* Resolve all the IP addresses of the batch in a single query */
+		Set<String> candidateIPValues = new HashSet<>();
+		candidateLoans.forEach(candidateLoan -> candidateIPValues.add(candidateLoan.getIpAddress().getValue()));
+		Map<String, IPAddress> registeredAddresses = new HashMap<>();
+		ipAddressDao.findIPAddressesForValues(candidateIPValues).forEach(ipAddress -> registeredAddresses.put(ipAddress.getValue(), ipAddress));
+		/* Examine the loans in their submission order - the accepted ones take their slots in the daily loan counters, so that the later loans of the batch see them */
+		List<ValidationResult> batchResults = new ArrayList<>(candidateLoans.size());
+		List<Loan> acceptedLoans = new ArrayList<>();
+		for (Loan candidateLoan : candidateLoans){
+			Map<String, Exception> loanFlagMap = new HashMap<>();
+			IPAddress registeredAddress = registeredAddresses.get(candidateLoan.getIpAddress().getValue());
+			if (checkRegistrationPreconditions(candidateLoan, registeredAddress != null, loanFlagMap)){
+				LocalDate applicationDay = candidateLoan.getApplicationTime().toLocalDate();
+				boolean loanCounted = dailyLoanCounters.tryIncrement(registeredAddress, applicationDay, MAXIMUM_LOAN_NB_PER_DAY);
+				if (checkRegistrationRisks(candidateLoan, !loanCounted, loanFlagMap)){
+					/* Bind the loan to the registered address, so that it is saved with the ID known by the DB */
+					candidateLoan.setIpAddress(registeredAddress);
+					dailyLoanCounters.decrementAfterRollback(registeredAddress.getIpAddressID(), applicationDay);
+					acceptedLoans.add(candidateLoan);
+				} else if (loanCounted){
+					dailyLoanCounters.decrement(registeredAddress.getIpAddressID(), applicationDay);
+				}
 			}
+			batchResults.add(ValidationResult.of(loanFlagMap));
 		}
+		/* Finally, save all the accepted loans at once */
+		if (!acceptedLoans.isEmpty()){
+			loanDao.saveNewLoans(acceptedLoans);
+		}
+		return batchResults;
 	}
 
 	@Override
-	public void extendExistingLoan(Loan existingLoan) {
-		/* As a prerequisite, empty the flag map in order to avoid unwanted overwrites from previous invocations */
-		regUpFlagMap.clear();
+	public ValidationResult extendExistingLoan(Loan existingLoan) {
+		/* Collect the detected problems in a map of this call only - it is handed back as the immutable outcome of the call */
+		Map<String, Exception> regUpFlagMap = new HashMap<>();
 		/* First, check if the new duration of the loan is valid */
 		boolean newValidDuration = validateLoanPeriodForExtension(existingLoan.getApplicationTime().toLocalDate(), existingLoan.getPaybackDate());
 		/* Second, check if the difference between the 2 dates does not exceed 52 weeks (i.e. 1 calendaristic year)*/
@@ -217,24 +287,32 @@ public class LoanSpringService implements LoanService {
 			existingLoan.setInterestRate(newInterestRate);
 			/* Finally, call the update method */
 			loanDao.updateLoan(existingLoan);
+			loanHistoryCache.invalidateLoanAfterCommit(existingLoan.getLoanID());
 		} else {
 			/* Check which of the new parameters was supplied in the wrong format */
 			if (!newValidDuration){
-				LOGGER.error("Impossible to update loan due to the invalidity of the specified new period!", existingLoan.getApplicationTime().toLocalDate(), existingLoan.getPaybackDate());
+				LOGGER.error("Impossible to update loan due to the invalidity of the specified new period! {} - {}", existingLoan.getApplicationTime().toLocalDate(), existingLoan.getPaybackDate());
 				String exMessage = "Impossible to update loan due to the invalidity of the specified new period!" + existingLoan.getApplicationTime().toLocalDate() + " " + existingLoan.getPaybackDate();
 				regUpFlagMap.put("faultyLoanDuration", new IllegalArgumentException(exMessage));
 			} 
 			if (!durationLimitNotExceeded){
-				LOGGER.error("Impossible to update loan due to the exceed of the maximum extensibility period!", existingLoan.getApplicationTime().toLocalDate(), existingLoan.getPaybackDate());
+				LOGGER.error("Impossible to update loan due to the exceed of the maximum extensibility period! {} - {}", existingLoan.getApplicationTime().toLocalDate(), existingLoan.getPaybackDate());
 				String exMessage = "Impossible to update loan due to the exceed of the maximum extensibility period!" + existingLoan.getApplicationTime().toLocalDate() + " " + existingLoan.getPaybackDate();
 				regUpFlagMap.put("maximumExtensibilityReached", new IllegalArgumentException(exMessage));
 			}			
 		}
+		return ValidationResult.of(regUpFlagMap);
 	}	
 
 	@Override
 	public void removeLoan(Integer loanID) {
-		loanDao.removeLoan(loanID);		
+		/* Read the address and the application day of the loan first - its slot in the daily loan counters is given back after the commit */
+		Loan removedLoan = loanDao.getLoanHistoryByID(loanID);
+		loanDao.removeLoan(loanID);
+		loanHistoryCache.invalidateLoanAfterCommit(loanID);
+		if (removedLoan != null){
+			dailyLoanCounters.decrementAfterCommit(removedLoan.getIpAddress().getIpAddressID(), removedLoan.getApplicationTime().toLocalDate());
+		}
 	}	
 
 }
\ No newline at end of file
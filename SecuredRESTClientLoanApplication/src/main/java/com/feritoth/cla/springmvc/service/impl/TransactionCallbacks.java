@@ -0,0 +1,57 @@
+package com.feritoth.cla.springmvc.service.impl;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * This class gathers the helpers used by the services for deferring the maintenance of their in-memory structures
+ * (indexes, caches, counters) until the outcome of the current transaction is known.
+ *
+ * @author Frantisek Slovak
+ *
+ */
+final class TransactionCallbacks {
+
+	private TransactionCallbacks() {
+	}
+
+	/**
+	 * Runs the given action once the current transaction has committed - or right away when there is no transaction.
+	 * A rolled back change therefore never reaches the in-memory structures.
+	 *
+	 * @param action the action to be run after the commit
+	 */
+	static void runAfterCommit(Runnable action){
+		if (!TransactionSynchronizationManager.isSynchronizationActive()){
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	/**
+	 * Runs the given action once the current transaction has rolled back - nothing happens when there is no transaction.
+	 * Used for taking back the in-memory changes made ahead of the commit.
+	 *
+	 * @param action the action to be run after the rollback
+	 */
+	static void runAfterRollback(Runnable action){
+		if (!TransactionSynchronizationManager.isSynchronizationActive()){
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status == STATUS_ROLLED_BACK){
+					action.run();
+				}
+			}
+		});
+	}
+
+}
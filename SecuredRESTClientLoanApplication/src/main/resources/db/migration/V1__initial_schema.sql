@@ -0,0 +1,32 @@
+-- Initial schema of the loan risk application (DB model version 1)
+-- Databases created before the introduction of the migrations are baselined at this version, hence this script only runs on empty schemas
+
+CREATE TABLE client (
+	CNP CHAR(12) NOT NULL,
+	Name VARCHAR(100) NOT NULL,
+	EmailAddress VARCHAR(100) NOT NULL,
+	PostalAddress VARCHAR(100) NOT NULL,
+	PRIMARY KEY (CNP)
+);
+
+CREATE TABLE ipaddress (
+	IPAddressID INT NOT NULL AUTO_INCREMENT,
+	Value VARCHAR(45) NOT NULL,
+	ClientCNP CHAR(12) NOT NULL,
+	PRIMARY KEY (IPAddressID),
+	CONSTRAINT uk_ipaddress_value UNIQUE (Value),
+	CONSTRAINT fk_ipaddress_client FOREIGN KEY (ClientCNP) REFERENCES client (CNP) ON DELETE CASCADE
+);
+
+CREATE TABLE loan (
+	LoanID INT NOT NULL AUTO_INCREMENT,
+	IPAddressID INT NOT NULL,
+	ApplicationTime DATETIME NOT NULL,
+	LoanReturnDate DATE NOT NULL,
+	Amount INT NOT NULL,
+	Currency CHAR(3) NOT NULL,
+	IsExtended ENUM('Y', 'N') NOT NULL,
+	InterestRate INT NOT NULL,
+	PRIMARY KEY (LoanID),
+	CONSTRAINT fk_loan_ipaddress FOREIGN KEY (IPAddressID) REFERENCES ipaddress (IPAddressID) ON DELETE CASCADE
+);
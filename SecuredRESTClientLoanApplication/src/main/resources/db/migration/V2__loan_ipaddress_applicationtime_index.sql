@@ -0,0 +1,4 @@
+-- Composite index serving the daily loan count of an IP address: equality on IPAddressID, then a range on ApplicationTime
+-- Its leading column also covers the foreign key of the loan towards its IP address
+
+CREATE INDEX idx_loan_ipaddress_applicationtime ON loan (IPAddressID, ApplicationTime);
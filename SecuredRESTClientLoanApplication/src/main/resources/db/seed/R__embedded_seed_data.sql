@@ -0,0 +1,20 @@
+-- Seed data of the embedded profile - a repeatable migration, hence it runs after all the versioned ones on every fresh in-memory database
+-- The CNPs, e-mail and postal addresses follow the validation rules of the client registration
+
+INSERT INTO client (CNP, Name, EmailAddress, PostalAddress) VALUES
+	('190071130101', 'Jan Novak', 'jan.novak@gmail.com', 'Vaclavske namesti 1, Praha 1'),
+	('290071130102', 'Eva Svobodova', 'eva.svobodova@gmail.com', 'Narodni trida 10, Praha 1'),
+	('190071130103', 'Petr Dvorak', 'petr.dvorak@gmail.com', 'Vinohradska 25, Praha 2');
+
+INSERT INTO ipaddress (Value, ClientCNP) VALUES
+	('192.168.10.1', '190071130101'),
+	('192.168.10.2', '190071130101'),
+	('192.168.20.1', '290071130102'),
+	('192.168.30.1', '190071130103');
+
+INSERT INTO loan (IPAddressID, ApplicationTime, LoanReturnDate, Amount, Currency, IsExtended, InterestRate) VALUES
+	((SELECT IPAddressID FROM ipaddress WHERE Value = '192.168.10.1'), '2016-12-12 10:00:00', '2016-12-19', 1000, 'CZK', 'N', 100),
+	((SELECT IPAddressID FROM ipaddress WHERE Value = '192.168.10.1'), '2016-12-13 11:30:00', '2016-12-20', 5000, 'CZK', 'N', 500),
+	((SELECT IPAddressID FROM ipaddress WHERE Value = '192.168.10.2'), '2016-12-14 09:15:00', '2016-12-28', 200, 'EUR', 'Y', 30),
+	((SELECT IPAddressID FROM ipaddress WHERE Value = '192.168.20.1'), '2016-12-12 14:45:00', '2016-12-19', 15000, 'EUR', 'N', 1500),
+	((SELECT IPAddressID FROM ipaddress WHERE Value = '192.168.30.1'), '2016-12-15 16:00:00', '2016-12-22', 30000, 'CZK', 'N', 3000);
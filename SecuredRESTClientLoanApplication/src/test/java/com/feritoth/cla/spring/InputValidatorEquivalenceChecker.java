@@ -0,0 +1,134 @@
+package com.feritoth.cla.spring;
+
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cla.springmvc.service.InputValidator;
+
+/**
+ * Manual property check of the hand-written validators - like ReplicaRoutingTestDriver, it needs no deployment. Each
+ * validator is fed with a large number of random inputs and its answer is compared with the one of the regular
+ * expression it replaces, applied in the way the services applied it before. The inputs are built from the characters
+ * which matter to the expressions (and a few which do not), mostly by mutating well-formed samples, so that both the
+ * accepted and the rejected sides are explored near their boundary.
+ *
+ * Every mismatch is logged with its input; a run without mismatches ends with a summary per validator. Pass a number
+ * as the first argument to change the random seed.
+ */
+public class InputValidatorEquivalenceChecker {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(InputValidatorEquivalenceChecker.class);
+
+	/* The number of random inputs per validator and the maximum number of mismatches logged for each of them */
+	private static final int INPUTS_PER_VALIDATOR = 2000000;
+	private static final int MAXIMUM_LOGGED_MISMATCHES = 20;
+
+	/* The reference expressions - copied from the services as they were before the hand-written validators */
+	private static final Pattern EMAIL_PATTERN = Pattern.compile("^[_A-Za-z0-9-\\+]+(\\.[_A-Za-z0-9-]+)*@[A-Za-z0-9-]+(\\.[A-Za-z0-9]+)*(\\.[A-Za-z]{2,})$");
+	private static final Pattern FIRST_NAME_PATTERN = Pattern.compile("[A-Z][a-zA-Z]*");
+	private static final Pattern LAST_NAME_PATTERN = Pattern.compile("[a-zA-z]+([ '-][a-zA-Z]+)*");
+	private static final Pattern CNP_PATTERN = Pattern.compile("[0-9]+");
+	private static final Pattern IPADDRESS_PATTERN = Pattern.compile("^([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\.([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\.([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\.([01]?\\d\\d?|2[0-4]\\d|25[0-5])$");
+
+	/* The well-formed samples mutated by the generator */
+	private static final String[] EMAIL_SAMPLES = {"john.doe@gmail.com", "a+b_c-d@mail-server.cz", "x@y.co.uk", "first.last-1@sub1.domain.org"};
+	private static final String[] NAME_SAMPLES = {"Novak Jan", "O'Neill Mary", "Smith-Jones Anna Maria", "Dvorak Petr"};
+	private static final String[] CNP_SAMPLES = {"190071130101", "0", "1234567890123"};
+	private static final String[] IP_SAMPLES = {"192.168.10.1", "10.0.0.254", "1.2.3.4", "255.255.255.255", "099.01.000.9"};
+
+	/* The characters used for the mutations - the special ones of the expressions, their neighbours and some others */
+	private static final String MUTATION_CHARACTERS = "aZzA09._-+@' `^[]\\\t\u00e9\u0661Xy5";
+
+	/* The name check of the services: split on the space, the last name first - a name without a space failed with an exception, i.e. it was rejected */
+	private static boolean referenceNameCheck(String clientName){
+		String[] clientNameParts = clientName.split(" ");
+		if (clientNameParts.length < 2){
+			return false;
+		}
+		return FIRST_NAME_PATTERN.matcher(clientNameParts[1]).matches() && LAST_NAME_PATTERN.matcher(clientNameParts[0]).matches();
+	}
+
+	/* The IP check of the services: the expression, then the ranges of the first and the last octet */
+	private static boolean referenceIPCheck(String ipAddress){
+		if (!IPADDRESS_PATTERN.matcher(ipAddress).matches()){
+			return false;
+		}
+		String[] ipAddressComponents = ipAddress.split("\\.");
+		int firstNb = Integer.parseInt(ipAddressComponents[0]);
+		int lastNb = Integer.parseInt(ipAddressComponents[3]);
+		return firstNb != 127 && firstNb != 0 && firstNb < 240 && lastNb != 0 && lastNb != 255;
+	}
+
+	/* Build an input: either fully random or a sample with a few characters inserted, replaced or deleted */
+	private static String generateInput(Random random, String[] samples){
+		StringBuilder input = new StringBuilder();
+		if (random.nextInt(10) == 0){
+			int length = random.nextInt(16);
+			for (int i = 0; i < length; i++){
+				input.append(MUTATION_CHARACTERS.charAt(random.nextInt(MUTATION_CHARACTERS.length())));
+			}
+			return input.toString();
+		}
+		input.append(samples[random.nextInt(samples.length)]);
+		int mutationCount = random.nextInt(4);
+		for (int i = 0; i < mutationCount; i++){
+			int position = random.nextInt(input.length() + 1);
+			char character = MUTATION_CHARACTERS.charAt(random.nextInt(MUTATION_CHARACTERS.length()));
+			switch (random.nextInt(3)){
+			case 0:
+				input.insert(position, character);
+				break;
+			case 1:
+				if (position < input.length()){
+					input.setCharAt(position, character);
+				}
+				break;
+			default:
+				if (position < input.length()){
+					input.deleteCharAt(position);
+				}
+			}
+		}
+		return input.toString();
+	}
+
+	private static boolean checkEquivalence(String validatorName, String[] samples, Predicate<String> reference, Predicate<String> validator, Random random){
+		int mismatches = 0;
+		int accepted = 0;
+		for (int i = 0; i < INPUTS_PER_VALIDATOR; i++){
+			String input = generateInput(random, samples);
+			boolean expected = reference.test(input);
+			boolean actual = validator.test(input);
+			if (expected != actual){
+				if (++mismatches <= MAXIMUM_LOGGED_MISMATCHES){
+					LOGGER.error(validatorName + ": expected " + expected + " but got " + actual + " for \"" + input + "\"");
+				}
+			}
+			if (expected){
+				accepted++;
+			}
+		}
+		LOGGER.info(String.format("%-12s - %d inputs, %d accepted, %d mismatches", validatorName, INPUTS_PER_VALIDATOR, accepted, mismatches));
+		return mismatches == 0;
+	}
+
+	public static void main(String[] args){
+		long seed = (args.length > 0) ? Long.parseLong(args[0]) : System.nanoTime();
+		LOGGER.info("Checking the validators with the random seed " + seed);
+		Random random = new Random(seed);
+		boolean allEquivalent = checkEquivalence("e-mail", EMAIL_SAMPLES, input -> EMAIL_PATTERN.matcher(input).matches(), InputValidator::isValidEmailAddress, random);
+		allEquivalent &= checkEquivalence("name", NAME_SAMPLES, InputValidatorEquivalenceChecker::referenceNameCheck, InputValidator::isValidClientName, random);
+		allEquivalent &= checkEquivalence("CNP", CNP_SAMPLES, input -> CNP_PATTERN.matcher(input).matches(), InputValidator::isDigitsOnly, random);
+		allEquivalent &= checkEquivalence("IPv4", IP_SAMPLES, InputValidatorEquivalenceChecker::referenceIPCheck, input -> InputValidator.isAssignableIPv4(InputValidator.parseIPv4(input)), random);
+		if (allEquivalent){
+			LOGGER.info("All the validators are equivalent to their reference expressions");
+		} else {
+			LOGGER.error("Some of the validators differ from their reference expressions - see the mismatches above");
+		}
+	}
+
+}
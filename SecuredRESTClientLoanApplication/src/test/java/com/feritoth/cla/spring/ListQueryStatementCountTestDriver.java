@@ -0,0 +1,121 @@
+package com.feritoth.cla.spring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.feritoth.cla.springmvc.dao.IPAddressDao;
+import com.feritoth.cla.springmvc.dao.LoanDao;
+import com.feritoth.cla.springmvc.dao.hibernate.IPAddressHibernateDao;
+import com.feritoth.cla.springmvc.dao.hibernate.LoanHibernateDao;
+import com.feritoth.cla.springmvc.dbmodel.Client;
+import com.feritoth.cla.springmvc.dbmodel.IPAddress;
+import com.feritoth.cla.springmvc.dbmodel.Loan;
+
+/**
+ * Manual check of the number of SQL statements run by the list DAO paths - like ReplicaRoutingTestDriver, it needs no
+ * deployment: an embedded H2 database gets the schema of the Flyway migrations and the DAOs run against it through a
+ * plain Hibernate session factory, with the statistics enabled.
+ *
+ * The driver fills the database with N clients, IP addresses and loans (all the loans registered from the first
+ * address), counts the statements prepared by getAllRegisteredLoans, getAllLoansForIPAddress and getAllIPAddresses,
+ * then does the same with 10 times as many rows - the counts have to stay the same.
+ */
+public class ListQueryStatementCountTestDriver {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ListQueryStatementCountTestDriver.class);
+
+	private static final int ROW_COUNT = 50;
+
+	private static SessionFactory createSessionFactory(int rowCount){
+		JdbcDataSource embeddedDataSource = new JdbcDataSource();
+		embeddedDataSource.setURL("jdbc:h2:mem:statements" + rowCount + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+		Flyway.configure().dataSource(embeddedDataSource).locations("classpath:db/migration").load().migrate();
+		fillDatabase(new JdbcTemplate(embeddedDataSource), rowCount);
+		Configuration hibernateConfiguration = new Configuration().addAnnotatedClass(Client.class).addAnnotatedClass(IPAddress.class).addAnnotatedClass(Loan.class);
+		hibernateConfiguration.getProperties().put("hibernate.connection.datasource", embeddedDataSource);
+		hibernateConfiguration.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+		hibernateConfiguration.setProperty("hibernate.current_session_context_class", "thread");
+		hibernateConfiguration.setProperty("hibernate.cache.use_second_level_cache", "false");
+		hibernateConfiguration.setProperty("hibernate.generate_statistics", "true");
+		return hibernateConfiguration.buildSessionFactory();
+	}
+
+	private static void fillDatabase(JdbcTemplate jdbcTemplate, int rowCount){
+		List<Object[]> clients = new ArrayList<>();
+		List<Object[]> ipAddresses = new ArrayList<>();
+		List<Object[]> loans = new ArrayList<>();
+		for (int i = 0; i < rowCount; i++){
+			String cnp = String.format("1%011d", i);
+			clients.add(new Object[] { cnp, "Client " + i, "client" + i + "@gmail.com", "Street " + i });
+			ipAddresses.add(new Object[] { "10.0." + (i / 256) + "." + (i % 256), cnp });
+			loans.add(new Object[] { 1000 + i });
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO client (CNP, Name, EmailAddress, PostalAddress) VALUES (?, ?, ?, ?)", clients);
+		jdbcTemplate.batchUpdate("INSERT INTO ipaddress (Value, ClientCNP) VALUES (?, ?)", ipAddresses);
+		jdbcTemplate.batchUpdate("INSERT INTO loan (IPAddressID, ApplicationTime, LoanReturnDate, Amount, Currency, IsExtended, InterestRate) " +
+		                         "VALUES (1, '2016-12-12 10:00:00', '2016-12-19', ?, 'CZK', 'N', 100)", loans);
+	}
+
+	/* Run the list path in a transaction of its own and return the number of statements it prepared */
+	private static long countStatements(SessionFactory sessionFactory, String label, Supplier<List<?>> listPath, int expectedSize){
+		Statistics statistics = sessionFactory.getStatistics();
+		sessionFactory.getCurrentSession().beginTransaction();
+		statistics.clear();
+		int listSize = listPath.get().size();
+		long statementCount = statistics.getPrepareStatementCount();
+		sessionFactory.getCurrentSession().getTransaction().commit();
+		if (listSize != expectedSize){
+			LOGGER.error(label + ": " + listSize + " rows instead of " + expectedSize);
+		}
+		return statementCount;
+	}
+
+	private static long[] countStatementsOfListPaths(int rowCount){
+		SessionFactory sessionFactory = createSessionFactory(rowCount);
+		/* The DAOs get the session factory the same way as in the application */
+		AnnotationConfigApplicationContext daoContext = new AnnotationConfigApplicationContext();
+		daoContext.registerBean(SessionFactory.class, () -> sessionFactory);
+		daoContext.register(LoanHibernateDao.class, IPAddressHibernateDao.class);
+		daoContext.refresh();
+		try {
+			LoanDao loanDao = daoContext.getBean(LoanDao.class);
+			IPAddressDao ipAddressDao = daoContext.getBean(IPAddressDao.class);
+			long[] statementCounts = { countStatements(sessionFactory, "getAllRegisteredLoans", loanDao::getAllRegisteredLoans, rowCount),
+			                           countStatements(sessionFactory, "getAllLoansForIPAddress", () -> loanDao.getAllLoansForIPAddress(1), rowCount),
+			                           countStatements(sessionFactory, "getAllIPAddresses", ipAddressDao::getAllIPAddresses, rowCount) };
+			LOGGER.info(rowCount + " rows: " + statementCounts[0] + ", " + statementCounts[1] + " and " + statementCounts[2] + " statements");
+			return statementCounts;
+		} finally {
+			daoContext.close();
+			sessionFactory.close();
+		}
+	}
+
+	private static void expectSameStatementCount(String label, long smallListCount, long largeListCount){
+		if (smallListCount == largeListCount){
+			LOGGER.info(label + ": " + smallListCount + " statement(s) for both list sizes as expected");
+		} else {
+			LOGGER.error(label + ": " + smallListCount + " statement(s) for " + ROW_COUNT + " rows, but " + largeListCount + " for " + (ROW_COUNT * 10) + " rows");
+		}
+	}
+
+	public static void main(String[] args) {
+		long[] smallListCounts = countStatementsOfListPaths(ROW_COUNT);
+		long[] largeListCounts = countStatementsOfListPaths(ROW_COUNT * 10);
+		expectSameStatementCount("getAllRegisteredLoans", smallListCounts[0], largeListCounts[0]);
+		expectSameStatementCount("getAllLoansForIPAddress", smallListCounts[1], largeListCounts[1]);
+		expectSameStatementCount("getAllIPAddresses", smallListCounts[2], largeListCounts[2]);
+	}
+
+}
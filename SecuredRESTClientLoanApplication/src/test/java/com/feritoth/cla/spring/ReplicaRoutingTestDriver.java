@@ -0,0 +1,89 @@
+package com.feritoth.cla.spring;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.feritoth.cla.springmvc.configuration.ReplicaRoutingDataSource;
+
+/**
+ * Manual check of the read/write routing - unlike the SpringRestTestClientFor* classes, it needs no deployment: two
+ * embedded H2 databases stand in for the primary and the replica. Each of them holds a marker row naming it, as well
+ * as a heartbeat row whose age is reported as replication lag, in the way pt-heartbeat does it against MySQL.
+ *
+ * The driver checks that the read-only transactions are served by the replica and the read-write ones by the primary,
+ * then ages the heartbeat of the replica beyond the allowed lag and checks that the reads fall back to the primary,
+ * and finally that they return to the replica once its heartbeat is fresh again.
+ */
+public class ReplicaRoutingTestDriver {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingTestDriver.class);
+
+	/* The lag query run against the replica and the routing settings */
+	private static final String LAG_QUERY = "SELECT DATEDIFF('SECOND', beat, CURRENT_TIMESTAMP) FROM heartbeat";
+	private static final long MAXIMUM_LAG_SECONDS = 5L;
+	private static final long LAG_CHECK_INTERVAL_MILLIS = 200L;
+
+	private static DataSource createEmbeddedDatabase(String name){
+		JdbcDataSource embeddedDataSource = new JdbcDataSource();
+		embeddedDataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(embeddedDataSource);
+		jdbcTemplate.execute("CREATE TABLE served_by (name VARCHAR(20))");
+		jdbcTemplate.update("INSERT INTO served_by VALUES (?)", name);
+		jdbcTemplate.execute("CREATE TABLE heartbeat (beat TIMESTAMP)");
+		jdbcTemplate.execute("INSERT INTO heartbeat VALUES (CURRENT_TIMESTAMP)");
+		return embeddedDataSource;
+	}
+
+	/* Run the marker query in a transaction of the given kind and tell which database answered */
+	private static String findServingDatabase(TransactionTemplate transactionTemplate, JdbcTemplate jdbcTemplate, boolean readOnly){
+		transactionTemplate.setReadOnly(readOnly);
+		return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM served_by", String.class));
+	}
+
+	private static void expectServingDatabase(String label, String expectedDatabase, String servingDatabase){
+		if (expectedDatabase.equals(servingDatabase)){
+			LOGGER.info(label + ": served by " + servingDatabase + " as expected");
+		} else {
+			LOGGER.error(label + ": served by " + servingDatabase + " instead of " + expectedDatabase);
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		DataSource primaryDataSource = createEmbeddedDatabase("primary");
+		DataSource replicaDataSource = createEmbeddedDatabase("replica");
+		List<DataSource> replicaDataSources = new ArrayList<>();
+		replicaDataSources.add(replicaDataSource);
+		ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicaDataSources, LAG_QUERY, MAXIMUM_LAG_SECONDS, LAG_CHECK_INTERVAL_MILLIS);
+		routingDataSource.afterPropertiesSet();
+		/* The same wiring as in HibernateConfiguration, with a plain JDBC transaction manager instead of the Hibernate one */
+		DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		try {
+			expectServingDatabase("Read-only transaction", "replica", findServingDatabase(transactionTemplate, jdbcTemplate, true));
+			expectServingDatabase("Read-write transaction", "primary", findServingDatabase(transactionTemplate, jdbcTemplate, false));
+			/* Let the replica fall behind: its heartbeat is suddenly one hour old */
+			new JdbcTemplate(replicaDataSource).update("UPDATE heartbeat SET beat = DATEADD('HOUR', -1, CURRENT_TIMESTAMP)");
+			Thread.sleep(LAG_CHECK_INTERVAL_MILLIS * 3);
+			LOGGER.info("Replica states after the lag: " + routingDataSource.getReplicaStates());
+			expectServingDatabase("Read-only transaction with a lagging replica", "primary", findServingDatabase(transactionTemplate, jdbcTemplate, true));
+			/* And let it catch up again */
+			new JdbcTemplate(replicaDataSource).update("UPDATE heartbeat SET beat = CURRENT_TIMESTAMP");
+			Thread.sleep(LAG_CHECK_INTERVAL_MILLIS * 3);
+			expectServingDatabase("Read-only transaction after the catch-up", "replica", findServingDatabase(transactionTemplate, jdbcTemplate, true));
+		} finally {
+			routingDataSource.close();
+		}
+	}
+
+}
@@ -0,0 +1,188 @@
+package com.feritoth.cla.spring;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import com.feritoth.cla.springmvc.jsonmodel.LoanCurrency;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedClient;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedIPAddress;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedLoan;
+
+/**
+ * Manual latency benchmark for the loan endpoints - in the same spirit as the SpringRestTestClientFor* classes,
+ * it runs against a live deployment of the application and only reports its measurements through the logger.
+ *
+ * The benchmark grows the loan table in steps through a background client and measures at each step the latency
+ * of the loan endpoints for a target client whose own number of loans stays constant, as well as the latency of
+ * the loan registration itself (whose daily loan count check runs against the whole loan table).
+ */
+public class SpringRestBenchmarkClientForLoan {
+
+	/* Declare here the link where the benchmark shall be carried out */
+    public static final String REST_SERVICE_URI = "http://localhost:8084/SecuredRESTClientLoanApplication";
+	/* And the logger used for reporting the measurements */
+	private static final Logger LOGGER = LoggerFactory.getLogger(SpringRestBenchmarkClientForLoan.class);
+
+	/* The sizes (total number of background loans) at which the measurements are taken */
+	private static final int[] LOAN_TABLE_SIZES = {500, 1000, 2000, 4000, 8000};
+	/* The number of warm-up and measured requests for each step */
+	private static final int WARMUP_REQUESTS = 50;
+	private static final int MEASURED_REQUESTS = 200;
+	/* The number of loans kept constant for the target client */
+	private static final int TARGET_CLIENT_LOANS = 10;
+	/* The number of IP addresses used by the background client - each of them can receive 3 loans per day */
+	private static final int BACKGROUND_IP_COUNT = 20;
+	/* The number of timed registrations for each step and the IP addresses receiving them */
+	private static final int MEASURED_REGISTRATIONS = 60;
+	private static final int PROBE_IP_COUNT = 10;
+
+	/* The test data: a target client whose loans are searched for and a background client used for growing the loan table */
+	private static final SerializedClient TARGET_CLIENT = new SerializedClient("190071130501", "Benchmark Target", "benchmark.target@gmail.com", "Benchmark street 1, Praha 4");
+	private static final SerializedClient BACKGROUND_CLIENT = new SerializedClient("190071130502", "Benchmark Background", "benchmark.background@gmail.com", "Benchmark street 2, Praha 4");
+	private static final String TARGET_IP_VALUE = "150.90.100.1";
+	private static final String BACKGROUND_IP_PREFIX = "150.90.101.";
+	private static final String PROBE_IP_PREFIX = "150.90.102.";
+
+	private static final RestTemplate REST_TEMPLATE = new RestTemplate();
+
+	/* Create the JSON headers used for every POST request */
+	private static HttpHeaders createJSONHeaders(){
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		List<MediaType> acceptedMediaTypes = new ArrayList<MediaType>();
+		acceptedMediaTypes.add(MediaType.APPLICATION_JSON);
+		headers.setAccept(acceptedMediaTypes);
+		return headers;
+	}
+
+	/* POST a client - a conflict response for an already registered client is fine for the benchmark */
+	private static void registerClient(SerializedClient client){
+		REST_TEMPLATE.postForEntity(REST_SERVICE_URI + "/client/", new HttpEntity<SerializedClient>(client, createJSONHeaders()), Object.class);
+	}
+
+	/* POST an IP address for a client and read its details back in order to get the generated ID */
+	@SuppressWarnings("unchecked")
+	private static SerializedIPAddress registerIPAddress(String ipValue, SerializedClient ownerClient){
+		SerializedIPAddress candidateAddress = new SerializedIPAddress(ipValue, null);
+		candidateAddress.setOwnerClient(ownerClient);
+		REST_TEMPLATE.postForEntity(REST_SERVICE_URI + "/ipAddress/", new HttpEntity<SerializedIPAddress>(candidateAddress, createJSONHeaders()), Object.class);
+		HashMap<String, Object> ipAddressMap = (HashMap<String, Object>) REST_TEMPLATE.getForObject(REST_SERVICE_URI + "/ipAddress/matchIPvalue/" + ipValue + "/", Object.class);
+		SerializedIPAddress registeredAddress = new SerializedIPAddress(ipValue, (Integer) ipAddressMap.get("ipID"));
+		registeredAddress.setOwnerClient(ownerClient);
+		return registeredAddress;
+	}
+
+	/* POST a regular loan of 1000 CZK applied for at 10 AM on the given day */
+	private static ResponseEntity<Object> registerLoan(SerializedIPAddress ipAddress, LocalDate applicationDay){
+		SerializedLoan newLoan = new SerializedLoan();
+		newLoan.setIpAddress(ipAddress);
+		newLoan.setApplicationTime(LocalDateTime.of(applicationDay, LocalTime.of(10, 0)));
+		newLoan.setReturnDate(applicationDay.plusDays(7));
+		newLoan.setLoanedAmount(1000L);
+		newLoan.setCurrency(LoanCurrency.CZK);
+		return REST_TEMPLATE.postForEntity(REST_SERVICE_URI + "/loan/", new HttpEntity<SerializedLoan>(newLoan, createJSONHeaders()), Object.class);
+	}
+
+	/* Register loans for the given IP addresses until the requested number of loans is reached - at most 3 loans per IP address and day */
+	private static void registerLoans(List<SerializedIPAddress> ipAddresses, int firstLoanIndex, int lastLoanIndex){
+		LocalDate firstDay = LocalDate.now().minusYears(1);
+		for (int loanIndex = firstLoanIndex; loanIndex < lastLoanIndex; loanIndex++){
+			int ipIndex = loanIndex % ipAddresses.size();
+			int dayOffset = loanIndex / (ipAddresses.size() * 3);
+			registerLoan(ipAddresses.get(ipIndex), firstDay.plusDays(dayOffset));
+		}
+	}
+
+	/* Log the percentiles of the given latencies in milliseconds */
+	private static void logLatencyPercentiles(String label, long[] latencies, int loanTableSize){
+		Arrays.sort(latencies);
+		LOGGER.info(String.format("%s - background loans: %6d, p50: %8.3f ms, p95: %8.3f ms, max: %8.3f ms", label, loanTableSize,
+				                  latencies[latencies.length / 2] / 1e6, latencies[latencies.length * 95 / 100] / 1e6, latencies[latencies.length - 1] / 1e6));
+	}
+
+	/* Invoke the given GET URL repeatedly and log the latency percentiles in milliseconds */
+	private static void measureGetLatency(String label, String restURL, int loanTableSize){
+		for (int i = 0; i < WARMUP_REQUESTS; i++){
+			REST_TEMPLATE.getForEntity(restURL, Object.class);
+		}
+		long[] latencies = new long[MEASURED_REQUESTS];
+		for (int i = 0; i < MEASURED_REQUESTS; i++){
+			long start = System.nanoTime();
+			ResponseEntity<Object> serviceResponse = REST_TEMPLATE.getForEntity(restURL, Object.class);
+			latencies[i] = System.nanoTime() - start;
+			if (serviceResponse.getStatusCode().isError()){
+				LOGGER.warn("Unexpected response status during the benchmark: " + serviceResponse.getStatusCode());
+			}
+		}
+		logLatencyPercentiles(label, latencies, loanTableSize);
+	}
+
+	/* Time the registration of new loans on the probe addresses - each step uses its own days, so that the daily limit of 3 loans is never reached */
+	private static void measureRegistrationLatency(List<SerializedIPAddress> probeAddresses, int stepIndex, int loanTableSize){
+		int daysPerStep = MEASURED_REGISTRATIONS / (probeAddresses.size() * 3) + 1;
+		LocalDate firstStepDay = LocalDate.now().minusYears(2).plusDays(stepIndex * daysPerStep);
+		long[] latencies = new long[MEASURED_REGISTRATIONS];
+		for (int i = 0; i < MEASURED_REGISTRATIONS; i++){
+			SerializedIPAddress probeAddress = probeAddresses.get(i % probeAddresses.size());
+			LocalDate applicationDay = firstStepDay.plusDays(i / (probeAddresses.size() * 3));
+			long start = System.nanoTime();
+			ResponseEntity<Object> serviceResponse = registerLoan(probeAddress, applicationDay);
+			latencies[i] = System.nanoTime() - start;
+			if (serviceResponse.getStatusCode() != HttpStatus.CREATED){
+				LOGGER.warn("Loan registration rejected during the benchmark: " + serviceResponse.getBody());
+			}
+		}
+		logLatencyPercentiles("POST /loan/", latencies, loanTableSize);
+	}
+
+	/* Measure the latency of the client loan search and of the loan registration while the loan table keeps growing */
+	private static void benchmarkLoansForClient(List<SerializedIPAddress> backgroundAddresses, List<SerializedIPAddress> probeAddresses){
+		LOGGER.info("Benchmarking /loan/matchClient/{clientCNP}/ and POST /loan/ against a growing loan table...");
+		String restURL = REST_SERVICE_URI + "/loan/matchClient/" + TARGET_CLIENT.getCnp() + "/";
+		int registeredLoans = 0;
+		for (int stepIndex = 0; stepIndex < LOAN_TABLE_SIZES.length; stepIndex++){
+			int loanTableSize = LOAN_TABLE_SIZES[stepIndex];
+			registerLoans(backgroundAddresses, registeredLoans, loanTableSize);
+			registeredLoans = loanTableSize;
+			measureGetLatency("/loan/matchClient/", restURL, loanTableSize);
+			measureRegistrationLatency(probeAddresses, stepIndex, loanTableSize);
+		}
+	}
+
+	public static void main(String[] args){
+		/* Prepare first the target client with a constant number of loans */
+		registerClient(TARGET_CLIENT);
+		SerializedIPAddress targetAddress = registerIPAddress(TARGET_IP_VALUE, TARGET_CLIENT);
+		List<SerializedIPAddress> targetAddresses = new ArrayList<>();
+		targetAddresses.add(targetAddress);
+		registerLoans(targetAddresses, 0, TARGET_CLIENT_LOANS);
+		/* Then prepare the background client with its IP addresses */
+		registerClient(BACKGROUND_CLIENT);
+		List<SerializedIPAddress> backgroundAddresses = new ArrayList<>();
+		for (int i = 1; i <= BACKGROUND_IP_COUNT; i++){
+			backgroundAddresses.add(registerIPAddress(BACKGROUND_IP_PREFIX + i, BACKGROUND_CLIENT));
+		}
+		/* As well as the probe addresses receiving the timed registrations - owned by the background client, so that the loans of the target client stay constant */
+		List<SerializedIPAddress> probeAddresses = new ArrayList<>();
+		for (int i = 1; i <= PROBE_IP_COUNT; i++){
+			probeAddresses.add(registerIPAddress(PROBE_IP_PREFIX + i, BACKGROUND_CLIENT));
+		}
+		/* Finally run the benchmark - the latencies should stay flat as the number of background loans grows */
+		benchmarkLoansForClient(backgroundAddresses, probeAddresses);
+	}
+
+}
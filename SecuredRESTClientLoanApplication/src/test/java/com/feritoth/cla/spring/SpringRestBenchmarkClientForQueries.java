@@ -0,0 +1,91 @@
+package com.feritoth.cla.spring;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Manual benchmark for the large list endpoints - in the same spirit as the SpringRestTestClientFor* classes, it runs
+ * against a live deployment of the application and only reports its measurements through the logger.
+ *
+ * Each endpoint is measured for its latency together with the session flushes it caused, read from the flush counters
+ * of /monitoring/flush/ before and after the measurement. The query methods run in read-only transactions, which never
+ * flush - a read-write transaction instead dirty-checks every loaded entity at commit. To see the savings, run it once
+ * against this build and once against a build whose query methods are read-write (e.g. with the readOnly attributes
+ * removed from the services), on the same data - SpringRestBenchmarkClientForLoan leaves about 8000 loans behind.
+ */
+public class SpringRestBenchmarkClientForQueries {
+
+	/* Declare here the link where the benchmark shall be carried out */
+    public static final String REST_SERVICE_URI = "http://localhost:8084/SecuredRESTClientLoanApplication";
+	/* And the logger used for reporting the measurements */
+	private static final Logger LOGGER = LoggerFactory.getLogger(SpringRestBenchmarkClientForQueries.class);
+
+	/* The number of warm-up and measured requests for each endpoint - lower than for the single lookups, as the lists are large */
+	private static final int WARMUP_REQUESTS = 10;
+	private static final int MEASURED_REQUESTS = 50;
+
+	/* The list endpoints returning the whole tables */
+	private static final String[] LIST_ENDPOINTS = {"/loan/", "/client/", "/ipAddress/"};
+
+	private static final RestTemplate REST_TEMPLATE = new RestTemplate();
+
+	/* Read the flushed entity count and the flush time histogram - null when the deployed build does not expose them */
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> readFlushMetrics(){
+		try {
+			return (Map<String, Object>) REST_TEMPLATE.getForObject(REST_SERVICE_URI + "/monitoring/flush/", Map.class);
+		} catch (RestClientException rce) {
+			return null;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static long readFlushCount(Map<String, Object> flushMetrics){
+		return ((Number) ((Map<String, Object>) flushMetrics.get("flushTime")).get("count")).longValue();
+	}
+
+	/* Invoke the given list endpoint repeatedly and log its latency percentiles in milliseconds as well as the flushes it caused */
+	private static void measureListEndpoint(String endpoint){
+		String restURL = REST_SERVICE_URI + endpoint;
+		for (int i = 0; i < WARMUP_REQUESTS; i++){
+			REST_TEMPLATE.getForEntity(restURL, Object.class);
+		}
+		Map<String, Object> flushMetricsBefore = readFlushMetrics();
+		long[] latencies = new long[MEASURED_REQUESTS];
+		for (int i = 0; i < MEASURED_REQUESTS; i++){
+			long start = System.nanoTime();
+			ResponseEntity<Object> serviceResponse = REST_TEMPLATE.getForEntity(restURL, Object.class);
+			latencies[i] = System.nanoTime() - start;
+			if (serviceResponse.getStatusCode().isError()){
+				LOGGER.warn("Unexpected response status during the benchmark: " + serviceResponse.getStatusCode());
+			}
+		}
+		Map<String, Object> flushMetricsAfter = readFlushMetrics();
+		Arrays.sort(latencies);
+		LOGGER.info(String.format("GET %-12s - p50: %8.3f ms, p95: %8.3f ms, max: %8.3f ms", endpoint,
+				                  latencies[latencies.length / 2] / 1e6, latencies[latencies.length * 95 / 100] / 1e6, latencies[latencies.length - 1] / 1e6));
+		if (flushMetricsBefore == null || flushMetricsAfter == null){
+			LOGGER.info("The flush counters are not exposed by the deployed build - compare the latencies only");
+			return;
+		}
+		/* Other traffic hitting the application in the meantime would be counted as well - run the benchmark on an otherwise idle deployment */
+		long flushes = readFlushCount(flushMetricsAfter) - readFlushCount(flushMetricsBefore);
+		long flushedEntities = ((Number) flushMetricsAfter.get("flushedEntities")).longValue() - ((Number) flushMetricsBefore.get("flushedEntities")).longValue();
+		LOGGER.info(String.format("GET %-12s - flushes per request: %6.2f, dirty-checked entities per request: %10.1f", endpoint,
+				                  (double) flushes / MEASURED_REQUESTS, (double) flushedEntities / MEASURED_REQUESTS));
+	}
+
+	public static void main(String[] args){
+		for (String endpoint : LIST_ENDPOINTS){
+			measureListEndpoint(endpoint);
+		}
+		LOGGER.info("Commit-time flush statistics of the whole run: " + readFlushMetrics());
+	}
+
+}
@@ -0,0 +1,443 @@
+package com.feritoth.cla.spring;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.feritoth.cla.springmvc.controller.utility.IOFormatter;
+import com.feritoth.cla.springmvc.jsonmodel.LoanCurrency;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedClient;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedIPAddress;
+import com.feritoth.cla.springmvc.jsonmodel.SerializedLoan;
+import com.feritoth.cla.springmvc.service.LoanService;
+
+/**
+ * Manual load generator for the REST API - built from the scenarios of the SpringRestTestClientFor* classes, it runs
+ * against a live deployment of the application and only reports its measurements through the logger. It is meant to
+ * be run against the application booted locally on the embedded database, e.g. with
+ * mvn tomcat7:run -Dspring.profiles.active=embedded -Dmaven.tomcat.port=8084
+ *
+ * The requests are issued at a fixed target rate, whatever the response times (an open model): a scheduler thread
+ * hands every request at its intended start time to a pool of virtual users, and the latency of a request is counted
+ * from that intended start. A request waiting for a free virtual user is hence counted with its waiting time, as a
+ * real client would see it, instead of silently lowering the offered rate. Each request is one operation of the mix,
+ * drawn at random by the weights of the operations.
+ *
+ * The run is configured through system properties (defaults in brackets):
+ * load.uri [REST_SERVICE_URI], load.rate - requests per second [200], load.users - virtual users [50],
+ * load.warmup and load.duration - seconds of the unrecorded warm-up and of the measurement [10 and 60],
+ * load.mix - the weights of the operations, e.g. "readClient=30,registerLoan=5" (the operations left out keep their default weight, 0 disables one),
+ * load.seed - the random seed of the mix [current time],
+ * load.applicationDays - the number of days, today included, over which the registered loans are spread [enough days for
+ * the daily loan limits of the load addresses to hold all the loan registrations of the run twice].
+ *
+ * At the end, the throughput and the p50/p95/p99/max latencies are logged per endpoint, with two kinds of failures: the
+ * errors (HTTP error statuses, I/O failures) and the rejections (ExceptionInfo answers, returned under status 200).
+ * The writes leave their clients, IP addresses and loans behind - restart the embedded application for a clean run.
+ */
+public class SpringRestLoadGenerator {
+
+	/* Declare here the default link where the load shall be generated */
+	public static final String REST_SERVICE_URI = "http://localhost:8084/SecuredRESTClientLoanApplication";
+	/* And the logger used for reporting the measurements */
+	private static final Logger LOGGER = LoggerFactory.getLogger(SpringRestLoadGenerator.class);
+
+	/* The test data registered before the run: the clients and the IP addresses used by the reads and the loan registrations */
+	private static final int LOAD_CLIENT_COUNT = 20;
+	private static final int IP_ADDRESSES_PER_LOAD_CLIENT = 5;
+	private static final String LOAD_CNP_PREFIX = "1900713";
+	private static final String LOAD_IP_PREFIX = "150.91.";
+	/* The page size of the list reads - the default page of the application */
+	private static final int LIST_PAGE_SIZE = 100;
+	/* The client names are told apart by letters (the names allow no digits) - as many as needed for any registration sequence */
+	private static final int NAME_SEQUENCE_LETTERS = 7;
+
+	private static final RestTemplate REST_TEMPLATE = new RestTemplate();
+	/* The number of days, today included, over which the registered loans are spread - at most 3 loans per IP address and day are accepted */
+	private static int loanApplicationDays;
+	/* The free daily loan slots are the ones expected to be taken, times this factor - the random draws do not fill the days evenly */
+	private static final int LOAN_SLOT_HEADROOM = 2;
+
+	/* The registered test data, read by the virtual users */
+	private static String serviceURI;
+	private static final List<SerializedClient> LOAD_CLIENTS = new ArrayList<>();
+	private static final List<SerializedIPAddress> LOAD_IP_ADDRESSES = new ArrayList<>();
+	private static final List<Integer> LOAN_IDS = new ArrayList<>();
+	/* The sequence of the clients and IP addresses registered during the run - started from the clock, so that the reruns do not collide */
+	private static final AtomicInteger REGISTRATION_SEQUENCE = new AtomicInteger((int) (System.currentTimeMillis() / 1000 % 1000000) * 100);
+
+	/* The statistics of the endpoints, keyed by their labels, and of all of them together */
+	private static final Map<String, EndpointStatistics> ENDPOINT_STATISTICS = new ConcurrentHashMap<>();
+	private static final EndpointStatistics TOTAL_STATISTICS = new EndpointStatistics();
+	private static volatile boolean recording;
+
+	/* The operations of the mix with their default weights - reads dominate, as with the desktop client */
+	private enum Operation {
+
+		READ_CLIENT("readClient", 20) {
+			@Override
+			void execute(long intendedStart){
+				get(intendedStart, "GET /client/matchID/{cnp}/", "/client/matchID/" + randomElement(LOAD_CLIENTS).getCnp() + "/");
+			}
+		},
+		READ_CLIENT_PAGE("readClientPage", 5) {
+			@Override
+			void execute(long intendedStart){
+				get(intendedStart, "GET /client/?limit", "/client/?limit=" + LIST_PAGE_SIZE);
+			}
+		},
+		READ_IP_ADDRESS("readIPAddress", 10) {
+			@Override
+			void execute(long intendedStart){
+				get(intendedStart, "GET /ipAddress/matchIPvalue/{ipValue}/", "/ipAddress/matchIPvalue/" + randomElement(LOAD_IP_ADDRESSES).getIpValue() + "/");
+			}
+		},
+		READ_CLIENT_IP_ADDRESSES("readClientIPAddresses", 10) {
+			@Override
+			void execute(long intendedStart){
+				get(intendedStart, "GET /ipAddress/matchClient/{clientCNP}/", "/ipAddress/matchClient/" + randomElement(LOAD_CLIENTS).getCnp() + "/");
+			}
+		},
+		READ_CLIENT_LOANS("readClientLoans", 15) {
+			@Override
+			void execute(long intendedStart){
+				get(intendedStart, "GET /loan/matchClient/{clientCNP}/", "/loan/matchClient/" + randomElement(LOAD_CLIENTS).getCnp() + "/");
+			}
+		},
+		READ_IP_ADDRESS_LOANS("readIPAddressLoans", 10) {
+			@Override
+			void execute(long intendedStart){
+				get(intendedStart, "GET /loan/matchIPaddress/{IPvalue}/", "/loan/matchIPaddress/" + randomElement(LOAD_IP_ADDRESSES).getIpValue() + "/");
+			}
+		},
+		READ_LOAN_PAGE("readLoanPage", 5) {
+			@Override
+			void execute(long intendedStart){
+				get(intendedStart, "GET /loan/?limit", "/loan/?limit=" + LIST_PAGE_SIZE);
+			}
+		},
+		READ_LOAN_HISTORY("readLoanHistory", 10) {
+			@Override
+			void execute(long intendedStart){
+				if (LOAN_IDS.isEmpty()){
+					return;
+				}
+				get(intendedStart, "GET /loan/displayLoanHistory/{loanID}/", "/loan/displayLoanHistory/" + randomElement(LOAN_IDS) + "/");
+			}
+		},
+		REGISTER_CLIENT("registerClient", 3) {
+			@Override
+			void execute(long intendedStart){
+				int sequence = REGISTRATION_SEQUENCE.incrementAndGet();
+				SerializedClient newClient = new SerializedClient(String.format("2%011d", sequence), createClientName(sequence), "load.generator" + sequence + "@gmail.com", "Load street " + sequence + ", Praha 4");
+				post(intendedStart, "POST /client/", "/client/", newClient);
+			}
+		},
+		REGISTER_IP_ADDRESS("registerIPAddress", 2) {
+			@Override
+			void execute(long intendedStart){
+				int sequence = REGISTRATION_SEQUENCE.incrementAndGet();
+				/* An assignable address outside of the ones of the test data: the last octet is never 0 or 255 */
+				String ipValue = "151." + (sequence / (254 * 256) % 256) + "." + (sequence / 254 % 256) + "." + (1 + sequence % 254);
+				SerializedIPAddress newIPAddress = new SerializedIPAddress(ipValue, null);
+				newIPAddress.setOwnerClient(randomElement(LOAD_CLIENTS));
+				post(intendedStart, "POST /ipAddress/", "/ipAddress/", newIPAddress);
+			}
+		},
+		REGISTER_LOAN("registerLoan", 10) {
+			@Override
+			void execute(long intendedStart){
+				/* A regular loan of one of the last days - spread over enough of them for the daily limits of the load addresses not to be taken before the end of the run */
+				LocalDate applicationDay = LocalDate.now().minusDays(ThreadLocalRandom.current().nextInt(loanApplicationDays));
+				post(intendedStart, "POST /loan/", "/loan/", createLoan(randomElement(LOAD_IP_ADDRESSES), applicationDay));
+			}
+		};
+
+		/* The name of the operation in the load.mix property */
+		private final String mixName;
+		private final int defaultWeight;
+
+		private Operation(String mixName, int defaultWeight) {
+			this.mixName = mixName;
+			this.defaultWeight = defaultWeight;
+		}
+
+		@Override
+		public String toString() {
+			return mixName;
+		}
+
+		/* Issue the request of the operation, whose latency is counted from the given intended start */
+		abstract void execute(long intendedStart);
+
+	}
+
+	/* The latencies and the failures of one endpoint - the latencies are kept in full, a run of a few minutes holds at most some millions of them */
+	private static final class EndpointStatistics {
+
+		private long[] latencies = new long[1024];
+		private int count;
+		private int errors;
+		private int rejections;
+
+		synchronized void record(long latencyNanos, Outcome outcome){
+			if (count == latencies.length){
+				latencies = Arrays.copyOf(latencies, count * 2);
+			}
+			latencies[count++] = latencyNanos;
+			if (outcome == Outcome.ERROR){
+				errors++;
+			} else if (outcome == Outcome.REJECTED){
+				rejections++;
+			}
+		}
+
+		synchronized String summarize(String endpoint, double measuredSeconds){
+			/* No latency to report for an endpoint without any completed call during the measurement */
+			if (count == 0){
+				return String.format("%-42s %8d %9.1f %9s %9s %9s %9s %7d %7d", endpoint, 0, 0.0, "-", "-", "-", "-", errors, rejections);
+			}
+			long[] sortedLatencies = Arrays.copyOf(latencies, count);
+			Arrays.sort(sortedLatencies);
+			return String.format("%-42s %8d %9.1f %9.3f %9.3f %9.3f %9.3f %7d %7d", endpoint, count, count / measuredSeconds,
+					             percentile(sortedLatencies, 50) / 1e6, percentile(sortedLatencies, 95) / 1e6, percentile(sortedLatencies, 99) / 1e6,
+					             sortedLatencies[count - 1] / 1e6, errors, rejections);
+		}
+
+		/* The nearest-rank percentile of the sorted latencies */
+		private static long percentile(long[] sortedLatencies, int percent){
+			int rank = (int) Math.ceil(percent / 100.0 * sortedLatencies.length);
+			return sortedLatencies[Math.max(rank, 1) - 1];
+		}
+
+	}
+
+	private enum Outcome {
+		SUCCESS, REJECTED, ERROR
+	}
+
+	/* A name unique to the given sequence - the names are matched by LIKE %name%, the fixed number of letters keeps one from being part of another */
+	private static String createClientName(int sequence){
+		char[] sequenceLetters = new char[NAME_SEQUENCE_LETTERS];
+		int remainder = sequence;
+		for (int index = NAME_SEQUENCE_LETTERS - 1; index >= 0; index--){
+			sequenceLetters[index] = (char) ('a' + remainder % 26);
+			remainder /= 26;
+		}
+		return "Generator Load" + new String(sequenceLetters);
+	}
+
+	/* Enough days for the daily loan slots of the load addresses to hold the expected loan registrations of the whole run, with some headroom */
+	private static int computeLoanApplicationDays(Map<Operation, Integer> operationWeights, int targetRate, int runSeconds){
+		int totalWeight = operationWeights.values().stream().mapToInt(Integer::intValue).sum();
+		double expectedLoans = (double) targetRate * runSeconds * operationWeights.get(Operation.REGISTER_LOAN) / Math.max(totalWeight, 1);
+		int dailyLoanSlots = LOAD_CLIENT_COUNT * IP_ADDRESSES_PER_LOAD_CLIENT * LoanService.MAXIMUM_LOAN_NB_PER_DAY;
+		return Math.max((int) Math.ceil(expectedLoans * LOAN_SLOT_HEADROOM / dailyLoanSlots), 1);
+	}
+
+	private static <T> T randomElement(List<T> elements){
+		return elements.get(ThreadLocalRandom.current().nextInt(elements.size()));
+	}
+
+	/* Create the JSON headers used for every POST request */
+	private static HttpHeaders createJSONHeaders(){
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		List<MediaType> acceptedMediaTypes = new ArrayList<MediaType>();
+		acceptedMediaTypes.add(MediaType.APPLICATION_JSON);
+		headers.setAccept(acceptedMediaTypes);
+		return headers;
+	}
+
+	/* A regular loan of 1000 CZK applied for at 10 AM on the given day */
+	private static SerializedLoan createLoan(SerializedIPAddress ipAddress, LocalDate applicationDay){
+		SerializedLoan newLoan = new SerializedLoan();
+		newLoan.setIpAddress(ipAddress);
+		newLoan.setApplicationTime(LocalDateTime.of(applicationDay, LocalTime.of(10, 0)));
+		newLoan.setReturnDate(applicationDay.plusDays(7));
+		newLoan.setLoanedAmount(1000L);
+		newLoan.setCurrency(LoanCurrency.CZK);
+		return newLoan;
+	}
+
+	/* The errors are returned by the controllers as ExceptionInfo under the status 200 - recognized by their error code */
+	private static Outcome classifyResponse(ResponseEntity<Object> serviceResponse){
+		if (serviceResponse.getStatusCode().isError()){
+			return Outcome.ERROR;
+		}
+		Object responseBody = serviceResponse.getBody();
+		if (responseBody instanceof Map && ((Map<?, ?>) responseBody).containsKey("errorCode")){
+			return Outcome.REJECTED;
+		}
+		return Outcome.SUCCESS;
+	}
+
+	private static void get(long intendedStart, String endpoint, String path){
+		Outcome outcome;
+		try {
+			outcome = classifyResponse(REST_TEMPLATE.getForEntity(serviceURI + path, Object.class));
+		} catch (RestClientException rce) {
+			outcome = Outcome.ERROR;
+		}
+		recordOutcome(endpoint, intendedStart, outcome);
+	}
+
+	private static void post(long intendedStart, String endpoint, String path, Object requestBody){
+		Outcome outcome;
+		try {
+			outcome = classifyResponse(REST_TEMPLATE.postForEntity(serviceURI + path, new HttpEntity<Object>(requestBody, createJSONHeaders()), Object.class));
+		} catch (RestClientException rce) {
+			outcome = Outcome.ERROR;
+		}
+		recordOutcome(endpoint, intendedStart, outcome);
+	}
+
+	private static void recordOutcome(String endpoint, long intendedStart, Outcome outcome){
+		long latency = System.nanoTime() - intendedStart;
+		if (recording){
+			ENDPOINT_STATISTICS.computeIfAbsent(endpoint, key -> new EndpointStatistics()).record(latency, outcome);
+			TOTAL_STATISTICS.record(latency, outcome);
+		}
+	}
+
+	/* Register the test data - a conflict with the data of an earlier run is fine, the registered values are read back */
+	@SuppressWarnings("unchecked")
+	private static void registerTestData(){
+		for (int clientIndex = 0; clientIndex < LOAD_CLIENT_COUNT; clientIndex++){
+			SerializedClient loadClient = new SerializedClient(LOAD_CNP_PREFIX + String.format("%05d", clientIndex), createClientName(clientIndex), "load.client" + clientIndex + "@gmail.com", "Load street " + clientIndex + ", Praha 4");
+			REST_TEMPLATE.postForEntity(serviceURI + "/client/", new HttpEntity<SerializedClient>(loadClient, createJSONHeaders()), Object.class);
+			LOAD_CLIENTS.add(loadClient);
+			for (int addressIndex = 1; addressIndex <= IP_ADDRESSES_PER_LOAD_CLIENT; addressIndex++){
+				String ipValue = LOAD_IP_PREFIX + clientIndex + "." + addressIndex;
+				SerializedIPAddress candidateAddress = new SerializedIPAddress(ipValue, null);
+				candidateAddress.setOwnerClient(loadClient);
+				REST_TEMPLATE.postForEntity(serviceURI + "/ipAddress/", new HttpEntity<SerializedIPAddress>(candidateAddress, createJSONHeaders()), Object.class);
+				/* Read the address back in order to get the generated ID, needed by the loan registrations */
+				Map<String, Object> ipAddressMap = (Map<String, Object>) REST_TEMPLATE.getForObject(serviceURI + "/ipAddress/matchIPvalue/" + ipValue + "/", Object.class);
+				SerializedIPAddress registeredAddress = new SerializedIPAddress(ipValue, (Integer) ipAddressMap.get("ipID"));
+				registeredAddress.setOwnerClient(loadClient);
+				LOAD_IP_ADDRESSES.add(registeredAddress);
+				/* Give every address a loan, so that the loan reads return something */
+				REST_TEMPLATE.postForEntity(serviceURI + "/loan/", new HttpEntity<SerializedLoan>(createLoan(registeredAddress, LocalDate.now().minusDays(addressIndex)), createJSONHeaders()), Object.class);
+			}
+		}
+		/* The loan history reads pick their IDs from the first loan page */
+		List<Map<String, Object>> loanPage = (List<Map<String, Object>>) REST_TEMPLATE.getForObject(serviceURI + "/loan/?limit=" + IOFormatter.MAXIMUM_PAGE_SIZE, Object.class);
+		if (loanPage != null){
+			loanPage.forEach(loanMap -> LOAN_IDS.add((Integer) loanMap.get("loanID")));
+		}
+		LOGGER.info("Test data registered: " + LOAD_CLIENTS.size() + " clients, " + LOAD_IP_ADDRESSES.size() + " IP addresses, " + LOAN_IDS.size() + " known loan IDs");
+	}
+
+	/* Read the weights of the mix - the defaults, overridden by the load.mix property */
+	private static Map<Operation, Integer> readOperationWeights(){
+		Map<Operation, Integer> operationWeights = new LinkedHashMap<>();
+		for (Operation operation : Operation.values()){
+			operationWeights.put(operation, operation.defaultWeight);
+		}
+		String mix = System.getProperty("load.mix", "");
+		for (String weightSetting : mix.split(",")){
+			if (weightSetting.trim().isEmpty()){
+				continue;
+			}
+			String[] nameAndWeight = weightSetting.split("=");
+			Operation operation = Arrays.stream(Operation.values()).filter(candidate -> candidate.mixName.equals(nameAndWeight[0].trim())).findFirst()
+					                    .orElseThrow(() -> new IllegalArgumentException("Unknown operation in load.mix: " + nameAndWeight[0] + " - known ones: " + Arrays.toString(Operation.values())));
+			operationWeights.put(operation, Integer.valueOf(nameAndWeight[1].trim()));
+		}
+		return operationWeights;
+	}
+
+	/* Repeat every operation as many times as its weight - a uniform draw from the result follows the weights */
+	private static Operation[] expandOperationWeights(Map<Operation, Integer> operationWeights){
+		List<Operation> weightedOperations = new ArrayList<>();
+		operationWeights.forEach((operation, weight) -> {
+			for (int i = 0; i < weight; i++){
+				weightedOperations.add(operation);
+			}
+		});
+		if (weightedOperations.isEmpty()){
+			throw new IllegalArgumentException("The operation mix has no positive weight");
+		}
+		return weightedOperations.toArray(new Operation[0]);
+	}
+
+	/* Issue the requests at the target rate until the end of the given phase */
+	private static long generateLoad(ExecutorService virtualUsers, Operation[] weightedOperations, Random random, long firstStart, long intervalNanos, long phaseEnd, long requestIndex){
+		while (true){
+			long intendedStart = firstStart + requestIndex * intervalNanos;
+			if (intendedStart >= phaseEnd){
+				return requestIndex;
+			}
+			long delay = intendedStart - System.nanoTime();
+			if (delay > 0){
+				LockSupport.parkNanos(delay);
+				continue;
+			}
+			Operation operation = weightedOperations[random.nextInt(weightedOperations.length)];
+			virtualUsers.execute(() -> operation.execute(intendedStart));
+			requestIndex++;
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		serviceURI = System.getProperty("load.uri", REST_SERVICE_URI);
+		int targetRate = Integer.getInteger("load.rate", 200);
+		int userCount = Integer.getInteger("load.users", 50);
+		int warmupSeconds = Integer.getInteger("load.warmup", 10);
+		int durationSeconds = Integer.getInteger("load.duration", 60);
+		long seed = Long.getLong("load.seed", System.nanoTime());
+		Map<Operation, Integer> operationWeights = readOperationWeights();
+		loanApplicationDays = Math.max(Integer.getInteger("load.applicationDays", computeLoanApplicationDays(operationWeights, targetRate, warmupSeconds + durationSeconds)), 1);
+		/* Keep a pooled connection for every virtual user - the JDK keeps only 5 per host by default and would reconnect for the others */
+		System.setProperty("http.maxConnections", String.valueOf(userCount));
+		LOGGER.info("Generating " + targetRate + " requests/s with " + userCount + " virtual users against " + serviceURI + " - warm-up " + warmupSeconds + " s, measurement " + durationSeconds + " s, seed " + seed + ", loans of the last " + loanApplicationDays + " day(s)");
+		LOGGER.info("Operation mix: " + operationWeights);
+		registerTestData();
+		ThreadPoolExecutor virtualUsers = new ThreadPoolExecutor(userCount, userCount, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+		Operation[] weightedOperations = expandOperationWeights(operationWeights);
+		Random random = new Random(seed);
+		long intervalNanos = TimeUnit.SECONDS.toNanos(1) / targetRate;
+		long firstStart = System.nanoTime();
+		long measurementStart = firstStart + TimeUnit.SECONDS.toNanos(warmupSeconds);
+		long measurementEnd = measurementStart + TimeUnit.SECONDS.toNanos(durationSeconds);
+		long requestIndex = generateLoad(virtualUsers, weightedOperations, random, firstStart, intervalNanos, measurementStart, 0L);
+		/* The warm-up requests still running when the recording starts are recorded as well - they are a small part of the measurement */
+		recording = true;
+		generateLoad(virtualUsers, weightedOperations, random, firstStart, intervalNanos, measurementEnd, requestIndex);
+		virtualUsers.shutdown();
+		if (!virtualUsers.awaitTermination(1, TimeUnit.MINUTES)){
+			LOGGER.warn("Requests were still running one minute after the end of the measurement - the application cannot keep up with the target rate");
+			virtualUsers.shutdownNow();
+		}
+		/* The throughput is taken over the measured period plus the draining of the last requests */
+		double measuredSeconds = (System.nanoTime() - measurementStart) / 1e9;
+		LOGGER.info(String.format("%-42s %8s %9s %9s %9s %9s %9s %7s %7s", "Endpoint", "Requests", "Req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "Errors", "Rejects"));
+		ENDPOINT_STATISTICS.keySet().stream().sorted().forEach(endpoint -> LOGGER.info(ENDPOINT_STATISTICS.get(endpoint).summarize(endpoint, measuredSeconds)));
+		LOGGER.info(TOTAL_STATISTICS.summarize("All endpoints", measuredSeconds));
+	}
+
+}